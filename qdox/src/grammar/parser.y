@@ -19,8 +19,11 @@
  */
 
 import com.thoughtworks.qdox.builder.Builder;
+import com.thoughtworks.qdox.builder.TypeAssembler;
+import com.thoughtworks.qdox.model.expression.*;
+import com.thoughtworks.qdox.model.impl.DefaultJavaAnnotation;
+import com.thoughtworks.qdox.model.impl.DefaultJavaType;
 import com.thoughtworks.qdox.parser.*;
-import com.thoughtworks.qdox.parser.expression.*;
 import com.thoughtworks.qdox.parser.structs.*;
 import java.io.IOException;
 import java.util.LinkedList;
@@ -54,6 +57,7 @@ import java.util.Stack;
 %token <ival> PLUS MINUS STAR SLASH PERCENT TILDE EXCLAMATION
 %token <ival> PLUSPLUS MINUSMINUS
 %token <sval> EQUALS STAREQUALS SLASHEQUALS PERCENTEQUALS PLUSEQUALS MINUSEQUALS LESSTHAN2EQUALS GREATERTHAN2EQUALS GREATERTHAN3EQUALS AMPERSANDEQUALS CIRCUMFLEXEQUALS VERTLINEEQUALS
+%token EXPRESSIONSTART
 %type <type> BasicType
 %type <annoval> Expression Literal Annotation ElementValue ElementValueArrayInitializer
 %type <annoval> ConditionalExpression ConditionalOrExpression ConditionalAndExpression InclusiveOrExpression ExclusiveOrExpression AndExpression
@@ -68,6 +72,16 @@ import java.util.Stack;
 // Source: Java Language Specification - Third Edition
 //         The Java(TM) Language Specification - Java SE 7 Edition ( Chapter 18. Syntax )
 
+// Goal:
+//     CompilationUnit
+//     Expression, only when started by parseExpression()
+Goal: CompilationUnit
+    | EXPRESSIONSTART Expression
+      {
+        expression = $2;
+      }
+    ;
+
 // CompilationUnit: 
 //     [ [Annotations] package QualifiedIdentifier ; ] {ImportDeclaration} {TypeDeclaration}
 CompilationUnit: PackageDeclaration_opt ImportDeclarations_opt TypeDeclarations_opt
@@ -552,7 +566,10 @@ Annotation: AT QualifiedIdentifier
            {
              builder.addAnnotation(annotation);
            }
-           $$ = annotation;
+           else
+           {
+             $$ = createAnnotation(annotation);
+           }
          };
 
 // AnnotationElement:
@@ -562,7 +579,7 @@ AnnotationElement_opt:
                      | ElementValuePairs
                      | ElementValue
                        { 
-                         annotationStack.getFirst().getArgs().put("value", $1);
+                         annotationStack.getFirst().getValues().put("value", $1);
                        }
                      ;
 
@@ -576,7 +593,7 @@ ElementValuePairs: ElementValuePair
 //     Identifier = ElementValue
 ElementValuePair: IDENTIFIER EQUALS ElementValue 
                   {
-                    annotationStack.getFirst().getArgs().put($1, $3);
+                    annotationStack.getFirst().getValues().put($1, $3);
                   }
                 ;
 
@@ -594,11 +611,11 @@ ElementValue: ConditionalExpression
 */    
 ElementValueArrayInitializer: {
                                 annoValueListStack.add(annoValueList);
-                                annoValueList = new LinkedList<ElemValueDef>();
+                                annoValueList = new LinkedList<AnnotationValue>();
                               }
                               BRACEOPEN ElementValues_opt BRACECLOSE
                               { 
-                                $$ = new ElemValueListDef(annoValueList);
+                                $$ = new AnnotationValueList(annoValueList);
                                 annoValueList = annoValueListStack.remove(annoValueListStack.size() - 1);
                               };
     
@@ -873,23 +890,23 @@ VariableInitializers_opt:
 Primary: Literal 
        | PARENOPEN Expression PARENCLOSE /* ParExpression*/
          { 
-           $$ = new ParenExpressionDef($2); 
+           $$ = new ParenExpression($2); 
          }
        | BasicType Dims_opt DOT CLASS 
          { 
-           $$ = new TypeRefDef(new TypeDef($1.getName(), $2));
+           $$ = new TypeRef(createType($1.getName(), $2));
          }
        | QualifiedIdentifier DOT CLASS 
          { 
-            $$ = new TypeRefDef(new TypeDef($1, 0));
+            $$ = new TypeRef(createType($1, 0));
          }
        | QualifiedIdentifier Dims DOT CLASS
          {
-           $$ = new TypeRefDef(new TypeDef($1, $2));
+           $$ = new TypeRef(createType($1, $2));
          } 
        | QualifiedIdentifier 
          { 
-           $$ = new FieldRefDef($1); 
+           $$ = new FieldRef($1); 
          }
        | MethodInvocation 
          {
@@ -910,25 +927,25 @@ Primary: Literal
 //     NullLiteral
 Literal: INTEGER_LITERAL
          { 
-           $$ = new ConstantDef($1, Integer.class); 
+           $$ = Constant.newIntegerLiteral($1); 
          } 
        | FLOAT_LITERAL 
          { 
-           $$ = new ConstantDef($1, Float.class); 
+           $$ = Constant.newFloatingPointLiteral($1); 
          } 
        | CHAR_LITERAL 
          {
            String s = lexer.getCodeBody(); 
-           $$ = new ConstantDef(s, Character.class); 
+           $$ = Constant.newCharacterLiteral(s); 
          } 
        | STRING_LITERAL 
          { 
            String s = lexer.getCodeBody(); 
-           $$ = new ConstantDef(s, String.class); 
+           $$ = Constant.newStringLiteral(s); 
          }
        | BOOLEAN_LITERAL 
          { 
-           $$ = new ConstantDef($1, Boolean.class);
+           $$ = Constant.newBooleanLiteral($1);
          }
        ; 
 
@@ -942,23 +959,18 @@ Arguments: PARENOPEN ExpressionList_opt PARENCLOSE
 // Creator:  
 //     NonWildcardTypeArguments CreatedName ClassCreatorRest
 //     CreatedName ( ClassCreatorRest | ArrayCreatorRest )
+// There's no model for instance creation, so it has no value
 Creator: NonWildcardTypeArguments CreatedName ClassCreatorRest 
          { 
-           CreatorDef creator = new CreatorDef();
-           creator.setCreatedName( $2 );
-           $$ = creator; 
+           $$ = null; 
          }
        | CreatedName ClassCreatorRest
          {
-           CreatorDef creator = new CreatorDef();
-           creator.setCreatedName( $1 );
-           $$ = creator; 
+           $$ = null; 
          }
        | CreatedName ArrayCreatorRest 
          {
-           CreatorDef creator = new CreatorDef();
-           creator.setCreatedName( $1 );
-           $$ = creator; 
+           $$ = null; 
          }
        ;
 
@@ -987,11 +999,11 @@ ArrayCreatorRest: Dims ArrayInitializer
 
 ArgumentList: Expression
               {
-                builder.addArgument( (ExpressionDef) $1);
+                builder.addArgument( $1 );
               }
             | ArgumentList COMMA Expression
               {
-                builder.addArgument( (ExpressionDef) $3);
+                builder.addArgument( $3 );
               }
             ;
 ArgumentList_opt:
@@ -1018,121 +1030,121 @@ Dims_opt: {
 // 15.12 Method Invocation Expressions
 MethodInvocation: IDENTIFIER PARENOPEN ArgumentList_opt PARENCLOSE
                   {
-                    $$ = new MethodInvocationDef($1, null);
+                    $$ = new MethodInvocation($1, null);
                   }
                 | QualifiedIdentifier DOT TypeParameters_opt IDENTIFIER PARENOPEN ArgumentList_opt PARENCLOSE
                   {
-                    $$ = new MethodInvocationDef($1, null);
+                    $$ = new MethodInvocation($1, null);
                   };
 
 // 15.14 Postfix Expressions
 PostfixExpression: /* ExpressionName | */
                    Primary
-     | PostfixExpression PLUSPLUS   { $$ = new PostIncrementDef($1); } 
-     | PostfixExpression MINUSMINUS { $$ = new PostDecrementDef($1); };
+     | PostfixExpression PLUSPLUS   { $$ = new PostIncrement($1); } 
+     | PostfixExpression MINUSMINUS { $$ = new PostDecrement($1); };
 
 // 15.15 Unary Operators
-UnaryExpression: PLUSPLUS UnaryExpression   { $$ = new PreIncrementDef($2);  }
-               | MINUSMINUS UnaryExpression { $$ = new PreDecrementDef($2);  }
-               | PLUS UnaryExpression       { $$ = new PlusSignDef($2); } 
-               | MINUS UnaryExpression      { $$ = new MinusSignDef($2); }
+UnaryExpression: PLUSPLUS UnaryExpression   { $$ = new PreIncrement($2);  }
+               | MINUSMINUS UnaryExpression { $$ = new PreDecrement($2);  }
+               | PLUS UnaryExpression       { $$ = new PlusSign($2); } 
+               | MINUS UnaryExpression      { $$ = new MinusSign($2); }
                | UnaryExpressionNotPlusMinus;
 
 UnaryExpressionNotPlusMinus: PostfixExpression 
-                           | TILDE UnaryExpression       { $$ = new NotDef($2); } 
-                           | EXCLAMATION UnaryExpression { $$ = new LogicalNotDef($2); } 
+                           | TILDE UnaryExpression       { $$ = new Not($2); } 
+                           | EXCLAMATION UnaryExpression { $$ = new LogicalNot($2); } 
                            | CastExpression;
 
 // 15.16 Cast Expressions 
-CastExpression: PARENOPEN BasicType Dims_opt PARENCLOSE UnaryExpression   { $$ = new CastDef(new TypeDef($2.getName(), $3), $5); } 
-              | PARENOPEN QualifiedIdentifier PARENCLOSE UnaryExpressionNotPlusMinus      { $$ = new CastDef(new TypeDef($2, 0), $4); }
-              | PARENOPEN QualifiedIdentifier Dims PARENCLOSE UnaryExpressionNotPlusMinus { $$ = new CastDef(new TypeDef($2, $3), $5); };
+CastExpression: PARENOPEN BasicType Dims_opt PARENCLOSE UnaryExpression   { $$ = new Cast(createType($2.getName(), $3), $5); } 
+              | PARENOPEN QualifiedIdentifier PARENCLOSE UnaryExpressionNotPlusMinus      { $$ = new Cast(createType($2, 0), $4); }
+              | PARENOPEN QualifiedIdentifier Dims PARENCLOSE UnaryExpressionNotPlusMinus { $$ = new Cast(createType($2, $3), $5); };
 
 // 15.17 Multiplicative Operators
 MultiplicativeExpression: UnaryExpression 
-                        | MultiplicativeExpression STAR UnaryExpression    { $$ = new MultiplyDef($1, $3); } 
-                        | MultiplicativeExpression SLASH UnaryExpression   { $$ = new DivideDef($1, $3); } 
-                        | MultiplicativeExpression PERCENT UnaryExpression { $$ = new RemainderDef($1, $3); };
+                        | MultiplicativeExpression STAR UnaryExpression    { $$ = new Multiply($1, $3); } 
+                        | MultiplicativeExpression SLASH UnaryExpression   { $$ = new Divide($1, $3); } 
+                        | MultiplicativeExpression PERCENT UnaryExpression { $$ = new Remainder($1, $3); };
 
 // 15.18 Additive Operators
 AdditiveExpression: MultiplicativeExpression 
-                  | AdditiveExpression PLUS MultiplicativeExpression  { $$ = new AddDef($1, $3); } 
-                  | AdditiveExpression MINUS MultiplicativeExpression { $$ = new SubtractDef($1, $3); };
+                  | AdditiveExpression PLUS MultiplicativeExpression  { $$ = new Add($1, $3); } 
+                  | AdditiveExpression MINUS MultiplicativeExpression { $$ = new Subtract($1, $3); };
 
 // 15.19 Shift Operators
 ShiftExpression: AdditiveExpression 
-               | ShiftExpression LESSTHAN2 AdditiveExpression    { $$ = new ShiftLeftDef($1, $3); }
-               | ShiftExpression GREATERTHAN3 AdditiveExpression { $$ = new UnsignedShiftRightDef($1, $3); } 
-               | ShiftExpression GREATERTHAN2 AdditiveExpression { $$ = new ShiftRightDef($1, $3); };
+               | ShiftExpression LESSTHAN2 AdditiveExpression    { $$ = new ShiftLeft($1, $3); }
+               | ShiftExpression GREATERTHAN3 AdditiveExpression { $$ = new UnsignedShiftRight($1, $3); } 
+               | ShiftExpression GREATERTHAN2 AdditiveExpression { $$ = new ShiftRight($1, $3); };
 
 // 15.20 Relational Operators
 RelationalExpression: ShiftExpression 
                     | RelationalExpression LESSEQUALS ShiftExpression    
                       { 
-                        $$ = new LessEqualsDef($1, $3);
+                        $$ = new LessEquals($1, $3);
                       } 
                     | RelationalExpression GREATEREQUALS ShiftExpression 
                       { 
-                        $$ = new GreaterEqualsDef($1, $3); 
+                        $$ = new GreaterEquals($1, $3); 
                       } 
                     | RelationalExpression LESSTHAN ShiftExpression      
                       { 
-                        $$ = new LessThanDef($1, $3); 
+                        $$ = new LessThan($1, $3); 
                       } 
                     | RelationalExpression GREATERTHAN ShiftExpression   
                       { 
-                        $$ = new GreaterThanDef($1, $3); 
+                        $$ = new GreaterThan($1, $3); 
                       };
 
 // 15.21 Equality Operators
 EqualityExpression: RelationalExpression 
                   | EqualityExpression EQUALS2 RelationalExpression   
                     { 
-                      $$ = new EqualsDef($1, $3);
+                      $$ = new Equals($1, $3);
                     } 
                   | EqualityExpression NOTEQUALS RelationalExpression 
                     { 
-                      $$ = new NotEqualsDef($1, $3); 
+                      $$ = new NotEquals($1, $3); 
                     };
 
 // 15.22 Bitwise and Logical Operators
 InclusiveOrExpression: ExclusiveOrExpression 
                      | InclusiveOrExpression VERTLINE ExclusiveOrExpression 
                        { 
-                         $$ = new OrDef($1, $3); 
+                         $$ = new Or($1, $3); 
                        };
 
 ExclusiveOrExpression: AndExpression 
                      | ExclusiveOrExpression CIRCUMFLEX AndExpression 
                        { 
-                         $$ = new ExclusiveOrDef($1, $3);
+                         $$ = new ExclusiveOr($1, $3);
                        };
 
 AndExpression: EqualityExpression 
              | AndExpression AMPERSAND EqualityExpression 
                { 
-                 $$ = new AndDef($1, $3); 
+                 $$ = new And($1, $3); 
                };
 
 // 15.23 Conditional-And Operator &&
 ConditionalAndExpression: InclusiveOrExpression 
                         | ConditionalAndExpression AMPERSAND2 InclusiveOrExpression 
                           { 
-                            $$ = new LogicalAndDef($1, $3); 
+                            $$ = new LogicalAnd($1, $3); 
                           };
 
 // 15.24 Conditional-Or Operator ||
 ConditionalOrExpression: ConditionalAndExpression 
                        | ConditionalOrExpression VERTLINE2 ConditionalAndExpression 
                          { 
-                           $$ = new LogicalOrDef($1, $3);
+                           $$ = new LogicalOr($1, $3);
                          };
 
 // 15.25 Conditional Operator ? : 
 ConditionalExpression: ConditionalOrExpression 
                      | ConditionalOrExpression QUERY Expression COLON ConditionalExpression 
                        { 
-                         $$ = new QueryDef($1, $3, $5);
+                         $$ = new Query($1, $3, $5);
                        };
                        
 // 15.26 Assignment Operators
@@ -1141,14 +1153,14 @@ AssignmentExpression: ConditionalExpression
 
 Assignment: LeftHandSide AssignmentOperator AssignmentExpression
             {
-              $$ = new AssignmentDef($1, $2, $3);
+              $$ = new Assignment($1, $2, $3);
             };
 
 
 // ExpressionName | FieldAccess
 LeftHandSide: QualifiedIdentifier
               {
-                $$ = new FieldRefDef($1);
+                $$ = new FieldRef($1);
               };
 //            | ArrayAccess;
 
@@ -1241,8 +1253,8 @@ private MethodDef mth = new MethodDef();
 private FieldDef fd;
 private List<TypeVariableDef> typeParams = new LinkedList<TypeVariableDef>(); //for both JavaClass and JavaMethod
 private LinkedList<AnnoDef> annotationStack = new LinkedList<AnnoDef>(); // Use LinkedList instead of Stack because it is unsynchronized 
-private List<List<ElemValueDef>> annoValueListStack = new LinkedList<List<ElemValueDef>>(); // Use LinkedList instead of Stack because it is unsynchronized
-private List<ElemValueDef> annoValueList = null;
+private List<List<AnnotationValue>> annoValueListStack = new LinkedList<List<AnnotationValue>>(); // Use LinkedList instead of Stack because it is unsynchronized
+private List<AnnotationValue> annoValueList = null;
 private FieldDef param = new FieldDef();
 private java.util.Set<String> modifiers = new java.util.LinkedHashSet<String>();
 private TypeDef fieldType;
@@ -1252,6 +1264,8 @@ private List<TypeDef> typeList = new LinkedList<TypeDef>();
 private int line;
 private int column;
 private boolean debugLexer;
+private int startToken;
+private AnnotationValue expression;
 
 private void appendToBuffer(String word) {
     if (textBuffer.length() > 0) {
@@ -1291,7 +1305,27 @@ public boolean parse() {
     return yyparse() == 0;
 }
 
+/**
+ * Parse a single expression, like the initialization expression of a field, instead of a compilation unit.
+ * The lexer should read the expression like the arguments of an annotation, see JFlexLexer#beginExpression().
+ * Types and field references of the expression don't have a context yet.
+ *
+ * @return the expression, or <code>null</code> if it has no model, like an instance creation
+ * @since 2.0
+ */
+public AnnotationValue parseExpression() {
+    startToken = EXPRESSIONSTART;
+    expression = null;
+    return ( yyparse() == 0 ? expression : null );
+}
+
 private int yylex() {
+    if (startToken != 0) {
+        final int result = startToken;
+        startToken = 0;
+        yylval = new Value();
+        return result;
+    }
     try {
         final int result = lexer.lex();
         yylval = new Value();
@@ -1316,10 +1350,28 @@ private class Value {
     int ival;
     boolean bval;
     TypeDef type;
-    ElemValueDef annoval;
+    AnnotationValue annoval;
 }
 
 
+/**
+ * The type of an expression, which gets its context once the element it belongs to is known.
+ */
+private DefaultJavaType createType(String name, int dimensions) {
+    return TypeAssembler.createUnresolved(new TypeDef(name, dimensions), null);
+}
+
+/**
+ * A nested annotation, which gets its context together with the annotation it belongs to.
+ */
+private DefaultJavaAnnotation createAnnotation(AnnoDef annoDef) {
+    DefaultJavaAnnotation annotation = new DefaultJavaAnnotation(createType(annoDef.getTypeDef().getName(), 0), annoDef.getLineNumber());
+    for (java.util.Map.Entry<String, AnnotationValue> arg : annoDef.getValues().entrySet()) {
+        annotation.setProperty(arg.getKey(), arg.getValue());
+    }
+    return annotation;
+}
+
 private void makeField(TypeDef field, String body, boolean enumConstant) {
     fd = new FieldDef( field.getName() );
     fd.setName(field.getName());
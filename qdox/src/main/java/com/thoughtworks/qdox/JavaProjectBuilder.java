@@ -29,16 +29,21 @@ import java.io.Reader;
 import java.net.URL;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 
 import com.thoughtworks.qdox.directorywalker.DirectoryScanner;
 import com.thoughtworks.qdox.directorywalker.FileVisitor;
 import com.thoughtworks.qdox.directorywalker.SuffixFilter;
+import com.thoughtworks.qdox.library.ClassLibrary;
 import com.thoughtworks.qdox.library.ClassLibraryBuilder;
 import com.thoughtworks.qdox.library.ErrorHandler;
 import com.thoughtworks.qdox.library.SortedClassLibraryBuilder;
+import com.thoughtworks.qdox.model.DocletTag;
+import com.thoughtworks.qdox.model.JavaAnnotatedElement;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaPackage;
 import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
 
 /**
  * This is the improved version of the JavaDocBuilder of QDox 1.x, which has the following tasks:
@@ -204,7 +209,7 @@ public class JavaProjectBuilder
     }
 
     /**
-     * Add all java files of the {@code directory} recursively
+     * Add all java files of the {@code directory} recursively, skipping the directories of version control systems
      * 
      * @param directory the directory from which all java files should be parsed.
      * @param errorHandler a fileVisitor which will be triggered when an {@link IOException} occurs.
@@ -213,6 +218,9 @@ public class JavaProjectBuilder
     {
         DirectoryScanner scanner = new DirectoryScanner( directory );
         scanner.addFilter( new SuffixFilter( ".java" ) );
+        scanner.addExclude( "**/.git/" );
+        scanner.addExclude( "**/.svn/" );
+        scanner.addExclude( "**/CVS/" );
         scanner.scan( new FileVisitor()
         {
             public void visitFile( File currentFile )
@@ -305,6 +313,60 @@ public class JavaProjectBuilder
         return classLibraryBuilder.getClassLibrary().getJavaPackages();
     }
 
+    /**
+     * Retrieve all usages of the type with this name by the sources known to the library.
+     * 
+     * @param name the fully qualified name of the type
+     * @return the type usages, never <code>null</code>
+     * @see ClassLibrary#getTypeUsages(String)
+     * @since 2.0
+     */
+    public List<JavaTypeUsage> getTypeUsages( String name )
+    {
+        return classLibraryBuilder.getClassLibrary().getTypeUsages( name );
+    }
+
+    /**
+     * Retrieve all elements directly annotated with the annotation with this name.
+     * 
+     * @param name the fully qualified name of the annotation
+     * @return the annotated elements, never <code>null</code>
+     * @see ClassLibrary#getAnnotatedElements(String, boolean)
+     * @since 2.0
+     */
+    public List<JavaAnnotatedElement> getAnnotatedElements( String name )
+    {
+        return getAnnotatedElements( name, false );
+    }
+
+    /**
+     * Retrieve all elements annotated with the annotation with this name, optionally including the elements annotated
+     * with an annotation type which is meta-annotated with it.
+     * 
+     * @param name the fully qualified name of the annotation
+     * @param metaAnnotations <code>true</code> to follow meta-annotations
+     * @return the annotated elements, never <code>null</code>
+     * @see ClassLibrary#getAnnotatedElements(String, boolean)
+     * @since 2.0
+     */
+    public List<JavaAnnotatedElement> getAnnotatedElements( String name, boolean metaAnnotations )
+    {
+        return classLibraryBuilder.getClassLibrary().getAnnotatedElements( name, metaAnnotations );
+    }
+
+    /**
+     * Retrieve the doclet tags with this name of all elements, like {@code getTagsByName( "ejb.bean" )}.
+     * 
+     * @param name the name of the tag, without the leading @
+     * @return the doclet tags, never <code>null</code>
+     * @see ClassLibrary#getTagsByName(String)
+     * @since 2.0
+     */
+    public List<DocletTag> getTagsByName( String name )
+    {
+        return classLibraryBuilder.getClassLibrary().getTagsByName( name );
+    }
+
     // Searcher
 
     public Collection<JavaClass> search( Searcher searcher )
@@ -321,6 +383,17 @@ public class JavaProjectBuilder
         return result;
     }
 
+    /**
+     * Resolve and finalize the complete model, after which it can be read by multiple threads without any
+     * synchronization. Sources, sourcefolders and classloaders can't be added anymore.
+     * 
+     * @see ClassLibrary#freeze()
+     */
+    public void freeze()
+    {
+        classLibraryBuilder.getClassLibrary().freeze();
+    }
+
     /**
      * Persist the classLibraryBuilder to a file
      * 
@@ -22,7 +22,7 @@ package com.thoughtworks.qdox.builder;
 import java.net.URL;
 
 import com.thoughtworks.qdox.model.JavaSource;
-import com.thoughtworks.qdox.parser.expression.ExpressionDef;
+import com.thoughtworks.qdox.model.expression.Expression;
 import com.thoughtworks.qdox.parser.structs.AnnoDef;
 import com.thoughtworks.qdox.parser.structs.ClassDef;
 import com.thoughtworks.qdox.parser.structs.FieldDef;
@@ -35,6 +35,12 @@ import com.thoughtworks.qdox.writer.ModelWriterFactory;
 public interface Builder
 {
     void setModelWriterFactory( ModelWriterFactory writer );
+
+    /**
+     * @param textStore the store for comments, source code and initialization expressions
+     * @since 2.0
+     */
+    void setTextStore( TextStore textStore );
     
     void setUrl( URL url );
 
@@ -63,7 +69,7 @@ public interface Builder
 
     void addAnnotation( AnnoDef annotation );
 
-    void addArgument(  ExpressionDef argument );
+    void addArgument( Expression argument );
 
     JavaSource getSource();
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.thoughtworks.qdox.builder;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+
+/**
+ * Keeps the larger texts of the model, like comments, tag values, source code and initialization expressions.
+ * The builders pass every text through the store and the model only keeps the result, which returns the original
+ * text with its {@link CharSequence#toString() toString()}. This way the text can be kept in another form than a
+ * plain String, for instance compressed or outside the heap.
+ * 
+ * @since 2.0
+ */
+public interface TextStore
+    extends Serializable
+{
+    /**
+     * Store the text.
+     * 
+     * @param text the text to store, may be <code>null</code>
+     * @return the stored text, <code>null</code> if the text was <code>null</code>
+     */
+    CharSequence store( String text );
+}
@@ -19,9 +19,14 @@ package com.thoughtworks.qdox.builder;
  * under the License.
  */
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
 import com.thoughtworks.qdox.model.JavaType;
 import com.thoughtworks.qdox.model.impl.DefaultJavaParameterizedType;
 import com.thoughtworks.qdox.model.impl.DefaultJavaWildcardType;
@@ -53,6 +58,70 @@ public final class TypeAssembler
      * @return the Type
      */
     public static DefaultJavaType createUnresolved( TypeDef typeDef, int dimensions, JavaClassParent context )
+    {
+        return createCached( typeDef, dimensions, context, null );
+    }
+
+    /**
+     * Same as {@link #createUnresolved(TypeDef, int, JavaClassParent)}, but types which have been created before for
+     * the same class are reused. Within one context equal TypeDefs will always resolve to the same class, so these
+     * types (including their actual type arguments) can be shared instead of creating new instances for every usage.
+     * 
+     * @param typeDef the TypeDef
+     * @param dimensions the additional dimensions
+     * @param context the class in which the type is used
+     * @param typeCache the types already created for this class, mapped by their declaration, may be
+     *            <code>null</code>
+     * @return the Type
+     */
+    public static DefaultJavaType createUnresolved( TypeDef typeDef, int dimensions, JavaClass context,
+                                                    Map<String, DefaultJavaType> typeCache )
+    {
+        return createCached( typeDef, dimensions, context, typeCache );
+    }
+
+    /**
+     * Same as {@link #createUnresolved(TypeDef, int, JavaClass, Map)}, for types used outside of a class, like the
+     * types of the package annotations.
+     * 
+     * @param typeDef the TypeDef
+     * @param dimensions the additional dimensions
+     * @param context the source in which the type is used
+     * @param typeCache the types already created for this source, mapped by their declaration, may be
+     *            <code>null</code>
+     * @return the Type
+     */
+    public static DefaultJavaType createUnresolved( TypeDef typeDef, int dimensions, JavaSource context,
+                                                    Map<String, DefaultJavaType> typeCache )
+    {
+        return createCached( typeDef, dimensions, context, typeCache );
+    }
+
+    @SuppressWarnings( "deprecation" )
+    private static DefaultJavaType createCached( TypeDef typeDef, int dimensions, JavaClassParent context,
+                                                 Map<String, DefaultJavaType> typeCache )
+    {
+        DefaultJavaType result;
+        if ( typeCache != null )
+        {
+            String key = getKey( typeDef, dimensions );
+            result = typeCache.get( key );
+            if ( result == null )
+            {
+                result = newUnresolved( typeDef, dimensions, context, typeCache );
+                typeCache.put( key, result );
+            }
+        }
+        else
+        {
+            result = newUnresolved( typeDef, dimensions, context, null );
+        }
+        return result;
+    }
+
+    @SuppressWarnings( "deprecation" )
+    private static DefaultJavaType newUnresolved( TypeDef typeDef, int dimensions, JavaClassParent context,
+                                                  Map<String, DefaultJavaType> typeCache )
     {
         DefaultJavaType result;
         if ( typeDef instanceof WildcardTypeDef )
@@ -60,7 +129,7 @@ public final class TypeAssembler
             WildcardTypeDef wildcard = (WildcardTypeDef) typeDef;
             if( wildcard.getTypeDef() != null )
             {
-                JavaType type = createUnresolved( wildcard.getTypeDef(), context );
+                JavaType type = createCached( wildcard.getTypeDef(), 0, context, typeCache );
                 DefaultJavaWildcardType.BoundType boundType = null;
                 if( "extends".equals( wildcard.getWildcardExpressionType() ) )
                 {
@@ -85,15 +154,65 @@ public final class TypeAssembler
                 List<JavaType> actualArgumentTypes = new LinkedList<JavaType>();
                 for ( TypeDef actualArgType : typeDef.getActualArgumentTypes() )
                 {
-                    actualArgumentTypes.add( TypeAssembler.createUnresolved( actualArgType, context ) );
+                    actualArgumentTypes.add( createCached( actualArgType, 0, context, typeCache ) );
                 }
-                typeResult.setActualArgumentTypes( actualArgumentTypes );
+                typeResult.setActualArgumentTypes( typeCache != null ? Collections.unmodifiableList( actualArgumentTypes ) : actualArgumentTypes );
             }
             result = typeResult;
         }
         return result;
     }
 
+    /**
+     * The TypeDef as written in the source, which is unique within a context.
+     * TypeDef.equals() can't be used for this, because it ignores the wildcard bounds.
+     */
+    private static String getKey( TypeDef typeDef, int dimensions )
+    {
+        StringBuilder result = new StringBuilder();
+        appendKey( result, typeDef );
+        for ( int i = 0; i < dimensions; i++ )
+        {
+            result.append( "[]" );
+        }
+        return result.toString();
+    }
+
+    private static void appendKey( StringBuilder result, TypeDef typeDef )
+    {
+        if ( typeDef instanceof WildcardTypeDef )
+        {
+            WildcardTypeDef wildcard = (WildcardTypeDef) typeDef;
+            result.append( '?' );
+            if ( wildcard.getTypeDef() != null )
+            {
+                result.append( ' ' ).append( wildcard.getWildcardExpressionType() ).append( ' ' );
+                appendKey( result, wildcard.getTypeDef() );
+            }
+        }
+        else
+        {
+            result.append( typeDef.getName() );
+            if ( typeDef.getActualArgumentTypes() != null && !typeDef.getActualArgumentTypes().isEmpty() )
+            {
+                result.append( '<' );
+                for ( Iterator<TypeDef> iter = typeDef.getActualArgumentTypes().iterator(); iter.hasNext(); )
+                {
+                    appendKey( result, iter.next() );
+                    if ( iter.hasNext() )
+                    {
+                        result.append( ',' );
+                    }
+                }
+                result.append( '>' );
+            }
+            for ( int i = 0; i < typeDef.getDimensions(); i++ )
+            {
+                result.append( "[]" );
+            }
+        }
+    }
+
     /**
      * @param typeDef the TypeDef
      * @param context the context
@@ -0,0 +1,144 @@
+package com.thoughtworks.qdox.builder.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.thoughtworks.qdox.builder.TypeAssembler;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.expression.AnnotationValue;
+import com.thoughtworks.qdox.model.expression.AnnotationValueList;
+import com.thoughtworks.qdox.model.expression.Constant;
+import com.thoughtworks.qdox.model.impl.DefaultJavaType;
+import com.thoughtworks.qdox.parser.structs.TypeDef;
+
+/**
+ * Keeps the parts of annotations which don't depend on the annotated element, so equal annotations within one source
+ * share them. The type is shared per context, so the cache also keeps the other types the {@link ModelBuilder} creates
+ * per source or class. The properties are only shared when all values are literals, because other values like field references are bound to
+ * the annotated element.
+ *
+ * @since 2.0
+ */
+final class AnnotationContentCache
+{
+    private final Map<JavaSource, Map<String, DefaultJavaType>> sourceTypes =
+        new IdentityHashMap<JavaSource, Map<String, DefaultJavaType>>();
+
+    private final Map<JavaClass, Map<String, DefaultJavaType>> classTypes =
+        new IdentityHashMap<JavaClass, Map<String, DefaultJavaType>>();
+
+    private final Map<JavaClass, Map<String, Map<String, AnnotationValue>>> propertiesCache =
+        new IdentityHashMap<JavaClass, Map<String, Map<String, AnnotationValue>>>();
+
+    DefaultJavaType getType( TypeDef typeDef, JavaClass context )
+    {
+        return TypeAssembler.createUnresolved( typeDef, 0, context, getContextTypes( context ) );
+    }
+
+    DefaultJavaType getType( TypeDef typeDef, JavaSource context )
+    {
+        return TypeAssembler.createUnresolved( typeDef, 0, context, getContextTypes( context ) );
+    }
+
+    /**
+     * @param context the class
+     * @return the types used within the class, mapped by their name
+     */
+    Map<String, DefaultJavaType> getContextTypes( JavaClass context )
+    {
+        Map<String, DefaultJavaType> result = classTypes.get( context );
+        if ( result == null )
+        {
+            result = new HashMap<String, DefaultJavaType>();
+            classTypes.put( context, result );
+        }
+        return result;
+    }
+
+    /**
+     * @param context the source
+     * @return the types used outside the classes of the source, mapped by their name
+     */
+    Map<String, DefaultJavaType> getContextTypes( JavaSource context )
+    {
+        Map<String, DefaultJavaType> result = sourceTypes.get( context );
+        if ( result == null )
+        {
+            result = new HashMap<String, DefaultJavaType>();
+            sourceTypes.put( context, result );
+        }
+        return result;
+    }
+
+    /**
+     * @param type the shared annotation type
+     * @param properties the properties as written in the source
+     * @return an unmodifiable map with equal properties, or <code>null</code> if the properties can't be shared
+     */
+    Map<String, AnnotationValue> getProperties( JavaClass type, Map<String, AnnotationValue> properties )
+    {
+        StringBuilder key = new StringBuilder();
+        for ( Map.Entry<String, AnnotationValue> property : properties.entrySet() )
+        {
+            if ( !isLiteral( property.getValue() ) )
+            {
+                return null;
+            }
+            key.append( property.getKey() ).append( '=' );
+            key.append( property.getValue().getParameterValue() ).append( ',' );
+        }
+
+        Map<String, Map<String, AnnotationValue>> typeProperties = propertiesCache.get( type );
+        if ( typeProperties == null )
+        {
+            typeProperties = new HashMap<String, Map<String, AnnotationValue>>();
+            propertiesCache.put( type, typeProperties );
+        }
+        Map<String, AnnotationValue> result = typeProperties.get( key.toString() );
+        if ( result == null )
+        {
+            result =
+                ( properties.isEmpty() ? Collections.<String, AnnotationValue> emptyMap()
+                                : Collections.unmodifiableMap( new LinkedHashMap<String, AnnotationValue>( properties ) ) );
+            typeProperties.put( key.toString(), result );
+        }
+        return result;
+    }
+
+    private static boolean isLiteral( AnnotationValue value )
+    {
+        boolean result = value instanceof Constant;
+        if ( value instanceof AnnotationValueList )
+        {
+            result = true;
+            for ( AnnotationValue listValue : ( (AnnotationValueList) value ).getValueList() )
+            {
+                result &= isLiteral( listValue );
+            }
+        }
+        return result;
+    }
+}
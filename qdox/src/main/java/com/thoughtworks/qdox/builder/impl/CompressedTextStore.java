@@ -0,0 +1,153 @@
+package com.thoughtworks.qdox.builder.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.thoughtworks.qdox.builder.TextStore;
+
+/**
+ * Keeps texts deflated in a byte array. They're inflated every time they're requested, so this store trades speed
+ * for memory. Short texts hardly compress, so they're kept as they are.
+ * 
+ * @since 2.0
+ */
+public class CompressedTextStore
+    implements TextStore
+{
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private final int threshold;
+
+    /**
+     * Compress texts of at least 256 characters
+     */
+    public CompressedTextStore()
+    {
+        this( 256 );
+    }
+
+    /**
+     * @param threshold the minimum length of a text before it is compressed
+     */
+    public CompressedTextStore( int threshold )
+    {
+        this.threshold = threshold;
+    }
+
+    /** {@inheritDoc} */
+    public CharSequence store( String text )
+    {
+        if ( text == null || text.length() < threshold )
+        {
+            return text;
+        }
+        ByteBuffer encoded = UTF_8.encode( text );
+        Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+        try
+        {
+            deflater.setInput( encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining() );
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream( encoded.remaining() / 2 );
+            byte[] buffer = new byte[1024];
+            while ( !deflater.finished() )
+            {
+                out.write( buffer, 0, deflater.deflate( buffer ) );
+            }
+            if ( out.size() >= encoded.remaining() )
+            {
+                return text;
+            }
+            return new CompressedText( out.toByteArray(), encoded.remaining(), text.length() );
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    private static class CompressedText
+        implements CharSequence, Serializable
+    {
+        private final byte[] bytes;
+
+        private final int byteLength;
+
+        private final int length;
+
+        CompressedText( byte[] bytes, int byteLength, int length )
+        {
+            this.bytes = bytes;
+            this.byteLength = byteLength;
+            this.length = length;
+        }
+
+        public int length()
+        {
+            return length;
+        }
+
+        public char charAt( int index )
+        {
+            return toString().charAt( index );
+        }
+
+        public CharSequence subSequence( int start, int end )
+        {
+            return toString().subSequence( start, end );
+        }
+
+        @Override
+        public String toString()
+        {
+            Inflater inflater = new Inflater();
+            try
+            {
+                inflater.setInput( bytes );
+                byte[] result = new byte[byteLength];
+                int offset = 0;
+                while ( offset < byteLength )
+                {
+                    int count = inflater.inflate( result, offset, byteLength - offset );
+                    if ( count == 0 && ( inflater.finished() || inflater.needsInput() ) )
+                    {
+                        throw new IllegalStateException( "Corrupted text, expected " + byteLength + " bytes" );
+                    }
+                    offset += count;
+                }
+                return UTF_8.decode( ByteBuffer.wrap( result ) ).toString();
+            }
+            catch ( DataFormatException e )
+            {
+                throw new IllegalStateException( "Corrupted text: " + e.getMessage() );
+            }
+            finally
+            {
+                inflater.end();
+            }
+        }
+    }
+}
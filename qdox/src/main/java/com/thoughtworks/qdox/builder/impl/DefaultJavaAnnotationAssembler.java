@@ -32,6 +32,7 @@ import com.thoughtworks.qdox.model.expression.And;
 import com.thoughtworks.qdox.model.expression.AnnotationValue;
 import com.thoughtworks.qdox.model.expression.AnnotationValueList;
 import com.thoughtworks.qdox.model.expression.Assignment;
+import com.thoughtworks.qdox.model.expression.BinaryOperator;
 import com.thoughtworks.qdox.model.expression.Cast;
 import com.thoughtworks.qdox.model.expression.Constant;
 import com.thoughtworks.qdox.model.expression.Divide;
@@ -63,9 +64,11 @@ import com.thoughtworks.qdox.model.expression.ShiftLeft;
 import com.thoughtworks.qdox.model.expression.ShiftRight;
 import com.thoughtworks.qdox.model.expression.Subtract;
 import com.thoughtworks.qdox.model.expression.TypeRef;
+import com.thoughtworks.qdox.model.expression.UnaryOperator;
 import com.thoughtworks.qdox.model.expression.UnsignedShiftRight;
 import com.thoughtworks.qdox.model.impl.AbstractBaseJavaEntity;
 import com.thoughtworks.qdox.model.impl.DefaultJavaAnnotation;
+import com.thoughtworks.qdox.model.impl.DefaultJavaType;
 import com.thoughtworks.qdox.parser.expression.AddDef;
 import com.thoughtworks.qdox.parser.expression.AndDef;
 import com.thoughtworks.qdox.parser.expression.AssignmentDef;
@@ -114,27 +117,149 @@ public class DefaultJavaAnnotationAssembler
 
     private AbstractBaseJavaEntity parent;
 
+    private AnnotationContentCache contentCache;
+
     public DefaultJavaAnnotationAssembler( JavaAnnotatedElement parent )
     {
         this.parent = (AbstractBaseJavaEntity) parent;
     }
 
+    /**
+     * @param parent the annotated element
+     * @param contentCache the cache to share the type and literal properties of equal annotations
+     */
+    DefaultJavaAnnotationAssembler( JavaAnnotatedElement parent, AnnotationContentCache contentCache )
+    {
+        this( parent );
+        this.contentCache = contentCache;
+    }
+
     public DefaultJavaAnnotation assemble( AnnoDef annoDef ) {
-        DefaultJavaAnnotation annotation =
-            new DefaultJavaAnnotation( createType( annoDef.getTypeDef(), 0 ), annoDef.getLineNumber() );
-        for ( Map.Entry<String, ElemValueDef> annoVal : annoDef.getArgs().entrySet() )
+        DefaultJavaAnnotation annotation;
+        if ( contentCache != null )
         {
-            annotation.setProperty( annoVal.getKey(), annoVal.getValue().transform( this ) );
+            JavaClass type =
+                ( parent.getParentClass() != null ? contentCache.getType( annoDef.getTypeDef(), parent.getParentClass() )
+                                : contentCache.getType( annoDef.getTypeDef(), parent.getSource() ) );
+            // only the values created by the parser can be shared, ElemValueDefs still have to be transformed
+            Map<String, AnnotationValue> properties =
+                ( annoDef.getArgs().isEmpty() ? contentCache.getProperties( type, annoDef.getValues() ) : null );
+            if ( properties != null )
+            {
+                // literals don't need to be bound
+                annotation = new DefaultJavaAnnotation( type, properties, annoDef.getLineNumber() );
+            }
+            else
+            {
+                annotation = new DefaultJavaAnnotation( type, annoDef.getLineNumber() );
+                setProperties( annotation, annoDef );
+            }
+        }
+        else
+        {
+            annotation = new DefaultJavaAnnotation( createType( annoDef.getTypeDef(), 0 ), annoDef.getLineNumber() );
+            setProperties( annotation, annoDef );
         }
         annotation.setContext( (JavaAnnotatedElement) parent );
         return annotation;
     }
+
+    private void setProperties( DefaultJavaAnnotation annotation, AnnoDef annoDef )
+    {
+        for ( Map.Entry<String, AnnotationValue> annoVal : annoDef.getValues().entrySet() )
+        {
+            annotation.setProperty( annoVal.getKey(), bind( annoVal.getValue() ) );
+        }
+        for ( Map.Entry<String, ElemValueDef> annoVal : annoDef.getArgs().entrySet() )
+        {
+            annotation.setProperty( annoVal.getKey(), annoVal.getValue().transform( this ) );
+        }
+    }
     
     public Expression assemble( ElemValueDef annoDef )
     {
         return annoDef.transform( this );
     }
-    
+
+    /**
+     * The parser creates the expressions before the element they belong to exists.
+     * Binding gives the field references, the types and the nested annotations of the expression their context.
+     * 
+     * @param expression the expression as created by the parser, may be <code>null</code>
+     * @return the same expression
+     * @since 2.0
+     */
+    public <E extends Expression> E bind( E expression )
+    {
+        if ( expression instanceof FieldRef )
+        {
+            ( (FieldRef) expression ).setContext( (JavaAnnotatedElement) parent );
+        }
+        else if ( expression instanceof TypeRef )
+        {
+            bindType( ( (TypeRef) expression ).getType() );
+        }
+        else if ( expression instanceof Cast )
+        {
+            bindType( ( (Cast) expression ).getType() );
+            bind( ( (Cast) expression ).getValue() );
+        }
+        else if ( expression instanceof BinaryOperator )
+        {
+            bind( ( (BinaryOperator) expression ).getLeft() );
+            bind( ( (BinaryOperator) expression ).getRight() );
+        }
+        else if ( expression instanceof UnaryOperator )
+        {
+            bind( ( (UnaryOperator) expression ).getValue() );
+        }
+        else if ( expression instanceof ParenExpression )
+        {
+            bind( ( (ParenExpression) expression ).getValue() );
+        }
+        else if ( expression instanceof Query )
+        {
+            bind( ( (Query) expression ).getCondition() );
+            bind( ( (Query) expression ).getTrueExpression() );
+            bind( ( (Query) expression ).getFalseExpression() );
+        }
+        else if ( expression instanceof Assignment )
+        {
+            bind( ( (Assignment) expression ).getLeftHandSide() );
+            bind( ( (Assignment) expression ).getAssignmentExpression() );
+        }
+        else if ( expression instanceof AnnotationValueList )
+        {
+            for ( AnnotationValue value : ( (AnnotationValueList) expression ).getValueList() )
+            {
+                bind( value );
+            }
+        }
+        else if ( expression instanceof DefaultJavaAnnotation )
+        {
+            DefaultJavaAnnotation annotation = (DefaultJavaAnnotation) expression;
+            bindType( annotation.getType() );
+            annotation.setContext( (JavaAnnotatedElement) parent );
+            for ( AnnotationValue value : annotation.getPropertyMap().values() )
+            {
+                bind( value );
+            }
+        }
+        return expression;
+    }
+
+    private void bindType( JavaType type )
+    {
+        if ( type instanceof DefaultJavaType && parent.getParentClass() != null )
+        {
+            ( (DefaultJavaType) type ).bindContext( parent.getParentClass() );
+        }
+        else if ( type instanceof DefaultJavaType )
+        {
+            ( (DefaultJavaType) type ).bindContext( parent.getSource() );
+        }
+    }
+
 
     private JavaClass createType( TypeDef typeDef, int dimensions )
     {
@@ -142,10 +267,11 @@ public class DefaultJavaAnnotationAssembler
         {
             return null;
         }
-        return TypeAssembler.createUnresolved( typeDef,
-                                               dimensions,
-                                               parent.getParentClass() != null ? parent.getParentClass()
-                                                               : parent.getSource() );
+        if ( parent.getParentClass() != null )
+        {
+            return TypeAssembler.createUnresolved( typeDef, dimensions, parent.getParentClass(), null );
+        }
+        return TypeAssembler.createUnresolved( typeDef, dimensions, parent.getSource(), null );
     }
     
     /** {@inheritDoc} */
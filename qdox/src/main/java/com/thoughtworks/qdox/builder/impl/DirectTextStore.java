@@ -0,0 +1,166 @@
+package com.thoughtworks.qdox.builder.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import com.thoughtworks.qdox.builder.TextStore;
+
+/**
+ * Keeps texts UTF-8 encoded in direct buffers, so outside the heap. The texts are appended to chunks, which are
+ * allocated when required and released together with the last text referring to it. Texts are decoded every time
+ * they're requested as String. Reading them char by char keeps the decoded text softly reachable, so it's decoded only
+ * once. Short texts are kept as they are, since the reference to the chunk would cost more than the
+ * text itself. When serialized, the texts are written as plain Strings.
+ * 
+ * @since 2.0
+ */
+public class DirectTextStore
+    implements TextStore
+{
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private final int threshold;
+
+    private final int chunkSize;
+
+    private transient ByteBuffer chunk;
+
+    /**
+     * Store texts of at least 64 characters in chunks of 1 MB
+     */
+    public DirectTextStore()
+    {
+        this( 64, 1024 * 1024 );
+    }
+
+    /**
+     * @param threshold the minimum length of a text before it is moved outside the heap
+     * @param chunkSize the size in bytes of the allocated buffers, texts which are larger get their own buffer
+     */
+    public DirectTextStore( int threshold, int chunkSize )
+    {
+        this.threshold = threshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /** {@inheritDoc} */
+    public synchronized CharSequence store( String text )
+    {
+        if ( text == null || text.length() < threshold )
+        {
+            return text;
+        }
+        ByteBuffer encoded = UTF_8.encode( text );
+        int byteLength = encoded.remaining();
+        ByteBuffer target;
+        if ( byteLength > chunkSize )
+        {
+            target = ByteBuffer.allocateDirect( byteLength );
+        }
+        else
+        {
+            if ( chunk == null || chunk.remaining() < byteLength )
+            {
+                chunk = ByteBuffer.allocateDirect( chunkSize );
+            }
+            target = chunk;
+        }
+        int offset = target.position();
+        target.put( encoded );
+        return new DirectText( target, offset, byteLength, text.length() );
+    }
+
+    private static class DirectText
+        implements CharSequence, Serializable
+    {
+        private final transient ByteBuffer buffer;
+
+        private final int offset;
+
+        private final int byteLength;
+
+        private final int length;
+
+        /** the text decoded for {@link #charAt(int)} and {@link #subSequence(int, int)} */
+        private transient volatile SoftReference<String> decoded;
+
+        DirectText( ByteBuffer buffer, int offset, int byteLength, int length )
+        {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.byteLength = byteLength;
+            this.length = length;
+        }
+
+        public int length()
+        {
+            return length;
+        }
+
+        public char charAt( int index )
+        {
+            return getDecoded().charAt( index );
+        }
+
+        public CharSequence subSequence( int start, int end )
+        {
+            return getDecoded().subSequence( start, end );
+        }
+
+        private String getDecoded()
+        {
+            SoftReference<String> reference = decoded;
+            String result = ( reference != null ? reference.get() : null );
+            if ( result == null )
+            {
+                result = decode();
+                decoded = new SoftReference<String>( result );
+            }
+            return result;
+        }
+
+        @Override
+        public String toString()
+        {
+            SoftReference<String> reference = decoded;
+            String result = ( reference != null ? reference.get() : null );
+            return ( result != null ? result : decode() );
+        }
+
+        private String decode()
+        {
+            // use a view, since the store keeps moving the position of the original buffer
+            ByteBuffer text = buffer.duplicate();
+            text.limit( offset + byteLength ).position( offset );
+            return UTF_8.decode( text ).toString();
+        }
+
+        private Object writeReplace()
+            throws ObjectStreamException
+        {
+            return toString();
+        }
+    }
+}
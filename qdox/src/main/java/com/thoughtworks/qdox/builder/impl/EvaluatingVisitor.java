@@ -19,10 +19,16 @@ package com.thoughtworks.qdox.builder.impl;
  * under the License.
  */
 
+import java.io.StringReader;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
+import com.thoughtworks.qdox.library.ClassLibrary;
+import com.thoughtworks.qdox.library.ClassLoaderLibrary;
 import com.thoughtworks.qdox.model.JavaAnnotation;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaField;
@@ -32,6 +38,7 @@ import com.thoughtworks.qdox.model.expression.And;
 import com.thoughtworks.qdox.model.expression.AnnotationValue;
 import com.thoughtworks.qdox.model.expression.AnnotationValueList;
 import com.thoughtworks.qdox.model.expression.Assignment;
+import com.thoughtworks.qdox.model.expression.BinaryOperator;
 import com.thoughtworks.qdox.model.expression.Cast;
 import com.thoughtworks.qdox.model.expression.Constant;
 import com.thoughtworks.qdox.model.expression.Divide;
@@ -64,33 +71,195 @@ import com.thoughtworks.qdox.model.expression.ShiftLeft;
 import com.thoughtworks.qdox.model.expression.ShiftRight;
 import com.thoughtworks.qdox.model.expression.Subtract;
 import com.thoughtworks.qdox.model.expression.TypeRef;
+import com.thoughtworks.qdox.model.expression.UnaryOperator;
 import com.thoughtworks.qdox.model.expression.UnsignedShiftRight;
+import com.thoughtworks.qdox.model.impl.DefaultJavaType;
+import com.thoughtworks.qdox.parser.ParseException;
+import com.thoughtworks.qdox.parser.impl.JFlexLexer;
+import com.thoughtworks.qdox.parser.impl.Parser;
 
 /**
  * Visitor that evaluates annotation expressions.
  * <p>
- * Users of this class must override {@link EvaluatingVisitor#getFieldReferenceValue(JavaField)} to return values for
+ * Referenced fields are evaluated by parsing their initialization expression, constants of binary classes are read
+ * from their <code>ConstantValue</code> attribute. Users of this
+ * class can override {@link EvaluatingVisitor#getFieldReferenceValue(JavaField)} to return other values for
  * referenced fields.
+ * <p>
+ * When created with caching enabled, operators and casts which only depend on literals are folded the first time
+ * they are evaluated and the folded value is kept on the expression itself, so every next evaluation (by any caching
+ * visitor) is a single lookup. Next to that the visitor remembers the evaluated properties per annotation and the
+ * values of the referenced fields, until the class library of the evaluated annotations has been modified.
  * 
  * @author Jochen Kuhnle
  */
 public class EvaluatingVisitor
     implements ExpressionVisitor
 {
+    private final Map<JavaAnnotation, Map<String, Object>> propertyValues;
+
+    /**
+     * The modification count of the class library when the property values were evaluated
+     */
+    private int propertyValuesModificationCount;
+
+    private final Map<JavaField, Object> fieldValues;
+
+    private final Map<JavaField, Boolean> evaluatingFields = new IdentityHashMap<JavaField, Boolean>();
+
+    /**
+     * Whether the expression currently being evaluated only depends on literals so far.
+     */
+    private boolean constant;
+
+    public EvaluatingVisitor()
+    {
+        this( false );
+    }
+
+    /**
+     * Caching should only be enabled if the annotations won't change anymore and if
+     * {@link #getFieldReferenceValue(JavaField)} always returns the same value for the same field. Subclasses which
+     * evaluate literals or operators differently than the Java Language Specification shouldn't enable it, because
+     * folded values are shared with other visitors. The evaluated property values are kept as long as the visitor
+     * lives and the class library isn't modified, so don't keep a caching visitor around after the model is gone.
+     * 
+     * @param caching <code>true</code> to fold constant expressions and to remember evaluated property and field
+     *            values
+     * @since 2.0
+     */
+    public EvaluatingVisitor( boolean caching )
+    {
+        this.propertyValues = caching ? new IdentityHashMap<JavaAnnotation, Map<String, Object>>() : null;
+        this.fieldValues = caching ? new IdentityHashMap<JavaField, Object>() : null;
+    }
 
     public Object getValue( JavaAnnotation annotation, String property )
     {
+        Map<String, Object> values = null;
+        if ( propertyValues != null )
+        {
+            int modificationCount = getModificationCount( annotation );
+            if ( propertyValuesModificationCount != modificationCount )
+            {
+                // the referenced fields might have changed as well
+                propertyValues.clear();
+                fieldValues.clear();
+                propertyValuesModificationCount = modificationCount;
+            }
+            values = propertyValues.get( annotation );
+            if ( values == null )
+            {
+                values = new HashMap<String, Object>();
+                propertyValues.put( annotation, values );
+            }
+            else if ( values.containsKey( property ) )
+            {
+                return values.get( property );
+            }
+        }
+
         Object result = null;
         AnnotationValue value = annotation.getProperty( property );
 
         if ( value != null )
+        {
+            result = evaluate( value );
+        }
+
+        if ( values != null )
+        {
+            values.put( property, result );
+        }
+        return result;
+    }
+
+    private static int getModificationCount( JavaAnnotation annotation )
+    {
+        JavaClass type = annotation.getType();
+        if ( type == null
+            || ( type instanceof DefaultJavaType && ( (DefaultJavaType) type ).getJavaClassParent() == null ) )
+        {
+            return 0;
+        }
+        ClassLibrary classLibrary = type.getJavaClassLibrary();
+        return ( classLibrary != null ? classLibrary.getModificationCount() : 0 );
+    }
+
+    /**
+     * Evaluate a (sub)expression. Without caching this is the same as letting the value accept this visitor.
+     * With caching the folded value is returned if there is one, otherwise the value is evaluated and folded if it
+     * turns out to only depend on literals.
+     * 
+     * @param value the expression to evaluate
+     * @return the evaluated value
+     * @since 2.0
+     */
+    protected Object evaluate( AnnotationValue value )
+    {
+        if ( propertyValues == null )
+        {
+            return value.accept( this );
+        }
+
+        Object result = getFoldedValue( value );
+        if ( result != null )
+        {
+            return result;
+        }
+
+        boolean outerConstant = constant;
+        constant = value instanceof Constant || value instanceof BinaryOperator || value instanceof UnaryOperator
+            || value instanceof Cast || value instanceof ParenExpression || value instanceof Query;
+        try
         {
             result = value.accept( this );
+            if ( constant && result != null )
+            {
+                setFoldedValue( value, result );
+            }
+        }
+        finally
+        {
+            constant = outerConstant && constant;
         }
+        return result;
+    }
 
+    private static Object getFoldedValue( AnnotationValue value )
+    {
+        Object result = null;
+        if ( value instanceof BinaryOperator )
+        {
+            result = ( (BinaryOperator) value ).getFoldedValue();
+        }
+        else if ( value instanceof UnaryOperator )
+        {
+            result = ( (UnaryOperator) value ).getFoldedValue();
+        }
+        else if ( value instanceof Cast )
+        {
+            result = ( (Cast) value ).getFoldedValue();
+        }
         return result;
     }
 
+    private static void setFoldedValue( AnnotationValue value, Object foldedValue )
+    {
+        if ( value instanceof BinaryOperator )
+        {
+            ( (BinaryOperator) value ).setFoldedValue( foldedValue );
+        }
+        else if ( value instanceof UnaryOperator )
+        {
+            ( (UnaryOperator) value ).setFoldedValue( foldedValue );
+        }
+        else if ( value instanceof Cast )
+        {
+            ( (Cast) value ).setFoldedValue( foldedValue );
+        }
+    }
+
     public List<?> getListValue( JavaAnnotation annotation, String property )
     {
         Object value = getValue( annotation, property );
@@ -226,8 +395,8 @@ public class EvaluatingVisitor
 
     public Object visit( Add op )
     {
-        Object left = op.getLeft().accept( this );
-        Object right = op.getRight().accept( this );
+        Object left = evaluate( op.getLeft() );
+        Object right = evaluate( op.getRight() );
         Class<?> type = resultType( left, right );
         Object result;
 
@@ -267,8 +436,8 @@ public class EvaluatingVisitor
 
     public Object visit( Divide op )
     {
-        Object left = op.getLeft().accept( this );
-        Object right = op.getRight().accept( this );
+        Object left = evaluate( op.getLeft() );
+        Object right = evaluate( op.getRight() );
         Class<?> type = resultType( left, right );
         Object result;
 
@@ -313,14 +482,108 @@ public class EvaluatingVisitor
         return getFieldReferenceValue( javaField );
     }
 
-    protected Object getFieldReferenceValue( JavaField javaField ) {
-        throw new UnsupportedOperationException("getFieldReferenceValue(JavaField) has not been implemented.");
+    /**
+     * Evaluate the initialization expression of a static final field. Fields of binary classes have no
+     * initialization expression, for them the value of the constant is read from the class file. With caching every
+     * field is evaluated only once per visitor, fields which (indirectly) refer to themselves can't be evaluated.
+     * 
+     * @param javaField the referenced field
+     * @return the value of the field, converted to the type of the field
+     * @throws IllegalArgumentException if the field has no initialization expression which can be evaluated
+     */
+    protected Object getFieldReferenceValue( JavaField javaField )
+    {
+        Object result = ( fieldValues != null ? fieldValues.get( javaField ) : null );
+        if ( result == null )
+        {
+            if ( evaluatingFields.put( javaField, Boolean.TRUE ) != null )
+            {
+                throw new IllegalArgumentException( "Field '" + javaField + "' refers to itself." );
+            }
+            try
+            {
+                AnnotationValue expression = parseInitializationExpression( javaField );
+                if ( expression != null )
+                {
+                    result = evaluate( expression );
+                    if ( result instanceof Number || result instanceof Character )
+                    {
+                        // the assignment conversion, like the int literal of a long constant
+                        Number n =
+                            ( result instanceof Character ? Integer.valueOf( ( (Character) result ).charValue() )
+                                            : (Number) result );
+                        Object converted = toPrimitive( n, javaField.getType().getFullyQualifiedName() );
+                        if ( converted != null )
+                        {
+                            result = converted;
+                        }
+                    }
+                }
+                else
+                {
+                    result = getConstantValue( javaField );
+                    if ( result == null )
+                    {
+                        throw new IllegalArgumentException( "Cannot evaluate field '" + javaField + "'." );
+                    }
+                }
+                if ( fieldValues != null )
+                {
+                    fieldValues.put( javaField, result );
+                }
+            }
+            finally
+            {
+                evaluatingFields.remove( javaField );
+            }
+        }
+        return result;
+    }
+
+    private static Object getConstantValue( JavaField javaField )
+    {
+        JavaClass declaringClass = javaField.getDeclaringClass();
+        ClassLibrary classLibrary = ( declaringClass != null ? declaringClass.getJavaClassLibrary() : null );
+        return ( classLibrary instanceof ClassLoaderLibrary
+                        ? ( (ClassLoaderLibrary) classLibrary ).getConstantValue( javaField ) : null );
+    }
+
+    /**
+     * The initialization expression is parsed on its own, the result gets the field as context, so references are
+     * resolved as if the expression was parsed together with the field.
+     */
+    private static AnnotationValue parseInitializationExpression( JavaField javaField )
+    {
+        String initializationExpression = javaField.getInitializationExpression();
+        if ( initializationExpression == null || initializationExpression.trim().length() == 0 )
+        {
+            return null;
+        }
+
+        JFlexLexer lexer = new JFlexLexer( new StringReader( initializationExpression ) );
+        lexer.beginExpression();
+        AnnotationValue result;
+        try
+        {
+            // the builder is only used for the bodies of anonymous classes, which can't be evaluated anyway
+            result = new Parser( lexer, new ModelBuilder( null, null ) ).parseExpression();
+        }
+        catch ( ParseException e )
+        {
+            return null;
+        }
+
+        if ( result != null )
+        {
+            result = new DefaultJavaAnnotationAssembler( javaField ).bind( result );
+        }
+        return result;
     }
 
     public Object visit( GreaterThan op )
     {
-        Object left = op.getLeft().accept( this );
-        Object right = op.getRight().accept( this );
+        Object left = evaluate( op.getLeft() );
+        Object right = evaluate( op.getRight() );
         Class<?> type = resultType( left, right );
         boolean result;
 
@@ -350,8 +613,8 @@ public class EvaluatingVisitor
 
     public Object visit( LessThan op )
     {
-        Object left = op.getLeft().accept( this );
-        Object right = op.getRight().accept( this );
+        Object left = evaluate( op.getLeft() );
+        Object right = evaluate( op.getRight() );
         Class<?> type = resultType( left, right );
         boolean result;
 
@@ -381,8 +644,8 @@ public class EvaluatingVisitor
 
     public Object visit( Multiply op )
     {
-        Object left = op.getLeft().accept( this );
-        Object right = op.getRight().accept( this );
+        Object left = evaluate( op.getLeft() );
+        Object right = evaluate( op.getRight() );
         Class<?> type = resultType( left, right );
         Object result;
 
@@ -412,13 +675,13 @@ public class EvaluatingVisitor
 
     public Object visit( ParenExpression parenExpression )
     {
-        return parenExpression.getValue().accept( this );
+        return evaluate( parenExpression.getValue() );
     }
 
     public Object visit( Subtract op )
     {
-        Object left = op.getLeft().accept( this );
-        Object right = op.getRight().accept( this );
+        Object left = evaluate( op.getLeft() );
+        Object right = evaluate( op.getRight() );
         Class<?> type = resultType( left, right );
         Object result;
 
@@ -457,7 +720,7 @@ public class EvaluatingVisitor
 
         for ( AnnotationValue value : valueList.getValueList() )
         {
-            Object v = value.accept( this );
+            Object v = evaluate( value );
             list.add( v );
         }
 
@@ -466,8 +729,8 @@ public class EvaluatingVisitor
 
     public Object visit( And and )
     {
-        Object left = and.getLeft().accept( this );
-        Object right = and.getRight().accept( this );
+        Object left = evaluate( and.getLeft() );
+        Object right = evaluate( and.getRight() );
         Class<?> type = numericResultType( left, right );
         Object result;
 
@@ -489,8 +752,8 @@ public class EvaluatingVisitor
 
     public Object visit( GreaterEquals greaterEquals )
     {
-        Object left = greaterEquals.getLeft().accept( this );
-        Object right = greaterEquals.getRight().accept( this );
+        Object left = evaluate( greaterEquals.getLeft() );
+        Object right = evaluate( greaterEquals.getRight() );
         Class<?> type = resultType( left, right );
         boolean result;
 
@@ -520,8 +783,8 @@ public class EvaluatingVisitor
 
     public Object visit( LessEquals lessEquals )
     {
-        Object left = lessEquals.getLeft().accept( this );
-        Object right = lessEquals.getRight().accept( this );
+        Object left = evaluate( lessEquals.getLeft() );
+        Object right = evaluate( lessEquals.getRight() );
         Class<?> type = resultType( left, right );
         boolean result;
 
@@ -551,8 +814,8 @@ public class EvaluatingVisitor
 
     public Object visit( LogicalAnd and )
     {
-        Object left = and.getLeft().accept( this );
-        Object right = and.getRight().accept( this );
+        Object left = evaluate( and.getLeft() );
+        Object right = evaluate( and.getRight() );
         boolean result;
 
         if ( left instanceof Boolean && right instanceof Boolean )
@@ -569,7 +832,7 @@ public class EvaluatingVisitor
 
     public Object visit( LogicalNot not )
     {
-        Object value = not.getValue().accept( this );
+        Object value = evaluate( not.getValue() );
         boolean result;
 
         if ( value instanceof Boolean )
@@ -586,8 +849,8 @@ public class EvaluatingVisitor
 
     public Object visit( LogicalOr or )
     {
-        Object left = or.getLeft().accept( this );
-        Object right = or.getRight().accept( this );
+        Object left = evaluate( or.getLeft() );
+        Object right = evaluate( or.getRight() );
         boolean result;
 
         if ( left instanceof Boolean && right instanceof Boolean )
@@ -604,7 +867,7 @@ public class EvaluatingVisitor
 
     public Object visit( MinusSign sign )
     {
-        Object value = sign.getValue().accept( this );
+        Object value = evaluate( sign.getValue() );
         Class<?> type = unaryResultType( value );
         Object result;
 
@@ -634,7 +897,7 @@ public class EvaluatingVisitor
 
     public Object visit( Not not )
     {
-        Object value = not.getValue().accept( this );
+        Object value = evaluate( not.getValue() );
         Object type = unaryNumericResultType( value );
         Object result;
 
@@ -656,8 +919,8 @@ public class EvaluatingVisitor
 
     public Object visit( Or or )
     {
-        Object left = or.getLeft().accept( this );
-        Object right = or.getRight().accept( this );
+        Object left = evaluate( or.getLeft() );
+        Object right = evaluate( or.getRight() );
         Class<?> type = numericResultType( left, right );
         Object result;
 
@@ -679,7 +942,7 @@ public class EvaluatingVisitor
 
     public Object visit( PlusSign sign )
     {
-        Object value = sign.getValue().accept( this );
+        Object value = evaluate( sign.getValue() );
         Object result;
 
         if ( value instanceof Number )
@@ -696,8 +959,8 @@ public class EvaluatingVisitor
 
     public Object visit( Remainder remainder )
     {
-        Object left = remainder.getLeft().accept( this );
-        Object right = remainder.getRight().accept( this );
+        Object left = evaluate( remainder.getLeft() );
+        Object right = evaluate( remainder.getRight() );
         Class<?> type = resultType( left, right );
         Object result;
 
@@ -727,8 +990,8 @@ public class EvaluatingVisitor
 
     public Object visit( ShiftLeft shiftLeft )
     {
-        Object left = shiftLeft.getLeft().accept( this );
-        Object right = shiftLeft.getRight().accept( this );
+        Object left = evaluate( shiftLeft.getLeft() );
+        Object right = evaluate( shiftLeft.getRight() );
         Class<?> type = numericResultType( left, right );
         Object result;
 
@@ -750,8 +1013,8 @@ public class EvaluatingVisitor
 
     public Object visit( ShiftRight shiftRight )
     {
-        Object left = shiftRight.getLeft().accept( this );
-        Object right = shiftRight.getRight().accept( this );
+        Object left = evaluate( shiftRight.getLeft() );
+        Object right = evaluate( shiftRight.getRight() );
         Class<?> type = numericResultType( left, right );
         Object result;
 
@@ -773,8 +1036,8 @@ public class EvaluatingVisitor
 
     public Object visit( UnsignedShiftRight shiftRight )
     {
-        Object left = shiftRight.getLeft().accept( this );
-        Object right = shiftRight.getRight().accept( this );
+        Object left = evaluate( shiftRight.getLeft() );
+        Object right = evaluate( shiftRight.getRight() );
         Class<?> type = numericResultType( left, right );
         Object result;
 
@@ -796,8 +1059,8 @@ public class EvaluatingVisitor
 
     public Object visit( Equals annotationEquals )
     {
-        Object left = annotationEquals.getLeft().accept( this );
-        Object right = annotationEquals.getRight().accept( this );
+        Object left = evaluate( annotationEquals.getLeft() );
+        Object right = evaluate( annotationEquals.getRight() );
         Class<?> type = resultType( left, right );
         boolean result;
 
@@ -827,8 +1090,8 @@ public class EvaluatingVisitor
 
     public Object visit( ExclusiveOr annotationExclusiveOr )
     {
-        Object left = annotationExclusiveOr.getLeft().accept( this );
-        Object right = annotationExclusiveOr.getRight().accept( this );
+        Object left = evaluate( annotationExclusiveOr.getLeft() );
+        Object right = evaluate( annotationExclusiveOr.getRight() );
         Class<?> type = numericResultType( left, right );
         Object result;
 
@@ -850,8 +1113,8 @@ public class EvaluatingVisitor
 
     public Object visit( NotEquals annotationNotEquals )
     {
-        Object left = annotationNotEquals.getLeft().accept( this );
-        Object right = annotationNotEquals.getRight().accept( this );
+        Object left = evaluate( annotationNotEquals.getLeft() );
+        Object right = evaluate( annotationNotEquals.getRight() );
         Class<?> type = resultType( left, right );
         boolean result;
 
@@ -881,7 +1144,7 @@ public class EvaluatingVisitor
 
     public Object visit( Query annotationQuery )
     {
-        Object value = annotationQuery.getCondition().accept( this );
+        Object value = evaluate( annotationQuery.getCondition() );
 
         if ( !( value instanceof Boolean ) )
         {
@@ -892,49 +1155,20 @@ public class EvaluatingVisitor
             ( (Boolean) value ).booleanValue() ? annotationQuery.getTrueExpression()
                             : annotationQuery.getFalseExpression();
 
-        return expression.accept( this );
+        return evaluate( expression );
     }
 
     public Object visit( Cast annotationCast )
     {
-        Object value = annotationCast.getValue().accept( this );
+        Object value = evaluate( annotationCast.getValue() );
         JavaType type = annotationCast.getType();
         Object result;
 
         if ( type instanceof JavaClass && ( (JavaClass) type ).isPrimitive() && value instanceof Number )
         {
-            Number n = (Number) value;
-            String typeName = type.getFullyQualifiedName();
+            result = toPrimitive( (Number) value, type.getFullyQualifiedName() );
 
-            if ( typeName.equals( "byte" ) )
-            {
-                result = Byte.valueOf( n.byteValue() );
-            }
-            else if ( typeName.equals( "char" ) )
-            {
-                result = Character.valueOf( (char) n.intValue() );
-            }
-            else if ( typeName.equals( "short" ) )
-            {
-                result = Short.valueOf( n.shortValue() );
-            }
-            else if ( typeName.equals( "int" ) )
-            {
-                result = Integer.valueOf( n.intValue() );
-            }
-            else if ( typeName.equals( "long" ) )
-            {
-                result = Long.valueOf( n.longValue() );
-            }
-            else if ( typeName.equals( "float" ) )
-            {
-                result = Float.valueOf( n.floatValue() );
-            }
-            else if ( typeName.equals( "double" ) )
-            {
-                result = Double.valueOf( n.doubleValue() );
-            }
-            else
+            if ( result == null )
             {
                 throw new IllegalArgumentException( "Cannot evaluate '" + annotationCast + "'." );
             }
@@ -954,6 +1188,47 @@ public class EvaluatingVisitor
         return result;
     }
 
+    /**
+     * @param n the number to convert
+     * @param typeName the name of the primitive type
+     * @return the converted number, or <code>null</code> if the type is not numeric
+     */
+    private static Object toPrimitive( Number n, String typeName )
+    {
+        Object result = null;
+
+        if ( typeName.equals( "byte" ) )
+        {
+            result = Byte.valueOf( n.byteValue() );
+        }
+        else if ( typeName.equals( "char" ) )
+        {
+            result = Character.valueOf( (char) n.intValue() );
+        }
+        else if ( typeName.equals( "short" ) )
+        {
+            result = Short.valueOf( n.shortValue() );
+        }
+        else if ( typeName.equals( "int" ) )
+        {
+            result = Integer.valueOf( n.intValue() );
+        }
+        else if ( typeName.equals( "long" ) )
+        {
+            result = Long.valueOf( n.longValue() );
+        }
+        else if ( typeName.equals( "float" ) )
+        {
+            result = Float.valueOf( n.floatValue() );
+        }
+        else if ( typeName.equals( "double" ) )
+        {
+            result = Double.valueOf( n.doubleValue() );
+        }
+
+        return result;
+    }
+
     public Object visit( PreDecrement preDecrement )
     {
         throw new IllegalArgumentException( "Cannot evaluate '" + preDecrement + "'." );
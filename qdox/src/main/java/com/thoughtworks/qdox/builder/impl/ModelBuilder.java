@@ -23,9 +23,11 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.thoughtworks.qdox.builder.Builder;
+import com.thoughtworks.qdox.builder.TextStore;
 import com.thoughtworks.qdox.builder.TypeAssembler;
 import com.thoughtworks.qdox.library.ClassLibrary;
 import com.thoughtworks.qdox.model.DocletTag;
@@ -38,7 +40,10 @@ import com.thoughtworks.qdox.model.JavaGenericDeclaration;
 import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.JavaParameter;
 import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaParameterizedType;
 import com.thoughtworks.qdox.model.JavaType;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
+import com.thoughtworks.qdox.model.JavaTypeUsage.Kind;
 import com.thoughtworks.qdox.model.JavaTypeVariable;
 import com.thoughtworks.qdox.model.expression.Expression;
 import com.thoughtworks.qdox.model.impl.AbstractBaseJavaEntity;
@@ -52,7 +57,7 @@ import com.thoughtworks.qdox.model.impl.DefaultJavaParameter;
 import com.thoughtworks.qdox.model.impl.DefaultJavaSource;
 import com.thoughtworks.qdox.model.impl.DefaultJavaType;
 import com.thoughtworks.qdox.model.impl.DefaultJavaTypeVariable;
-import com.thoughtworks.qdox.parser.expression.ExpressionDef;
+import com.thoughtworks.qdox.model.impl.DefaultJavaWildcardType;
 import com.thoughtworks.qdox.parser.structs.AnnoDef;
 import com.thoughtworks.qdox.parser.structs.ClassDef;
 import com.thoughtworks.qdox.parser.structs.FieldDef;
@@ -84,22 +89,27 @@ public class ModelBuilder implements Builder {
 
     private List<AnnoDef> currentAnnoDefs;
     
-    private List<ExpressionDef> currentArguments;
+    private List<Expression> currentArguments;
 
     private String lastComment;
 
     private List<TagDef> lastTagSet = new LinkedList<TagDef>();
 
+    /** the annotation parts and types per source or class */
+    private AnnotationContentCache annotationContentCache = new AnnotationContentCache();
+
     private DocletTagFactory docletTagFactory;
 
     private ModelWriterFactory modelWriterFactory;
 
+    private TextStore textStore;
+
     public ModelBuilder( ClassLibrary classLibrary, DocletTagFactory docletTagFactory )
     {
         this.docletTagFactory = docletTagFactory;
         this.source = new DefaultJavaSource( classLibrary );
         this.currentAnnoDefs = new LinkedList<AnnoDef>();
-        this.currentArguments = new LinkedList<ExpressionDef>();
+        this.currentArguments = new LinkedList<Expression>();
     }
     
     /** {@inheritDoc} */
@@ -109,6 +119,17 @@ public class ModelBuilder implements Builder {
         source.setModelWriterFactory( modelWriterFactory );
     }
 
+    /** {@inheritDoc} */
+    public void setTextStore( TextStore textStore )
+    {
+        this.textStore = textStore;
+    }
+
+    private CharSequence store( String text )
+    {
+        return ( textStore != null ? textStore.store( text ) : text );
+    }
+
     /** {@inheritDoc} */
     public void addPackage( PackageDef packageDef )
     {
@@ -159,8 +180,8 @@ public class ModelBuilder implements Builder {
         }
         else if ( !newClass.isEnum() )
         {
-            newClass.setSuperClass( def.getExtends().size() > 0 ? createType( def.getExtends().iterator().next(), 0 )
-                            : null );
+            newClass.setSuperClass( def.getExtends().size() > 0 ? addTypeUsage( createType( def.getExtends().iterator().next(), 0 ),
+                                                                                Kind.SUPERCLASS, newClass ) : null );
         }
 
         // implements
@@ -168,7 +189,7 @@ public class ModelBuilder implements Builder {
         List<JavaClass> implementz = new LinkedList<JavaClass>();
         for ( TypeDef implementType : implementSet )
         {
-            implementz.add( createType( implementType, 0 ) );
+            implementz.add( addTypeUsage( createType( implementType, 0 ), Kind.INTERFACE, newClass ) );
         }
         newClass.setImplementz( implementz );
 
@@ -241,18 +262,64 @@ public class ModelBuilder implements Builder {
         {
             return null;
         }
-        return TypeAssembler.createUnresolved( typeDef, dimensions,
-                                               classStack.isEmpty() ? source : classStack.getFirst() );
+        // equal types within the same context resolve to the same class, so share a single instance
+        if ( classStack.isEmpty() )
+        {
+            return TypeAssembler.createUnresolved( typeDef, dimensions, source, annotationContentCache.getContextTypes( source ) );
+        }
+        else
+        {
+            JavaClass context = classStack.getFirst();
+            return TypeAssembler.createUnresolved( typeDef, dimensions, context, annotationContentCache.getContextTypes( context ) );
+        }
+    }
+
+    /**
+     * Register the usage of the type by the element, followed by the usages of its type arguments.
+     * The usages are kept by the source, so they can be indexed by the library.
+     * 
+     * @param type the used type, may be <code>null</code>
+     * @param kind the kind of usage
+     * @param user the element using the type
+     * @return the type
+     */
+    private <T extends JavaType> T addTypeUsage( T type, Kind kind, JavaAnnotatedElement user )
+    {
+        if ( type instanceof DefaultJavaWildcardType )
+        {
+            for ( JavaType bound : ( (DefaultJavaWildcardType) type ).getBounds() )
+            {
+                addTypeUsage( bound, kind, user );
+            }
+        }
+        else if ( type != null )
+        {
+            source.addTypeUsage( new JavaTypeUsage( type, kind, user ) );
+            if ( type instanceof JavaParameterizedType )
+            {
+                for ( JavaType typeArgument : ( (JavaParameterizedType) type ).getActualTypeArguments() )
+                {
+                    addTypeUsage( typeArgument, Kind.TYPE_ARGUMENT, user );
+                }
+            }
+        }
+        return type;
     }
 
     private void addJavaDoc( AbstractBaseJavaEntity entity )
     {
-        entity.setComment( lastComment );
+        entity.setComment( store( lastComment ) );
         List<DocletTag> tagList = new LinkedList<DocletTag>();
         for ( TagDef tagDef : lastTagSet )
         {
-            tagList.add( docletTagFactory.createDocletTag( tagDef.getName(), tagDef.getText(),
-                                                           (JavaAnnotatedElement) entity, tagDef.getLineNumber() ) );
+            DocletTag docletTag = docletTagFactory.createDocletTag( tagDef.getName(), tagDef.getText(),
+                                                                    (JavaAnnotatedElement) entity,
+                                                                    tagDef.getLineNumber() );
+            if ( docletTag != null )
+            {
+                source.addDocletTag( docletTag );
+            }
+            tagList.add( docletTag );
         }
         entity.setTags( tagList );
 
@@ -311,7 +378,7 @@ public class ModelBuilder implements Builder {
         List<JavaClass> exceptions = new LinkedList<JavaClass>();
         for ( TypeDef type : def.getExceptions() )
         {
-            exceptions.add( createType( type, 0 ) );
+            exceptions.add( addTypeUsage( createType( type, 0 ), Kind.EXCEPTION, currentConstructor ) );
         }
         currentConstructor.setExceptions( exceptions );
 
@@ -324,7 +391,7 @@ public class ModelBuilder implements Builder {
             parameterList.clear();
         }
 
-        currentConstructor.setSourceCode( def.getBody() );
+        currentConstructor.setSourceCode( store( def.getBody() ) );
     }
 
     /** {@inheritDoc} */
@@ -349,7 +416,8 @@ public class ModelBuilder implements Builder {
 
         // basic details
         currentMethod.setName( def.getName() );
-        currentMethod.setReturns( createType( def.getReturnType(), def.getDimensions() ) );
+        currentMethod.setReturns( addTypeUsage( createType( def.getReturnType(), def.getDimensions() ),
+                                                Kind.RETURN_TYPE, currentMethod ) );
 
         // typeParameters
         if ( def.getTypeParams() != null )
@@ -367,7 +435,7 @@ public class ModelBuilder implements Builder {
         List<JavaClass> exceptions = new LinkedList<JavaClass>();
         for ( TypeDef type : def.getExceptions() )
         {
-            exceptions.add( createType( type, 0 ) );
+            exceptions.add( addTypeUsage( createType( type, 0 ), Kind.EXCEPTION, currentMethod ) );
         }
         currentMethod.setExceptions( exceptions );
 
@@ -380,7 +448,7 @@ public class ModelBuilder implements Builder {
             parameterList.clear();
         }
 
-        currentMethod.setSourceCode( def.getBody() );
+        currentMethod.setSourceCode( store( def.getBody() ) );
     }
 
     private <G extends JavaGenericDeclaration> DefaultJavaTypeVariable<G> createTypeVariable( TypeVariableDef typeVariableDef, G genericDeclaration)
@@ -396,7 +464,8 @@ public class ModelBuilder implements Builder {
             List<JavaType> bounds = new LinkedList<JavaType>();
             for ( TypeDef typeDef : typeVariableDef.getBounds() )
             {
-                bounds.add( createType( typeDef, 0 ) );
+                bounds.add( addTypeUsage( createType( typeDef, 0 ), Kind.BOUND,
+                                          (JavaAnnotatedElement) genericDeclaration ) );
             }
             result.setBounds( bounds );
         }
@@ -412,7 +481,8 @@ public class ModelBuilder implements Builder {
         currentField.setModelWriterFactory( modelWriterFactory );
 
         currentField.setName( def.getName() );
-        currentField.setType( createType( def.getType(), def.getDimensions() ) );
+        currentField.setType( addTypeUsage( createType( def.getType(), def.getDimensions() ), Kind.FIELD,
+                                            currentField ) );
         
         currentField.setEnumConstant( def.isEnumConstant() );
 
@@ -422,7 +492,7 @@ public class ModelBuilder implements Builder {
         }
 
         // code body
-        currentField.setInitializationExpression( def.getBody() );
+        currentField.setInitializationExpression( store( def.getBody() ) );
 
         // javadoc
         addJavaDoc( currentField );
@@ -440,9 +510,9 @@ public class ModelBuilder implements Builder {
             DefaultJavaAnnotationAssembler assembler = new DefaultJavaAnnotationAssembler( currentField );
 
             List<Expression> arguments = new LinkedList<Expression>();
-            for ( ExpressionDef annoDef : currentArguments )
+            for ( Expression argument : currentArguments )
             {
-                arguments.add( assembler.assemble( annoDef ) );
+                arguments.add( assembler.bind( argument ) );
             }
             currentField.setEnumConstantArguments( arguments );
             currentArguments.clear();
@@ -459,6 +529,7 @@ public class ModelBuilder implements Builder {
         DefaultJavaParameter jParam =
             new DefaultJavaParameter( createType( fieldDef.getType(), fieldDef.getDimensions() ), fieldDef.getName(),
                                       fieldDef.isVarArgs() );
+        addTypeUsage( jParam.getType(), Kind.PARAMETER, jParam );
         jParam.setParentMethod( currentMethod );
         jParam.setModelWriterFactory( modelWriterFactory );
         addJavaDoc( jParam );
@@ -470,12 +541,15 @@ public class ModelBuilder implements Builder {
     {
         if ( !currentAnnoDefs.isEmpty() )
         {
-            DefaultJavaAnnotationAssembler assembler = new DefaultJavaAnnotationAssembler( (JavaAnnotatedElement) entity );
+            DefaultJavaAnnotationAssembler assembler =
+                new DefaultJavaAnnotationAssembler( (JavaAnnotatedElement) entity, annotationContentCache );
 
             List<JavaAnnotation> annotations = new LinkedList<JavaAnnotation>();
             for ( AnnoDef annoDef : currentAnnoDefs )
             {
-                annotations.add( assembler.assemble( annoDef ) );
+                JavaAnnotation annotation = assembler.assemble( annoDef );
+                addTypeUsage( annotation.getType(), Kind.ANNOTATION, (JavaAnnotatedElement) entity );
+                annotations.add( annotation );
             }
             entity.setAnnotations( annotations );
             currentAnnoDefs.clear();
@@ -489,7 +563,7 @@ public class ModelBuilder implements Builder {
         currentAnnoDefs.add( annotation );
     }
     
-    public void addArgument( ExpressionDef argument )
+    public void addArgument( Expression argument )
     {
         currentArguments.add( argument );
     }
@@ -20,20 +20,68 @@ package com.thoughtworks.qdox.directorywalker;
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.regex.Pattern;
 
 /**
  * A directory scanner, which can scan files based on optional filters.
+ * <p>
+ * Besides filters, files can be selected by include and exclude patterns, which are matched against the path relative
+ * to the scanned directory, using <code>/</code> as separator. Patterns are either a {@link Pattern} or an Ant-style
+ * glob, where <code>**</code> matches any number of directories, <code>*</code> matches any part of a name and
+ * <code>?</code> matches a single character. A glob ending with <code>/</code> matches everything below that
+ * directory. Directories matching an exclude pattern, like <code>**&#47;target/</code>, are not entered at all.
+ * <p>
+ * Directories which can't be read are skipped, just like directories which are already being scanned, which happens
+ * when a symbolic link points to one of its parents. Canonical paths are only resolved below symbolic links.
  */
 public class DirectoryScanner
 {
 
+    private static final Method TO_PATH;
+
+    private static final Method IS_SYMBOLIC_LINK;
+
+    static
+    {
+        Method toPath = null;
+        Method isSymbolicLink = null;
+        try
+        {
+            toPath = File.class.getMethod( "toPath" );
+            isSymbolicLink =
+                Class.forName( "java.nio.file.Files" ).getMethod( "isSymbolicLink",
+                                                                  Class.forName( "java.nio.file.Path" ) );
+        }
+        catch ( Exception e )
+        {
+            // before Java 7
+            toPath = null;
+            isSymbolicLink = null;
+        }
+        TO_PATH = toPath;
+        IS_SYMBOLIC_LINK = isSymbolicLink;
+    }
+
     private File file;
 
-    private Collection<Filter> filters = new HashSet<Filter>();
+    private Collection<Filter> filters = new ArrayList<Filter>();
+
+    private List<Pattern> includes = new ArrayList<Pattern>();
+
+    private List<Pattern> excludes = new ArrayList<Pattern>();
+
+    private int threadCount = 1;
 
     /**
      * 
@@ -45,7 +93,7 @@ public class DirectoryScanner
     }
 
     /**
-     * Add a filter to this scanner.
+     * Add a filter to this scanner. Filters are applied in the order in which they were added.
      * 
      * @param filter the filter
      */
@@ -54,20 +102,81 @@ public class DirectoryScanner
         this.filters.add( filter );
     }
 
+    /**
+     * Only scan files matching at least one of the includes. Without includes every file is included.
+     * 
+     * @param glob the glob to match against the relative path of the file
+     * @since 2.0
+     */
+    public void addInclude( String glob )
+    {
+        addInclude( toPattern( glob ) );
+    }
+
+    /**
+     * @param pattern the pattern to match against the relative path of the file
+     * @see #addInclude(String)
+     * @since 2.0
+     */
+    public void addInclude( Pattern pattern )
+    {
+        this.includes.add( pattern );
+    }
+
+    /**
+     * Skip the files and directories matching this glob.
+     * 
+     * @param glob the glob to match against the relative path of the file or directory
+     * @since 2.0
+     */
+    public void addExclude( String glob )
+    {
+        addExclude( toPattern( glob ) );
+    }
+
+    /**
+     * Skip the files matching this pattern. A directory is skipped when the pattern matches its relative path
+     * followed by a <code>/</code>.
+     * 
+     * @param pattern the pattern to match against the relative path of the file or directory
+     * @since 2.0
+     */
+    public void addExclude( Pattern pattern )
+    {
+        this.excludes.add( pattern );
+    }
+
+    /**
+     * Use multiple threads to read the directories, which pays off for large trees or slow filesystems.
+     * The filters might be called by any of these threads, but files are always visited by the calling thread and in
+     * the same order as with a single thread.
+     * 
+     * @param threadCount the number of threads to read directories with, <code>1</code> by default
+     * @since 2.0
+     */
+    public void setThreadCount( int threadCount )
+    {
+        if ( threadCount < 1 )
+        {
+            throw new IllegalArgumentException( "threadCount should be at least 1, but was " + threadCount );
+        }
+        this.threadCount = threadCount;
+    }
+
     /**
      * 
      * @return a list of files matching the filters, never <code>null</code>
      */
     public List<File> scan()
     {
-        final List<File> result = new LinkedList<File>();
-        walk( new FileVisitor()
+        final List<File> result = new ArrayList<File>();
+        scan( new FileVisitor()
         {
             public void visitFile( File file )
             {
                 result.add( file );
             }
-        }, this.file );
+        } );
         return result;
     }
 
@@ -78,29 +187,348 @@ public class DirectoryScanner
      */
     public void scan( FileVisitor fileVisitor )
     {
-        walk( fileVisitor, this.file );
+        if ( !this.file.isDirectory() )
+        {
+            if ( accept( this.file, this.file.getName() ) )
+            {
+                fileVisitor.visitFile( this.file );
+            }
+        }
+        else if ( threadCount == 1 )
+        {
+            walk( fileVisitor, new Directory( null, this.file, null ) );
+        }
+        else
+        {
+            Directory root = new Directory( null, this.file, null );
+            read( root );
+            visit( fileVisitor, root );
+        }
     }
 
-    private void walk( FileVisitor visitor, File current )
+    private void walk( FileVisitor visitor, Directory directory )
     {
-        if ( current.isDirectory() )
+        for ( Object entry : list( directory ) )
         {
-            File[] currentFiles = current.listFiles();
-            for ( int i = 0; i < currentFiles.length; i++ )
+            if ( entry instanceof Directory )
             {
-                walk( visitor, currentFiles[i] );
+                walk( visitor, (Directory) entry );
+            }
+            else
+            {
+                visitor.visitFile( (File) entry );
             }
         }
-        else
+    }
+
+    private void visit( FileVisitor visitor, Directory directory )
+    {
+        for ( Object entry : directory.entries )
+        {
+            if ( entry instanceof Directory )
+            {
+                visit( visitor, (Directory) entry );
+            }
+            else
+            {
+                visitor.visitFile( (File) entry );
+            }
+        }
+    }
+
+    /**
+     * Reads all directories on a pool of threads. Every task queues the tasks for its subdirectories before it
+     * finishes, so once the queue is empty after waiting for a task the whole tree has been read.
+     */
+    private void read( Directory root )
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threadCount );
+        BlockingQueue<Future<?>> tasks = new LinkedBlockingQueue<Future<?>>();
+        try
+        {
+            tasks.add( executor.submit( new ReadTask( root, executor, tasks ) ) );
+            Future<?> task;
+            while ( ( task = tasks.poll() ) != null )
+            {
+                task.get();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while scanning " + this.file );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            else if ( e.getCause() instanceof Error )
+            {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException( e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param directory the directory to list
+     * @return the accepted files and the directories to enter, in the order of the listing
+     */
+    private List<Object> list( Directory directory )
+    {
+        File[] currentFiles = directory.file.listFiles();
+        if ( currentFiles == null )
+        {
+            // not readable
+            return new ArrayList<Object>( 0 );
+        }
+        List<Object> result = new ArrayList<Object>( currentFiles.length );
+        for ( int i = 0; i < currentFiles.length; i++ )
+        {
+            File current = currentFiles[i];
+            String path =
+                ( directory.path == null ? current.getName() : directory.path + '/' + current.getName() );
+            // every check on the file hits the filesystem, so it's only asked once
+            if ( current.isDirectory() )
+            {
+                if ( !isExcluded( path + '/' ) )
+                {
+                    Directory child = new Directory( directory, current, path );
+                    if ( !child.isLoop() )
+                    {
+                        result.add( child );
+                    }
+                }
+            }
+            else if ( accept( current, path ) )
+            {
+                result.add( current );
+            }
+        }
+        return result;
+    }
+
+    private boolean accept( File current, String path )
+    {
+        if ( isExcluded( path ) )
+        {
+            return false;
+        }
+        if ( !includes.isEmpty() )
+        {
+            boolean included = false;
+            for ( Pattern include : includes )
+            {
+                if ( include.matcher( path ).matches() )
+                {
+                    included = true;
+                    break;
+                }
+            }
+            if ( !included )
+            {
+                return false;
+            }
+        }
+        for ( Filter filter : this.filters )
+        {
+            if ( !filter.filter( current ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isExcluded( String path )
+    {
+        for ( Pattern exclude : excludes )
+        {
+            if ( exclude.matcher( path ).matches() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param glob the Ant-style glob
+     * @return the matching pattern
+     */
+    static Pattern toPattern( String glob )
+    {
+        if ( glob.endsWith( "/" ) )
+        {
+            glob = glob + "**";
+        }
+        StringBuilder regex = new StringBuilder();
+        for ( int i = 0; i < glob.length(); i++ )
+        {
+            char c = glob.charAt( i );
+            if ( c == '*' )
+            {
+                if ( i + 1 < glob.length() && glob.charAt( i + 1 ) == '*' )
+                {
+                    i++;
+                    if ( i + 1 < glob.length() && glob.charAt( i + 1 ) == '/' )
+                    {
+                        // zero or more directories
+                        i++;
+                        regex.append( "(?:.*/)?" );
+                    }
+                    else
+                    {
+                        regex.append( ".*" );
+                    }
+                }
+                else
+                {
+                    regex.append( "[^/]*" );
+                }
+            }
+            else if ( c == '?' )
+            {
+                regex.append( "[^/]" );
+            }
+            else if ( Character.isLetterOrDigit( c ) || c == '/' )
+            {
+                regex.append( c );
+            }
+            else
+            {
+                regex.append( '\\' ).append( c );
+            }
+        }
+        return Pattern.compile( regex.toString() );
+    }
+
+    /**
+     * A directory being scanned, linked to the directory it was found in.
+     */
+    private static final class Directory
+    {
+        private final Directory parent;
+
+        private final File file;
+
+        /** the path relative to the scanned directory, <code>null</code> for the scanned directory itself */
+        private final String path;
+
+        /**
+         * Whether this directory or one of the directories it was found in is a symbolic link. Without links a
+         * directory can't be one of its own parents, so only then the canonical paths are needed.
+         */
+        private final boolean linked;
+
+        /** computed when first needed, because it costs a lookup of every part of the path */
+        private volatile String canonicalPath;
+
+        /** the result of {@link DirectoryScanner#list(Directory)}, only used when reading in parallel */
+        private volatile List<Object> entries;
+
+        Directory( Directory parent, File file, String path )
+        {
+            this.parent = parent;
+            this.file = file;
+            this.path = path;
+            this.linked = ( parent != null && ( parent.linked || isSymbolicLink( file ) ) );
+        }
+
+        /**
+         * @return <code>true</code> if this directory is one of its own parents, reached by a symbolic link
+         */
+        boolean isLoop()
+        {
+            if ( linked )
+            {
+                String canonical = getCanonicalPath();
+                if ( canonical != null )
+                {
+                    for ( Directory ancestor = parent; ancestor != null; ancestor = ancestor.parent )
+                    {
+                        if ( canonical.equals( ancestor.getCanonicalPath() ) )
+                        {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private String getCanonicalPath()
+        {
+            String result = canonicalPath;
+            if ( result == null )
+            {
+                try
+                {
+                    result = file.getCanonicalPath();
+                }
+                catch ( IOException e )
+                {
+                    return null;
+                }
+                canonicalPath = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * java.nio.file is not part of Java 5, so it's used by reflection when available. Otherwise every directory
+     * might be a link.
+     */
+    private static boolean isSymbolicLink( File file )
+    {
+        if ( IS_SYMBOLIC_LINK == null )
+        {
+            return true;
+        }
+        try
+        {
+            return Boolean.TRUE.equals( IS_SYMBOLIC_LINK.invoke( null, TO_PATH.invoke( file ) ) );
+        }
+        catch ( Exception e )
+        {
+            return true;
+        }
+    }
+
+    private final class ReadTask
+        implements Runnable
+    {
+        private final Directory directory;
+
+        private final ExecutorService executor;
+
+        private final BlockingQueue<Future<?>> tasks;
+
+        ReadTask( Directory directory, ExecutorService executor, BlockingQueue<Future<?>> tasks )
+        {
+            this.directory = directory;
+            this.executor = executor;
+            this.tasks = tasks;
+        }
+
+        public void run()
         {
-            for ( Filter filter : this.filters )
+            List<Object> entries = list( directory );
+            for ( Object entry : entries )
             {
-                if ( !filter.filter( current ) )
+                if ( entry instanceof Directory )
                 {
-                    return;
+                    tasks.add( executor.submit( new ReadTask( (Directory) entry, executor, tasks ) ) );
                 }
             }
-            visitor.visitFile( current );
+            directory.entries = entries;
         }
     }
 }
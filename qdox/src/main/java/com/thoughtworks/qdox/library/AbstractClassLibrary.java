@@ -22,17 +22,30 @@ package com.thoughtworks.qdox.library;
 import java.net.URL;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.thoughtworks.qdox.builder.Builder;
 import com.thoughtworks.qdox.builder.ModelBuilderFactory;
+import com.thoughtworks.qdox.builder.TextStore;
 import com.thoughtworks.qdox.builder.impl.ModelBuilder;
+import com.thoughtworks.qdox.model.DocletTag;
+import com.thoughtworks.qdox.model.JavaAnnotatedElement;
 import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.JavaPackage;
 import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
 import com.thoughtworks.qdox.model.impl.DefaultDocletTagFactory;
 import com.thoughtworks.qdox.model.impl.DefaultJavaPackage;
+import com.thoughtworks.qdox.model.impl.DefaultJavaSource;
 import com.thoughtworks.qdox.parser.structs.ClassDef;
 import com.thoughtworks.qdox.writer.ModelWriterFactory;
 
@@ -53,9 +66,31 @@ public abstract class AbstractClassLibrary
     private ModelBuilderFactory modelBuilderFactory;
 
     private ModelWriterFactory modelWriterFactory;
+
+    private TextStore textStore;
     
     private JavaClassContext context = new JavaClassContext();
 
+    private JavaClassHierarchy hierarchy = new JavaClassHierarchy();
+
+    private JavaMethodOverrideIndex overrideIndex = new JavaMethodOverrideIndex();
+
+    private JavaTypeUsageIndex typeUsageIndex = new JavaTypeUsageIndex();
+
+    private DocletTagIndex docletTagIndex = new DocletTagIndex();
+
+    private FieldReferenceCache fieldReferenceCache = new FieldReferenceCache( this );
+
+    private int modificationCount;
+
+    private transient boolean frozen;
+
+    /** the classes resolved after freezing, each frozen before it's added */
+    private final ConcurrentMap<String, JavaClass> frozenClasses = new ConcurrentHashMap<String, JavaClass>();
+
+    /** the classes resolved after freezing which are still being frozen, only accessed while locked */
+    private final Map<String, JavaClass> pendingFrozenClasses = new HashMap<String, JavaClass>();
+
     /**
      * constructor for root ClassLibrary
      */
@@ -84,14 +119,21 @@ public abstract class AbstractClassLibrary
     
     public final JavaClass getJavaClass( String name, boolean createStub ) {
         JavaClass result = context.getClassByName( name );
-        if ( result == null )
+        if ( result == null && frozen && retainsResolvedClasses() )
+        {
+            result = getFrozenJavaClass( name );
+        }
+        else if ( result == null )
         {
             result = resolveJavaClass( name );
 
-            if ( result != null )  
+            if ( result != null && !frozen && retainsResolvedClasses() )  
             {
                 context.add( result );
                 context.add( result.getSource() );
+                registerJavaClassHierarchy( result );
+                registerJavaTypeUsages( result.getSource() );
+                registerDocletTags( result.getSource() );
                 
                 JavaPackage contextPackage = context.getPackageByName( result.getPackageName() ); 
                 if( contextPackage == null ) {
@@ -114,6 +156,45 @@ public abstract class AbstractClassLibrary
         return result;
     }
 
+    /**
+     * A frozen library doesn't change its context anymore, so classes resolved from then on are kept apart. Each name
+     * still matches a single instance, which is frozen before other threads can see it.
+     * 
+     * @param name the fully qualified name
+     * @return the resolved JavaClass, otherwise <code>null</code>
+     */
+    private JavaClass getFrozenJavaClass( String name )
+    {
+        JavaClass result = frozenClasses.get( name );
+        if ( result == null && containsClassReference( name ) )
+        {
+            synchronized ( pendingFrozenClasses )
+            {
+                result = frozenClasses.get( name );
+                if ( result == null )
+                {
+                    // freezing might refer to this class again, which is then resolved by the same thread
+                    result = pendingFrozenClasses.get( name );
+                }
+                if ( result == null )
+                {
+                    result = resolveJavaClass( name );
+                    if ( result != null )
+                    {
+                        pendingFrozenClasses.put( name, result );
+                        if ( result.getSource() instanceof DefaultJavaSource )
+                        {
+                            ( (DefaultJavaSource) result.getSource() ).freeze();
+                        }
+                        pendingFrozenClasses.remove( name );
+                        frozenClasses.put( name, result );
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     private JavaClass createStub( String name )
     {
         Builder unknownBuilder = getModelBuilder();
@@ -131,6 +212,19 @@ public abstract class AbstractClassLibrary
      * @return the resolved JavaClass, otherwise <code>null</code>
      */
     protected abstract JavaClass resolveJavaClass( String name );
+
+    /**
+     * Decides if the classes returned by {@link #resolveJavaClass(String)} are kept by this library. Libraries which
+     * keep the classes in their own cache, so they can release them, should return <code>false</code>. In that case
+     * {@link #resolveJavaClass(String)} is called for every request and the classes won't be part of the packages and
+     * the hierarchy of this library.
+     * 
+     * @return <code>true</code> if resolved classes should be kept, otherwise <code>false</code>
+     */
+    protected boolean retainsResolvedClasses()
+    {
+        return true;
+    }
     
     public Collection<JavaSource> getJavaSources()
     {
@@ -227,7 +321,7 @@ public abstract class AbstractClassLibrary
         JavaPackage result = context.getPackageByName( name );
         if (result == null) {
         	result = resolveJavaPackage( name );
-        	if (result != null) {
+        	if (result != null && !frozen) {
         		context.add(result);
         	}
         }
@@ -249,7 +343,337 @@ public abstract class AbstractClassLibrary
         }
         return Collections.unmodifiableList( result );
     }
+
+    /**
+     * Get the direct subpackages known by the current {@link AbstractClassLibrary}.
+     * Subclasses should overwrite this method in the same way as {@link #getJavaPackages()}
+     * 
+     * @param name the fully qualified name of the package
+     * @return the direct subpackages, never <code>null</code>
+     */
+    public List<JavaPackage> getSubPackages( String name )
+    {
+        return getJavaPackages( context.getSubPackageNames( name ) );
+    }
+
+    /**
+     * Subclasses can call this method to gather the names of the direct subpackages of all libraries matching the
+     * filter.
+     * 
+     * @param name the fully qualified name of the package
+     * @param filter
+     * @return names of the direct subpackages of all libraries matching the filter
+     */
+    protected final List<String> getSubPackageNames( String name, ClassLibraryFilter filter )
+    {
+        List<String> result = new LinkedList<String>();
+        if ( filter.accept( this ) )
+        {
+            result.addAll( context.getSubPackageNames( name ) );
+        }
+        if ( parentClassLibrary != null )
+        {
+            result.addAll( parentClassLibrary.getSubPackageNames( name, filter ) );
+        }
+        return result;
+    }
+
+    /**
+     * Get the JavaPackages matching these names. Names are resolved only once, even if they occur several times.
+     * 
+     * @param names the fully qualified names of the packages
+     * @return the resolved JavaPackages, never <code>null</code>
+     */
+    protected final List<JavaPackage> getJavaPackages( Collection<String> names )
+    {
+        List<JavaPackage> result = new LinkedList<JavaPackage>();
+        for ( String name : new LinkedHashSet<String>( names ) )
+        {
+            JavaPackage javaPackage = getJavaPackage( name );
+            if ( javaPackage != null )
+            {
+                result.add( javaPackage );
+            }
+        }
+        return Collections.unmodifiableList( result );
+    }
     
+    /**
+     * Add the {@link JavaClass} to the hierarchy of this library, so it can be found as derived class of its
+     * supertypes and its methods are part of the override index. Adding the same class twice has no effect.
+     * 
+     * @param javaClass the JavaClass to add
+     */
+    protected final void registerJavaClassHierarchy( JavaClass javaClass )
+    {
+        hierarchy.add( javaClass );
+        overrideIndex.add( javaClass );
+    }
+
+    /**
+     * Add the usages of types by the {@link JavaSource} to the index of this library, so they can be found by the
+     * fully qualified name of the type. Adding the same source twice has no effect.
+     * 
+     * @param source the JavaSource to add
+     */
+    protected final void registerJavaTypeUsages( JavaSource source )
+    {
+        typeUsageIndex.add( source );
+    }
+
+    /**
+     * Add the doclet tags of the {@link JavaSource} to the index of this library, so they can be found by their name.
+     * Adding the same source twice has no effect.
+     * 
+     * @param source the JavaSource to add
+     */
+    protected final void registerDocletTags( JavaSource source )
+    {
+        docletTagIndex.add( source );
+    }
+
+    /**
+     * Get the doclet tags known by the current {@link AbstractClassLibrary} and its ancestors.
+     * 
+     * @param name the name of the tag
+     * @return the doclet tags, never <code>null</code>
+     */
+    public List<DocletTag> getTagsByName( String name )
+    {
+        return getTagsByName( name, new ClassLibraryFilter()
+        {
+            public boolean accept( AbstractClassLibrary classLibrary )
+            {
+                return true;
+            }
+        } );
+    }
+
+    /**
+     * Subclasses can call this method to gather the doclet tags of all libraries matching the filter.
+     * 
+     * @param name the name of the tag
+     * @param filter
+     * @return doclet tags of all libraries matching the filter
+     */
+    protected final List<DocletTag> getTagsByName( String name, ClassLibraryFilter filter )
+    {
+        List<DocletTag> result = new LinkedList<DocletTag>();
+        if ( filter.accept( this ) )
+        {
+            result.addAll( docletTagIndex.getTagsByName( name ) );
+        }
+        if ( parentClassLibrary != null )
+        {
+            result.addAll( parentClassLibrary.getTagsByName( name, filter ) );
+        }
+        return Collections.unmodifiableList( result );
+    }
+
+    /**
+     * Get the type usages known by the current {@link AbstractClassLibrary} and its ancestors.
+     * 
+     * @param name the fully qualified name of the type
+     * @return the type usages, never <code>null</code>
+     */
+    public List<JavaTypeUsage> getTypeUsages( String name )
+    {
+        return getTypeUsages( name, new ClassLibraryFilter()
+        {
+            public boolean accept( AbstractClassLibrary classLibrary )
+            {
+                return true;
+            }
+        } );
+    }
+
+    /**
+     * Subclasses can call this method to gather the type usages of all libraries matching the filter.
+     * 
+     * @param name the fully qualified name of the type
+     * @param filter
+     * @return type usages of all libraries matching the filter
+     */
+    protected final List<JavaTypeUsage> getTypeUsages( String name, ClassLibraryFilter filter )
+    {
+        List<JavaTypeUsage> result = new LinkedList<JavaTypeUsage>();
+        if ( filter.accept( this ) )
+        {
+            result.addAll( typeUsageIndex.getTypeUsages( name ) );
+        }
+        if ( parentClassLibrary != null )
+        {
+            result.addAll( parentClassLibrary.getTypeUsages( name, filter ) );
+        }
+        return Collections.unmodifiableList( result );
+    }
+
+    /**
+     * Get the annotated elements known by the current {@link AbstractClassLibrary} and its ancestors.
+     * With {@code metaAnnotations} the annotation types which are annotated with this annotation are followed as
+     * well, so an element annotated with such an annotation type is part of the result too.
+     * 
+     * @param name the fully qualified name of the annotation
+     * @param metaAnnotations <code>true</code> to include elements annotated via meta-annotations
+     * @return the annotated elements, never <code>null</code>
+     */
+    public List<JavaAnnotatedElement> getAnnotatedElements( String name, boolean metaAnnotations )
+    {
+        ClassLibraryFilter allLibraries = new ClassLibraryFilter()
+        {
+            public boolean accept( AbstractClassLibrary classLibrary )
+            {
+                return true;
+            }
+        };
+        if ( !metaAnnotations )
+        {
+            return getAnnotatedElements( name, allLibraries );
+        }
+
+        Set<JavaAnnotatedElement> result = new LinkedHashSet<JavaAnnotatedElement>();
+        Set<String> visited = new HashSet<String>();
+        visited.add( name );
+        LinkedList<String> queue = new LinkedList<String>();
+        queue.add( name );
+        while ( !queue.isEmpty() )
+        {
+            for ( JavaAnnotatedElement element : getAnnotatedElements( queue.removeFirst(), allLibraries ) )
+            {
+                result.add( element );
+                if ( element instanceof JavaClass && ( (JavaClass) element ).isAnnotation() )
+                {
+                    String annotationName = ( (JavaClass) element ).getFullyQualifiedName();
+                    if ( visited.add( annotationName ) )
+                    {
+                        queue.add( annotationName );
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableList( new LinkedList<JavaAnnotatedElement>( result ) );
+    }
+
+    /**
+     * Subclasses can call this method to gather the directly annotated elements of all libraries matching the filter.
+     * 
+     * @param name the fully qualified name of the annotation
+     * @param filter
+     * @return annotated elements of all libraries matching the filter
+     */
+    protected final List<JavaAnnotatedElement> getAnnotatedElements( String name, ClassLibraryFilter filter )
+    {
+        List<JavaAnnotatedElement> result = new LinkedList<JavaAnnotatedElement>();
+        if ( filter.accept( this ) )
+        {
+            result.addAll( typeUsageIndex.getAnnotatedElements( name ) );
+        }
+        if ( parentClassLibrary != null )
+        {
+            result.addAll( parentClassLibrary.getAnnotatedElements( name, filter ) );
+        }
+        return Collections.unmodifiableList( result );
+    }
+
+    /**
+     * Get the direct subclasses known by the current {@link AbstractClassLibrary}.
+     * Subclasses should overwrite this method in the same way as {@link #getJavaClasses()}
+     * 
+     * @param name the fully qualified name of the class
+     * @return the direct subclasses, never <code>null</code>
+     */
+    public List<JavaClass> getDirectSubclasses( String name )
+    {
+        return Collections.unmodifiableList( new LinkedList<JavaClass>( hierarchy.getDirectSubclasses( name ) ) );
+    }
+
+    /**
+     * Subclasses can call this method to gather the direct subclasses of all libraries matching the filter.
+     * 
+     * @param name the fully qualified name of the class
+     * @param filter
+     * @return direct subclasses of all libraries matching the filter
+     */
+    protected final List<JavaClass> getDirectSubclasses( String name, ClassLibraryFilter filter )
+    {
+        List<JavaClass> result = new LinkedList<JavaClass>();
+        if ( filter.accept( this ) )
+        {
+            result.addAll( hierarchy.getDirectSubclasses( name ) );
+        }
+        if ( parentClassLibrary != null )
+        {
+            result.addAll( parentClassLibrary.getDirectSubclasses( name, filter ) );
+        }
+        return Collections.unmodifiableList( result );
+    }
+
+    /**
+     * Walks down the hierarchy by following {@link #getDirectSubclasses(String)}, so only the derived classes are
+     * visited. Every class is returned only once, even if it can be reached by several paths.
+     * 
+     * @param name the fully qualified name of the class
+     * @return the derived classes, never <code>null</code>
+     */
+    public List<JavaClass> getDerivedClasses( String name )
+    {
+        List<JavaClass> result = new LinkedList<JavaClass>();
+        Set<String> visited = new HashSet<String>();
+        visited.add( name );
+        LinkedList<String> queue = new LinkedList<String>();
+        queue.add( name );
+        while ( !queue.isEmpty() )
+        {
+            for ( JavaClass subclass : getDirectSubclasses( queue.removeFirst() ) )
+            {
+                String subclassName = subclass.getFullyQualifiedName();
+                if ( visited.add( subclassName ) )
+                {
+                    result.add( subclass );
+                    queue.add( subclassName );
+                }
+            }
+        }
+        return Collections.unmodifiableList( result );
+    }
+
+    /**
+     * The overridden methods are taken from the override index of the library which registered the declaring class of
+     * the method. Methods of classes which aren't registered, like the classes resolved after freezing, are looked up
+     * without being indexed.
+     * 
+     * @param method the method
+     * @return the overridden methods, never <code>null</code>
+     */
+    public List<JavaMethod> getOverriddenMethods( JavaMethod method )
+    {
+        for ( AbstractClassLibrary library = this; library != null; library = library.parentClassLibrary )
+        {
+            List<JavaMethod> result = library.overrideIndex.getOverriddenMethods( method );
+            if ( result != null )
+            {
+                return result;
+            }
+        }
+        return JavaMethodOverrideIndex.findOverriddenMethods( method );
+    }
+
+    /**
+     * Get the overriding methods known by the current {@link AbstractClassLibrary} and its ancestors.
+     * 
+     * @param method the method
+     * @return the overriding methods, never <code>null</code>
+     */
+    public List<JavaMethod> getOverridingMethods( JavaMethod method )
+    {
+        List<JavaMethod> result = new LinkedList<JavaMethod>();
+        for ( AbstractClassLibrary library = this; library != null; library = library.parentClassLibrary )
+        {
+            result.addAll( library.overrideIndex.getOverridingMethods( method ) );
+        }
+        return Collections.unmodifiableList( result );
+    }
+
     /**
      * First checks if the context already has a JavaClass with this name.
      * If not, find out if this classlibrary is able to build a model for this class
@@ -279,6 +703,130 @@ public abstract class AbstractClassLibrary
      */
     protected abstract boolean containsClassReference( String name );
     
+    /**
+     * The cache shared by all field references used in the classes of this library, so the same reference is only
+     * resolved once per class. It's an implementation detail of the model, not meant to be used by others.
+     * 
+     * @return the field reference cache, never <code>null</code>
+     * @since 2.0
+     */
+    public FieldReferenceCache getFieldReferenceCache()
+    {
+        return fieldReferenceCache;
+    }
+
+    /**
+     * The sum of the modification counts of this library and its ancestors, which makes sure that a change of any of
+     * them will be noticed.
+     * 
+     * @return the modification count
+     */
+    public int getModificationCount()
+    {
+        int result = modificationCount;
+        if ( parentClassLibrary != null )
+        {
+            result += parentClassLibrary.getModificationCount();
+        }
+        return result;
+    }
+
+    /**
+     * Subclasses must call this method when the set of classes they can resolve has changed, for instance when a
+     * source or classloader has been added. Lazily resolving an already available class is not a modification.
+     */
+    protected final void incrementModificationCount()
+    {
+        modificationCount++;
+    }
+
+    /**
+     * Freezes this library and its ancestors. Freezing a class might resolve new classes, like its supertypes, so
+     * this is repeated until no more sources are added. Only then the libraries are marked as frozen, after which
+     * they don't change anymore: classes which are resolved later on are not kept by the library.
+     */
+    public final void freeze()
+    {
+        if ( frozen )
+        {
+            return;
+        }
+
+        ClassLibraryFilter allLibraries = new ClassLibraryFilter()
+        {
+            public boolean accept( AbstractClassLibrary classLibrary )
+            {
+                return true;
+            }
+        };
+
+        int sourceCount;
+        do
+        {
+            for ( AbstractClassLibrary library = this; library != null; library = library.parentClassLibrary )
+            {
+                library.resolveAll();
+            }
+            Collection<JavaSource> sources = getJavaSources( allLibraries );
+            sourceCount = sources.size();
+            for ( JavaSource source : sources )
+            {
+                if ( source instanceof DefaultJavaSource )
+                {
+                    ( (DefaultJavaSource) source ).freeze();
+                }
+            }
+            for ( AbstractClassLibrary library = this; library != null; library = library.parentClassLibrary )
+            {
+                library.hierarchy.indexPendingClasses();
+                library.overrideIndex.indexPendingClasses();
+                library.typeUsageIndex.indexPendingSources();
+                library.docletTagIndex.indexPendingSources();
+            }
+        }
+        while ( sourceCount != getJavaSources( allLibraries ).size() );
+
+        for ( JavaPackage javaPackage : getJavaPackages( allLibraries ) )
+        {
+            if ( javaPackage instanceof DefaultJavaPackage )
+            {
+                ( (DefaultJavaPackage) javaPackage ).freeze();
+            }
+        }
+        for ( AbstractClassLibrary library = this; library != null; library = library.parentClassLibrary )
+        {
+            library.frozen = true;
+        }
+    }
+
+    /**
+     * Once frozen, resolved classes are not added to the context anymore. Subclasses must resolve all classes they can
+     * enumerate, like the classes of their sources, so these are part of the packages and the indexes. Their
+     * {@link #resolveJavaClass(String)} and {@link #containsClassReference(String)} must not change any state once the
+     * library is frozen, because these might be called by multiple threads.
+     */
+    protected void resolveAll()
+    {
+    }
+
+    public final boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    /**
+     * Subclasses must call this method before adding sources, sourcefolders or classloaders.
+     * 
+     * @throws IllegalStateException if this library has been frozen
+     */
+    protected final void checkNotFrozen()
+    {
+        if ( frozen )
+        {
+            throw new IllegalStateException( "The ClassLibrary has been frozen" );
+        }
+    }
+
     /**
      * Set the ModelBuilderFactory for this classLibrary. 
      * 
@@ -298,6 +846,23 @@ public abstract class AbstractClassLibrary
         this.modelWriterFactory = factory;
     }
 
+    /**
+     * Set the TextStore for the comments, tag values, source code and initialization expressions of the parsed
+     * sources. By default these texts are kept as they are.
+     * 
+     * @param textStore the text store
+     * @since 2.0
+     */
+    public final void setTextStore( TextStore textStore )
+    {
+        this.textStore = textStore;
+    }
+
+    protected final TextStore getTextStore()
+    {
+        return textStore;
+    }
+
     protected final ModelWriterFactory getModelWriterFactory()
     {
         return modelWriterFactory;
@@ -324,9 +889,10 @@ public abstract class AbstractClassLibrary
         }
         else
         {
-            result = new ModelBuilder( this, new DefaultDocletTagFactory() );
+            result = new ModelBuilder( this, new DefaultDocletTagFactory( textStore ) );
         }
         result.setModelWriterFactory( modelWriterFactory );
+        result.setTextStore( textStore );
         return result;
     }
     
@@ -21,10 +21,15 @@ package com.thoughtworks.qdox.library;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 
+import com.thoughtworks.qdox.model.DocletTag;
+import com.thoughtworks.qdox.model.JavaAnnotatedElement;
 import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.JavaPackage;
 import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
 
 /**
  * Main methods of a ClassLibrary, which can be used by every Model 
@@ -93,4 +98,122 @@ public interface ClassLibrary
      * @return all JavaPackages as a List, never <code>null</code>
      */
     Collection<JavaPackage> getJavaPackages();
+
+    /**
+     * Return the JavaPackages which are a direct subpackage of the package with this name.
+     * Only the JavaPackages known by this library are taken into account, just like {@link #getJavaPackages()}.
+     * 
+     * @param name the fully qualified name of the package
+     * @return the direct subpackages as a List, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaPackage> getSubPackages( String name );
+
+    /**
+     * Return the JavaClasses which directly extend or implement the class with this name.
+     * Only the JavaClasses known by this library are taken into account, just like {@link #getJavaClasses()}.
+     * 
+     * @param name the fully qualified name of the class
+     * @return the direct subclasses as a List, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaClass> getDirectSubclasses( String name );
+
+    /**
+     * Return the JavaClasses which extend or implement the class with this name, either directly or indirectly.
+     * Only the JavaClasses known by this library are taken into account, just like {@link #getJavaClasses()}.
+     * 
+     * @param name the fully qualified name of the class
+     * @return the derived classes as a List, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaClass> getDerivedClasses( String name );
+
+    /**
+     * Return the methods of the superclasses and interfaces which are overridden or implemented by the method.
+     * The relation is kept in both directions by an index, which is extended as classes are added to the library.
+     * 
+     * @param method the method
+     * @return the overridden methods as a List, nearest supertypes first, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaMethod> getOverriddenMethods( JavaMethod method );
+
+    /**
+     * Return the methods of the derived classes which override or implement the method.
+     * Only the JavaClasses known by this library are taken into account, just like {@link #getDerivedClasses(String)}.
+     * 
+     * @param method the method
+     * @return the overriding methods as a List, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaMethod> getOverridingMethods( JavaMethod method );
+
+    /**
+     * Return all usages of the type with this name, like fields, parameters, return types, exceptions, type arguments,
+     * bounds, supertypes and annotations. Only the sources known by this library and its ancestors are taken into
+     * account. Sources which are added later on are included as well. Usages of arrays of the type are included too.
+     * 
+     * @param name the fully qualified name of the type, without dimensions or type arguments
+     * @return the type usages as a List, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaTypeUsage> getTypeUsages( String name );
+
+    /**
+     * Return the classes, constructors, methods, fields, parameters and packages annotated with the annotation with
+     * this name. Only the sources known by this library and its ancestors are taken into account.
+     * 
+     * @param name the fully qualified name of the annotation
+     * @param metaAnnotations <code>true</code> if elements annotated with an annotation type which itself is
+     *            (indirectly) annotated with this annotation should be included as well
+     * @return the annotated elements as a List, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaAnnotatedElement> getAnnotatedElements( String name, boolean metaAnnotations );
+
+    /**
+     * Return the doclet tags with this name of all elements. The element of a tag is available as its
+     * {@link DocletTag#getContext() context}. Only the sources known by this library and its ancestors are taken into
+     * account.
+     * 
+     * @param name the name of the tag, without the leading @
+     * @return the doclet tags as a List, never <code>null</code>
+     * @since 2.0
+     */
+    List<DocletTag> getTagsByName( String name );
+
+    /**
+     * The modification count changes every time a source, sourcefolder or classloader is added to this library or to
+     * one of its ancestors. Models can use it to decide if data derived from the library is still up to date.
+     * 
+     * @return the modification count
+     * @since 2.0
+     */
+    int getModificationCount();
+
+    /**
+     * Prepare this library and its ancestors for concurrent use. All classes which are known by the libraries are
+     * resolved and their lazily computed data is finalized, after which the model is immutable. From then on the
+     * model can be read by multiple threads without any synchronization, as long as it has been safely published to
+     * them, e.g. by starting the threads after freezing.
+     * <p>
+     * A frozen library doesn't change anymore. The classes of all sources and source folders are resolved while
+     * freezing. Other classes, like those of the classloaders, are still found, but each lookup returns a new instance
+     * which is not kept by the library and is not part of the indexes, like {@link #getJavaSources()} or the derived
+     * classes. Adding sources, sourcefolders or classloaders fails with an {@link IllegalStateException}. Freezing
+     * twice has no effect. Being frozen is not serialized, so a deserialized library must be frozen again.
+     * </p>
+     * 
+     * @since 2.0
+     */
+    void freeze();
+
+    /**
+     * 
+     * @return <code>true</code> if {@link #freeze()} has been called on this library or one of its descendants,
+     *         otherwise <code>false</code>
+     * @since 2.0
+     */
+    boolean isFrozen();
 }
@@ -27,6 +27,7 @@ import java.io.Serializable;
 import java.net.URL;
 
 import com.thoughtworks.qdox.builder.ModelBuilderFactory;
+import com.thoughtworks.qdox.builder.TextStore;
 import com.thoughtworks.qdox.model.JavaSource;
 import com.thoughtworks.qdox.writer.ModelWriterFactory;
 
@@ -160,6 +161,26 @@ public interface ClassLibraryBuilder extends Serializable
      * @return this ClassLibraryBuilder instance
      */
     ClassLibraryBuilder setModelWriterFactory( ModelWriterFactory factory );
+
+    /**
+     * Define the {@link TextStore} which keeps the comments, tag values, source code and initialization expressions
+     * of the parsed sources.
+     * 
+     * @param textStore the textStore
+     * @return this ClassLibraryBuilder instance
+     * @since 2.0
+     */
+    ClassLibraryBuilder setTextStore( TextStore textStore );
+
+    /**
+     * Define the {@link SourceCache} which keeps the sources of the source folders, so they can be released and parsed
+     * again when memory is limited.
+     * 
+     * @param sourceCache the sourceCache
+     * @return this ClassLibraryBuilder instance
+     * @since 2.0
+     */
+    ClassLibraryBuilder setSourceCache( SourceCache sourceCache );
     
     /**
      * Get the library based on the strategy of the implementation
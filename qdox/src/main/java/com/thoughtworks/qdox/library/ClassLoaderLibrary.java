@@ -22,18 +22,23 @@ package com.thoughtworks.qdox.library;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.thoughtworks.qdox.builder.Builder;
 import com.thoughtworks.qdox.builder.impl.ModelBuilder;
 import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
 import com.thoughtworks.qdox.model.JavaPackage;
 import com.thoughtworks.qdox.model.impl.DefaultJavaPackage;
 import com.thoughtworks.qdox.parser.JavaLexer;
 import com.thoughtworks.qdox.parser.ParseException;
 import com.thoughtworks.qdox.parser.impl.BinaryClassParser;
+import com.thoughtworks.qdox.parser.impl.ConstantValueReader;
 import com.thoughtworks.qdox.parser.impl.JFlexLexer;
 import com.thoughtworks.qdox.parser.impl.Parser;
 
@@ -63,6 +68,12 @@ public class ClassLoaderLibrary
 {
     private transient List<ClassLoader> classLoaders = new LinkedList<ClassLoader>();
 
+    /**
+     * The constant values of the binary classes, mapped by the binary name of the class
+     */
+    private transient Map<String, Map<String, Object>> constantValues =
+        new ConcurrentHashMap<String, Map<String, Object>>();
+
     private boolean defaultClassLoadersAdded = false;
 
     private boolean debugLexer;
@@ -84,7 +95,9 @@ public class ClassLoaderLibrary
 
     public void addClassLoader( ClassLoader classLoader )
     {
+        checkNotFrozen();
         classLoaders.add( classLoader );
+        incrementModificationCount();
     }
 
     public void addDefaultLoader()
@@ -93,6 +106,7 @@ public class ClassLoaderLibrary
         {
             classLoaders.add( getClass().getClassLoader() );
             classLoaders.add( Thread.currentThread().getContextClassLoader() );
+            incrementModificationCount();
         }
         defaultClassLoadersAdded = true;
     }
@@ -163,6 +177,52 @@ public class ClassLoaderLibrary
         return result;
     }
     
+    /**
+     * Compiled classes have no initialization expression for their fields, but the values of their compile-time
+     * constants are stored in the class file. The class file is only read when the first constant of the class is
+     * requested.
+     * 
+     * @param field a static final field of a class of this library
+     * @return the value of the constant, or <code>null</code> if the field is not a compile-time constant of a binary
+     *         class of this library
+     * @since 2.0
+     */
+    public Object getConstantValue( JavaField field )
+    {
+        JavaClass declaringClass = field.getDeclaringClass();
+        if ( declaringClass == null || declaringClass.getJavaClassLibrary() != this || !field.isStatic()
+            || !field.isFinal() )
+        {
+            return null;
+        }
+        String binaryName = getBinaryName( declaringClass );
+        Map<String, Object> values = constantValues.get( binaryName );
+        if ( values == null )
+        {
+            values = Collections.emptyMap();
+            for ( ClassLoader classLoader : classLoaders )
+            {
+                try
+                {
+                    values = ConstantValueReader.read( classLoader.loadClass( binaryName ) );
+                    break;
+                }
+                catch ( ClassNotFoundException e )
+                {
+                }
+            }
+            constantValues.put( binaryName, values );
+        }
+        return values.get( field.getName() );
+    }
+
+    private static String getBinaryName( JavaClass cls )
+    {
+        JavaClass declaringClass = cls.getDeclaringClass();
+        return ( declaringClass != null ? getBinaryName( declaringClass ) + '$' + cls.getName()
+                        : cls.getFullyQualifiedName() );
+    }
+
     @Override
     protected JavaPackage resolveJavaPackage(String name) {
         DefaultJavaPackage result = null;
@@ -179,6 +239,7 @@ public class ClassLoaderLibrary
     {
         in.defaultReadObject();
         classLoaders = new LinkedList<ClassLoader>();
+        constantValues = new ConcurrentHashMap<String, Map<String, Object>>();
         if ( defaultClassLoadersAdded )
         {
             defaultClassLoadersAdded = false;
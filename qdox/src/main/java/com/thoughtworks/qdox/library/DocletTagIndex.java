@@ -0,0 +1,101 @@
+package com.thoughtworks.qdox.library;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.thoughtworks.qdox.model.DocletTag;
+import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.impl.DefaultJavaSource;
+
+/**
+ * DocletTagIndex maps the name of a doclet tag to all tags with that name, as created by the ModelBuilder while
+ * creating the sources. The element a tag belongs to is available as its {@link DocletTag#getContext() context}.
+ * Just like the {@link JavaTypeUsageIndex} sources are only queued when they are added and indexed the first time the
+ * index is queried.
+ *
+ * @since 2.0
+ */
+public class DocletTagIndex
+    implements Serializable
+{
+    private Map<JavaSource, Boolean> registeredSources = new IdentityHashMap<JavaSource, Boolean>();
+
+    private LinkedList<DefaultJavaSource> pendingSources = new LinkedList<DefaultJavaSource>();
+
+    private Map<String, List<DocletTag>> tagMap = new HashMap<String, List<DocletTag>>();
+
+    /**
+     * Queue the doclet tags of the {@link JavaSource}, so they will be part of the next query.
+     * A source is only registered once.
+     *
+     * @param source the JavaSource to add
+     */
+    public void add( JavaSource source )
+    {
+        if ( source instanceof DefaultJavaSource && registeredSources.put( source, Boolean.TRUE ) == null )
+        {
+            pendingSources.add( (DefaultJavaSource) source );
+        }
+    }
+
+    /**
+     * Retrieve all doclet tags with this {@code name}.
+     *
+     * @param name the name of the tag, without the leading @
+     * @return the doclet tags, never <code>null</code>
+     */
+    public List<DocletTag> getTagsByName( String name )
+    {
+        indexPendingSources();
+        List<DocletTag> result = tagMap.get( name );
+        if ( result == null )
+        {
+            result = Collections.emptyList();
+        }
+        return result;
+    }
+
+    /**
+     * Index the doclet tags of all queued sources.
+     */
+    void indexPendingSources()
+    {
+        while ( !pendingSources.isEmpty() )
+        {
+            for ( DocletTag docletTag : pendingSources.removeFirst().getDocletTags() )
+            {
+                List<DocletTag> tags = tagMap.get( docletTag.getName() );
+                if ( tags == null )
+                {
+                    tags = new LinkedList<DocletTag>();
+                    tagMap.put( docletTag.getName(), tags );
+                }
+                tags.add( docletTag );
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.thoughtworks.qdox.library;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
+
+/**
+ * FieldReferenceCache keeps the resolved field of a reference like <code>Constants.FOO</code> per class it is used
+ * in, so every next reference with the same text within the same class is a single lookup. References which couldn't
+ * be resolved are cached as well. Adding sources or classloaders might change the outcome, so the cache is cleared
+ * as soon as the {@link ClassLibrary#getModificationCount() modification count} of the library has changed.
+ * <p>
+ * Lookups can be done by multiple threads at the same time, which is required once the library has been frozen.
+ *
+ * @since 2.0
+ */
+public class FieldReferenceCache
+    implements Serializable
+{
+    private final ClassLibrary classLibrary;
+
+    private final ConcurrentMap<Key, Resolution> resolutions = new ConcurrentHashMap<Key, Resolution>();
+
+    private volatile int modificationCount;
+
+    /**
+     * @param classLibrary the library whose modification count decides if the cached resolutions are still valid
+     */
+    public FieldReferenceCache( ClassLibrary classLibrary )
+    {
+        this.classLibrary = classLibrary;
+    }
+
+    /**
+     * @param scope the class in which the reference is used
+     * @param reference the text of the reference
+     * @return the earlier resolution of this reference, otherwise <code>null</code>
+     */
+    public Resolution get( JavaClass scope, String reference )
+    {
+        validate();
+        return resolutions.get( new Key( scope, reference ) );
+    }
+
+    /**
+     * @param scope the class in which the reference is used
+     * @param reference the text of the reference
+     * @param resolution the outcome of the resolution, also when no field was found
+     */
+    public void put( JavaClass scope, String reference, Resolution resolution )
+    {
+        validate();
+        resolutions.put( new Key( scope, reference ), resolution );
+    }
+
+    private void validate()
+    {
+        int currentModificationCount = classLibrary.getModificationCount();
+        if ( modificationCount != currentModificationCount )
+        {
+            resolutions.clear();
+            modificationCount = currentModificationCount;
+        }
+    }
+
+    /**
+     * The resolved field together with the index of the name part where the field name starts.
+     */
+    public static final class Resolution
+        implements Serializable
+    {
+        private final JavaField field;
+
+        private final int fieldIndex;
+
+        /**
+         * @param field the resolved field, <code>null</code> if the reference couldn't be resolved
+         * @param fieldIndex the index of the first name part which belongs to the field
+         */
+        public Resolution( JavaField field, int fieldIndex )
+        {
+            this.field = field;
+            this.fieldIndex = fieldIndex;
+        }
+
+        /**
+         * @return the resolved field, otherwise <code>null</code>
+         */
+        public JavaField getField()
+        {
+            return field;
+        }
+
+        /**
+         * @return the index of the first name part which belongs to the field
+         */
+        public int getFieldIndex()
+        {
+            return fieldIndex;
+        }
+    }
+
+    /**
+     * Classes are compared by identity, there's only one instance per class within a library.
+     */
+    private static final class Key
+        implements Serializable
+    {
+        private final JavaClass scope;
+
+        private final String reference;
+
+        Key( JavaClass scope, String reference )
+        {
+            this.scope = scope;
+            this.reference = reference;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof Key ) )
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return scope == other.scope && reference.equals( other.reference );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode( scope ) + reference.hashCode();
+        }
+    }
+}
@@ -21,6 +21,7 @@ package com.thoughtworks.qdox.library;
 
 import java.io.Serializable;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -45,6 +46,7 @@ public class JavaClassContext implements Serializable {
 	
 	private Map<String, JavaClass> classMap = new LinkedHashMap<String, JavaClass>();
 	private Map<String, JavaPackage> packageMap = new LinkedHashMap<String, JavaPackage>();  
+	private Map<String, Set<String>> subPackageMap = new HashMap<String, Set<String>>();
 	private Set<JavaSource> sourceSet = new LinkedHashSet<JavaSource>(); 
 	
 	public JavaClassContext(){
@@ -109,7 +111,16 @@ public class JavaClassContext implements Serializable {
      */
     public JavaPackage removePackageByName( String name )
     {
-        return packageMap.remove( name );
+        JavaPackage result = packageMap.remove( name );
+        if ( result != null )
+        {
+            Set<String> siblingNames = subPackageMap.get( getParentPackageName( name ) );
+            if ( siblingNames != null )
+            {
+                siblingNames.remove( name );
+            }
+        }
+        return result;
     }
 
     /**
@@ -120,10 +131,46 @@ public class JavaClassContext implements Serializable {
     public void add( JavaPackage jPackage )
     {
         if(jPackage != null) {
-            packageMap.put( jPackage.getName(), jPackage );
+            if ( packageMap.put( jPackage.getName(), jPackage ) == null )
+            {
+                String parentName = getParentPackageName( jPackage.getName() );
+                if ( parentName != null )
+                {
+                    Set<String> siblingNames = subPackageMap.get( parentName );
+                    if ( siblingNames == null )
+                    {
+                        siblingNames = new LinkedHashSet<String>();
+                        subPackageMap.put( parentName, siblingNames );
+                    }
+                    siblingNames.add( jPackage.getName() );
+                }
+            }
         }
     }
 
+    /**
+     * Return the names of the stored JavaPackages which are a direct subpackage of the package with this {@code name}.
+     * Packages are indexed by their parent when they're added, so there's no need to scan all packages.
+     * 
+     * @param name the fully qualified name of the package
+     * @return a list of package names, never <code>null</code>
+     */
+    public List<String> getSubPackageNames( String name )
+    {
+        Set<String> subPackageNames = subPackageMap.get( name );
+        if ( subPackageNames == null )
+        {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList( new LinkedList<String>( subPackageNames ) );
+    }
+
+    private static String getParentPackageName( String name )
+    {
+        int lastDot = ( name == null ? -1 : name.lastIndexOf( '.' ) );
+        return ( lastDot > 0 ? name.substring( 0, lastDot ) : null );
+    }
+
     /**
      * Return all stored JavaPackages
      * 
@@ -0,0 +1,113 @@
+package com.thoughtworks.qdox.library;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.thoughtworks.qdox.model.JavaClass;
+
+/**
+ * JavaClassHierarchy is the reverse of the supertype graph: for every fully qualified name it keeps the
+ * JavaClasses which directly extend or implement it.
+ * Classes are only queued when they are added, their supertypes are resolved the first time the hierarchy is
+ * queried. This way adding sources stays as lazy as before.
+ *
+ * @since 2.0
+ */
+public class JavaClassHierarchy
+    implements Serializable
+{
+    private Set<String> registeredClasses = new HashSet<String>();
+
+    private LinkedList<JavaClass> pendingClasses = new LinkedList<JavaClass>();
+
+    private Map<String, List<JavaClass>> directSubclassMap = new HashMap<String, List<JavaClass>>();
+
+    /**
+     * Queue the {@link JavaClass}, so it will be part of the next query.
+     * A class is only registered once, based on its fully qualified name.
+     *
+     * @param javaClass the JavaClass to add
+     */
+    public void add( JavaClass javaClass )
+    {
+        if ( registeredClasses.add( javaClass.getFullyQualifiedName() ) )
+        {
+            pendingClasses.add( javaClass );
+        }
+    }
+
+    /**
+     * Retrieve all JavaClasses which have the class with this {@code name} as direct superclass or as direct interface.
+     *
+     * @param name the fully qualified name of the class
+     * @return the direct subclasses, never <code>null</code>
+     */
+    public List<JavaClass> getDirectSubclasses( String name )
+    {
+        indexPendingClasses();
+        List<JavaClass> result = directSubclassMap.get( name );
+        if ( result == null )
+        {
+            result = Collections.emptyList();
+        }
+        return result;
+    }
+
+    /**
+     * Resolve the supertypes of all queued classes.
+     */
+    void indexPendingClasses()
+    {
+        // resolving a supertype might add new classes to the library, so don't use an iterator
+        while ( !pendingClasses.isEmpty() )
+        {
+            JavaClass javaClass = pendingClasses.removeFirst();
+
+            JavaClass superClass = javaClass.getSuperJavaClass();
+            if ( superClass != null )
+            {
+                addDirectSubclass( superClass.getFullyQualifiedName(), javaClass );
+            }
+            for ( JavaClass implementz : javaClass.getImplementedInterfaces() )
+            {
+                addDirectSubclass( implementz.getFullyQualifiedName(), javaClass );
+            }
+        }
+    }
+
+    private void addDirectSubclass( String superName, JavaClass javaClass )
+    {
+        List<JavaClass> subclasses = directSubclassMap.get( superName );
+        if ( subclasses == null )
+        {
+            subclasses = new LinkedList<JavaClass>();
+            directSubclassMap.put( superName, subclasses );
+        }
+        subclasses.add( javaClass );
+    }
+}
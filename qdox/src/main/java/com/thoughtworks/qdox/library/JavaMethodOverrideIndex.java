@@ -0,0 +1,182 @@
+package com.thoughtworks.qdox.library;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
+import com.thoughtworks.qdox.model.impl.MethodSignature;
+
+/**
+ * JavaMethodOverrideIndex keeps both directions of the override relation: for every method of the registered classes
+ * the methods it overrides, and for every overridden method the methods overriding it.
+ * Just like the {@link JavaClassHierarchy} classes are only queued when they are added, their methods are indexed the
+ * first time the index is queried. Since a class can only override the methods of its supertypes, adding classes
+ * never changes the methods overridden by the classes indexed before, so the index is only extended.
+ *
+ * @since 2.0
+ */
+public class JavaMethodOverrideIndex
+    implements Serializable
+{
+    private Set<String> registeredClasses = new HashSet<String>();
+
+    private LinkedList<JavaClass> pendingClasses = new LinkedList<JavaClass>();
+
+    private Map<JavaMethod, List<JavaMethod>> overriddenMethodMap = new IdentityHashMap<JavaMethod, List<JavaMethod>>();
+
+    private Map<JavaMethod, List<JavaMethod>> overridingMethodMap = new IdentityHashMap<JavaMethod, List<JavaMethod>>();
+
+    /**
+     * Queue the {@link JavaClass}, so its methods will be part of the next query.
+     * A class is only registered once, based on its fully qualified name.
+     *
+     * @param javaClass the JavaClass to add
+     */
+    public void add( JavaClass javaClass )
+    {
+        if ( registeredClasses.add( javaClass.getFullyQualifiedName() ) )
+        {
+            pendingClasses.add( javaClass );
+        }
+    }
+
+    /**
+     * @param method the method
+     * @return the overridden methods, or <code>null</code> if the class of the method isn't registered
+     */
+    public List<JavaMethod> getOverriddenMethods( JavaMethod method )
+    {
+        indexPendingClasses();
+        return overriddenMethodMap.get( method );
+    }
+
+    /**
+     * @param method the method
+     * @return the methods of the registered classes overriding this method, never <code>null</code>
+     */
+    public List<JavaMethod> getOverridingMethods( JavaMethod method )
+    {
+        indexPendingClasses();
+        List<JavaMethod> result = overridingMethodMap.get( method );
+        if ( result == null )
+        {
+            result = Collections.emptyList();
+        }
+        return result;
+    }
+
+    /**
+     * Find the overridden methods of all queued classes.
+     */
+    void indexPendingClasses()
+    {
+        // resolving a supertype might add new classes to the library, so don't use an iterator
+        while ( !pendingClasses.isEmpty() )
+        {
+            for ( JavaMethod method : pendingClasses.removeFirst().getMethods() )
+            {
+                List<JavaMethod> overriddenMethods = findOverriddenMethods( method );
+                overriddenMethodMap.put( method, overriddenMethods );
+                for ( JavaMethod overriddenMethod : overriddenMethods )
+                {
+                    List<JavaMethod> overridingMethods = overridingMethodMap.get( overriddenMethod );
+                    if ( overridingMethods == null )
+                    {
+                        overridingMethods = new LinkedList<JavaMethod>();
+                        overridingMethodMap.put( overriddenMethod, overridingMethods );
+                    }
+                    overridingMethods.add( method );
+                }
+            }
+        }
+    }
+
+    /**
+     * Walk the supertypes of the declaring class of the method, nearest supertypes first, and collect the methods
+     * overridden by it.
+     * 
+     * @param method the method
+     * @return the overridden methods, never <code>null</code>
+     */
+    static List<JavaMethod> findOverriddenMethods( JavaMethod method )
+    {
+        List<JavaMethod> result = new LinkedList<JavaMethod>();
+        JavaClass declaringClass = method.getDeclaringClass();
+        if ( declaringClass != null && !method.isStatic() && !method.isPrivate() )
+        {
+            Set<String> visited = new HashSet<String>();
+            LinkedList<JavaClass> queue = new LinkedList<JavaClass>();
+            addSupertypes( declaringClass, queue );
+            while ( !queue.isEmpty() )
+            {
+                JavaClass supertype = queue.removeFirst();
+                if ( visited.add( supertype.getFullyQualifiedName() ) )
+                {
+                    for ( JavaMethod superMethod : supertype.getMethods() )
+                    {
+                        if ( overrides( method, superMethod ) )
+                        {
+                            result.add( superMethod );
+                        }
+                    }
+                    addSupertypes( supertype, queue );
+                }
+            }
+        }
+        return Collections.unmodifiableList( result );
+    }
+
+    private static void addSupertypes( JavaClass javaClass, List<JavaClass> queue )
+    {
+        JavaClass superClass = javaClass.getSuperJavaClass();
+        if ( superClass != null )
+        {
+            queue.add( superClass );
+        }
+        queue.addAll( javaClass.getImplementedInterfaces() );
+    }
+
+    private static boolean overrides( JavaMethod method, JavaMethod superMethod )
+    {
+        if ( !method.getName().equals( superMethod.getName() ) || superMethod.isStatic() || superMethod.isPrivate()
+            || superMethod.getParameters().size() != method.getParameters().size() )
+        {
+            return false;
+        }
+        JavaClass declaringClass = method.getDeclaringClass();
+        JavaClass superClass = superMethod.getDeclaringClass();
+        if ( !superMethod.isPublic() && !superMethod.isProtected()
+            && ( superClass == null || !declaringClass.getPackageName().equals( superClass.getPackageName() ) ) )
+        {
+            // package private methods can only be overridden within the same package
+            return false;
+        }
+        return MethodSignature.isSubsignature( method, superMethod );
+    }
+}
@@ -0,0 +1,144 @@
+package com.thoughtworks.qdox.library;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.thoughtworks.qdox.model.JavaAnnotatedElement;
+import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
+import com.thoughtworks.qdox.model.JavaTypeUsage.Kind;
+import com.thoughtworks.qdox.model.impl.DefaultJavaSource;
+
+/**
+ * JavaTypeUsageIndex maps the fully qualified name of a type to all places where it is used, as recorded by the
+ * ModelBuilder while creating the sources. Usages are indexed by the erased component type, so a
+ * <code>List&lt;String&gt;[]</code> field is a usage of <code>java.util.List</code>.
+ * Just like the {@link JavaClassHierarchy} sources are only queued when they are added, the usages are resolved the
+ * first time the index is queried.
+ * Annotation usages are indexed separately as well, so annotated elements can be found without filtering all usages.
+ *
+ * @since 2.0
+ */
+public class JavaTypeUsageIndex
+    implements Serializable
+{
+    private Map<JavaSource, Boolean> registeredSources = new IdentityHashMap<JavaSource, Boolean>();
+
+    private LinkedList<DefaultJavaSource> pendingSources = new LinkedList<DefaultJavaSource>();
+
+    private Map<String, List<JavaTypeUsage>> usageMap = new HashMap<String, List<JavaTypeUsage>>();
+
+    private Map<String, List<JavaAnnotatedElement>> annotatedElementMap =
+        new HashMap<String, List<JavaAnnotatedElement>>();
+
+    /**
+     * Queue the usages of the {@link JavaSource}, so they will be part of the next query.
+     * A source is only registered once.
+     *
+     * @param source the JavaSource to add
+     */
+    public void add( JavaSource source )
+    {
+        if ( source instanceof DefaultJavaSource && registeredSources.put( source, Boolean.TRUE ) == null )
+        {
+            pendingSources.add( (DefaultJavaSource) source );
+        }
+    }
+
+    /**
+     * Retrieve all usages of the type with this {@code name}.
+     *
+     * @param name the fully qualified name of the type, without dimensions or type arguments
+     * @return the usages, never <code>null</code>
+     */
+    public List<JavaTypeUsage> getTypeUsages( String name )
+    {
+        indexPendingSources();
+        List<JavaTypeUsage> result = usageMap.get( name );
+        if ( result == null )
+        {
+            result = Collections.emptyList();
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve all elements which are directly annotated with the annotation with this {@code name}.
+     *
+     * @param name the fully qualified name of the annotation
+     * @return the annotated elements, never <code>null</code>
+     */
+    public List<JavaAnnotatedElement> getAnnotatedElements( String name )
+    {
+        indexPendingSources();
+        List<JavaAnnotatedElement> result = annotatedElementMap.get( name );
+        if ( result == null )
+        {
+            result = Collections.emptyList();
+        }
+        return result;
+    }
+
+    /**
+     * Resolve the types of the usages of all queued sources.
+     */
+    void indexPendingSources()
+    {
+        // resolving a type might add new sources to the library, so don't use an iterator
+        while ( !pendingSources.isEmpty() )
+        {
+            for ( JavaTypeUsage usage : pendingSources.removeFirst().getTypeUsages() )
+            {
+                String name = getComponentName( usage.getType().getFullyQualifiedName() );
+                List<JavaTypeUsage> usages = usageMap.get( name );
+                if ( usages == null )
+                {
+                    usages = new LinkedList<JavaTypeUsage>();
+                    usageMap.put( name, usages );
+                }
+                usages.add( usage );
+
+                if ( usage.getKind() == Kind.ANNOTATION )
+                {
+                    List<JavaAnnotatedElement> elements = annotatedElementMap.get( name );
+                    if ( elements == null )
+                    {
+                        elements = new LinkedList<JavaAnnotatedElement>();
+                        annotatedElementMap.put( name, elements );
+                    }
+                    elements.add( usage.getUser() );
+                }
+            }
+        }
+    }
+
+    private static String getComponentName( String name )
+    {
+        int index = name.indexOf( '[' );
+        return ( index >= 0 ? name.substring( 0, index ) : name );
+    }
+}
@@ -26,6 +26,7 @@ import java.io.Reader;
 import java.net.URL;
 
 import com.thoughtworks.qdox.builder.ModelBuilderFactory;
+import com.thoughtworks.qdox.builder.TextStore;
 import com.thoughtworks.qdox.model.JavaSource;
 import com.thoughtworks.qdox.writer.ModelWriterFactory;
 
@@ -51,6 +52,10 @@ public class OrderedClassLibraryBuilder implements ClassLibraryBuilder
     private ModelBuilderFactory modelBuilderFactory;
     
     private ModelWriterFactory modelWriterFactory;
+
+    private TextStore textStore;
+
+    private SourceCache sourceCache;
     
     /**
      * Default constructor which sets the root classLibrary to ClassNameLibrary.
@@ -87,6 +92,7 @@ public class OrderedClassLibraryBuilder implements ClassLibraryBuilder
         classLoaderLibrary.addClassLoader( classLoader );
         classLoaderLibrary.setModelBuilderFactory( modelBuilderFactory );
         classLoaderLibrary.setModelWriterFactory( modelWriterFactory );
+        classLoaderLibrary.setTextStore( textStore );
         classLoaderLibrary.setDebugLexer( debugLexer );
         classLoaderLibrary.setDebugParser( debugParser );
         classLoaderLibrary.setErrorHandler( errorHandler );
@@ -107,6 +113,7 @@ public class OrderedClassLibraryBuilder implements ClassLibraryBuilder
         classLoaderLibrary.addDefaultLoader();
         classLoaderLibrary.setModelBuilderFactory( modelBuilderFactory );
         classLoaderLibrary.setModelWriterFactory( modelWriterFactory );
+        classLoaderLibrary.setTextStore( textStore );
         return this;
     }
 
@@ -121,6 +128,7 @@ public class OrderedClassLibraryBuilder implements ClassLibraryBuilder
         }
         SourceFolderLibrary sourceFolderLibrary = (SourceFolderLibrary) classLibrary;
         prepareSourceLibrary( sourceFolderLibrary );
+        sourceFolderLibrary.setSourceCache( sourceCache );
         sourceFolderLibrary.addSourceFolder( sourceFolder );
         return this;
     }
@@ -203,6 +211,26 @@ public class OrderedClassLibraryBuilder implements ClassLibraryBuilder
         return this;
     }
 
+    /*
+     * (non-Javadoc)
+     * @see com.thoughtworks.qdox.library.ClassLibraryBuilder#setTextStore(com.thoughtworks.qdox.builder.TextStore)
+     */
+    public ClassLibraryBuilder setTextStore( TextStore textStore )
+    {
+        this.textStore = textStore;
+        return this;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.thoughtworks.qdox.library.ClassLibraryBuilder#setSourceCache(com.thoughtworks.qdox.library.SourceCache)
+     */
+    public ClassLibraryBuilder setSourceCache( SourceCache sourceCache )
+    {
+        this.sourceCache = sourceCache;
+        return this;
+    }
+
     /* (non-Javadoc)
      * @see com.thoughtworks.qdox.library.ClassLibraryBuilder#getClassLibrary()
      */
@@ -278,6 +306,7 @@ public class OrderedClassLibraryBuilder implements ClassLibraryBuilder
     private void prepareSourceLibrary( SourceLibrary sourceLibrary ) {
         sourceLibrary.setModelBuilderFactory( modelBuilderFactory );
         sourceLibrary.setModelWriterFactory( modelWriterFactory );
+        sourceLibrary.setTextStore( textStore );
         sourceLibrary.setDebugLexer( debugLexer );
         sourceLibrary.setDebugParser( debugParser );
         sourceLibrary.setEncoding( encoding );
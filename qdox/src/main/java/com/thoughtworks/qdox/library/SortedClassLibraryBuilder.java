@@ -26,6 +26,7 @@ import java.io.Reader;
 import java.net.URL;
 
 import com.thoughtworks.qdox.builder.ModelBuilderFactory;
+import com.thoughtworks.qdox.builder.TextStore;
 import com.thoughtworks.qdox.model.JavaSource;
 import com.thoughtworks.qdox.writer.ModelWriterFactory;
 
@@ -146,6 +147,20 @@ public class SortedClassLibraryBuilder
         return this;
     }
 
+    public ClassLibraryBuilder setTextStore( TextStore textStore )
+    {
+        classLoaderLibrary.setTextStore( textStore );
+        sourceFolderLibrary.setTextStore( textStore );
+        sourceLibrary.setTextStore( textStore );
+        return this;
+    }
+
+    public ClassLibraryBuilder setSourceCache( SourceCache sourceCache )
+    {
+        sourceFolderLibrary.setSourceCache( sourceCache );
+        return this;
+    }
+
     public ClassLibrary getClassLibrary()
     {
         return sourceLibrary;
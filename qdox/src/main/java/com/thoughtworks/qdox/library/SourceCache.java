@@ -0,0 +1,222 @@
+package com.thoughtworks.qdox.library;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * Keeps the parsed sources of a {@link SourceFolderLibrary} with a limited lifetime, so the memory of huge source
+ * trees stays bounded. For every parsed source a small stub remains with its url and class names. The
+ * complete JavaSource is kept by a LRU list of the most recently used sources and optionally by a soft reference, so
+ * the garbage collector can release it when memory runs low. Once a source has been released, the library will parse
+ * it again the next time one of its classes is requested.
+ * 
+ * @since 2.0
+ */
+public class SourceCache
+    implements Serializable
+{
+    private final int maximumSize;
+
+    private final boolean softReferences;
+
+    private transient Map<String, SourceStub> stubs;
+
+    private transient Map<URL, JavaSource> recentSources;
+
+    private int hitCount;
+
+    private int missCount;
+
+    private int reparseCount;
+
+    /**
+     * @param maximumSize the number of sources which are always kept, the least recently used sources are released
+     *            first
+     * @param softReferences <code>true</code> if released sources should be kept until the garbage collector needs
+     *            the memory, otherwise <code>false</code>
+     */
+    public SourceCache( int maximumSize, boolean softReferences )
+    {
+        this.maximumSize = maximumSize;
+        this.softReferences = softReferences;
+    }
+
+    /**
+     * Get the source containing the class with this name, if it's still available
+     * 
+     * @param className the fully qualified name of a top level class
+     * @return the source, otherwise <code>null</code>
+     */
+    JavaSource getSource( String className )
+    {
+        JavaSource result = null;
+        SourceStub stub = getStubs().get( className );
+        if ( stub != null )
+        {
+            // a get of a LinkedHashMap in access-order marks the source as most recently used
+            result = getRecentSources().get( stub.getUrl() );
+            if ( result == null )
+            {
+                result = stub.getSource();
+            }
+        }
+        if ( result != null )
+        {
+            hitCount++;
+        }
+        return result;
+    }
+
+    /**
+     * Keep this source, which had to be parsed because it wasn't available
+     * 
+     * @param source the source, must have an url
+     */
+    void put( JavaSource source )
+    {
+        missCount++;
+        SourceStub stub = new SourceStub( source, softReferences );
+        boolean reparsed = false;
+        for ( String className : stub.getClassNames() )
+        {
+            reparsed |= ( getStubs().put( className, stub ) != null );
+        }
+        if ( reparsed )
+        {
+            reparseCount++;
+        }
+        getRecentSources().put( source.getURL(), source );
+    }
+
+    /**
+     * @return the sources which haven't been released yet
+     */
+    List<JavaSource> getAvailableSources()
+    {
+        List<JavaSource> result = new ArrayList<JavaSource>( getRecentSources().values() );
+        for ( SourceStub stub : new LinkedHashSet<SourceStub>( getStubs().values() ) )
+        {
+            JavaSource source = stub.getSource();
+            if ( source != null && !getRecentSources().containsKey( stub.getUrl() ) )
+            {
+                result.add( source );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of requests which could be served by a kept source
+     */
+    public int getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of sources which had to be parsed, including the reparsed sources
+     */
+    public int getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * @return the number of sources which had to be parsed again, after they had been released
+     */
+    public int getReparseCount()
+    {
+        return reparseCount;
+    }
+
+    private Map<String, SourceStub> getStubs()
+    {
+        if ( stubs == null )
+        {
+            stubs = new HashMap<String, SourceStub>();
+        }
+        return stubs;
+    }
+
+    private Map<URL, JavaSource> getRecentSources()
+    {
+        if ( recentSources == null )
+        {
+            recentSources = new LinkedHashMap<URL, JavaSource>( 16, 0.75f, true )
+            {
+                @Override
+                protected boolean removeEldestEntry( Map.Entry<URL, JavaSource> eldest )
+                {
+                    return size() > maximumSize;
+                }
+            };
+        }
+        return recentSources;
+    }
+
+    private static class SourceStub
+    {
+        private final URL url;
+
+        private final List<String> classNames;
+
+        private final SoftReference<JavaSource> source;
+
+        SourceStub( JavaSource source, boolean softReference )
+        {
+            this.url = source.getURL();
+            List<String> names = new ArrayList<String>();
+            for ( JavaClass javaClass : source.getClasses() )
+            {
+                names.add( javaClass.getFullyQualifiedName() );
+            }
+            this.classNames = Collections.unmodifiableList( names );
+            this.source = ( softReference ? new SoftReference<JavaSource>( source ) : null );
+        }
+
+        public URL getUrl()
+        {
+            return url;
+        }
+
+        public List<String> getClassNames()
+        {
+            return classNames;
+        }
+
+        public JavaSource getSource()
+        {
+            return ( source != null ? source.get() : null );
+        }
+    }
+}
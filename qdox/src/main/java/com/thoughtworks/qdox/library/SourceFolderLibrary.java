@@ -40,6 +40,10 @@ public class SourceFolderLibrary
 {
     private List<File> sourceFolders = new LinkedList<File>();
 
+    private SourceCache sourceCache;
+
+    private boolean sourceCachePinned;
+
     public SourceFolderLibrary( AbstractClassLibrary parent  )
     {
         super( parent );
@@ -53,22 +57,60 @@ public class SourceFolderLibrary
 
     public void addSourceFolder( File sourceFolder )
     {
+        checkNotFrozen();
         this.sourceFolders.add( sourceFolder );
+        incrementModificationCount();
+    }
+
+    /**
+     * Keep the sources of the source folders in this cache instead of in the library, so they can be released when
+     * they haven't been used for a while. Released sources are parsed again once they're requested.
+     * Classes which have already been resolved are not affected.
+     * 
+     * @param sourceCache the cache, <code>null</code> to keep all sources
+     * @since 2.0
+     */
+    public void setSourceCache( SourceCache sourceCache )
+    {
+        checkNotFrozen();
+        this.sourceCache = sourceCache;
+    }
+
+    /**
+     * @return the sourceCache, otherwise <code>null</code>
+     * @since 2.0
+     */
+    public SourceCache getSourceCache()
+    {
+        return sourceCache;
     }
 
     @Override
     protected JavaClass resolveJavaClass( String className )
     {
         JavaClass result = null;
+        String mainClassName = className.split( "\\$" )[0];
+        // the cache changes with every lookup, so once frozen it's not used anymore
+        if ( sourceCache != null && !isFrozen() )
+        {
+            JavaSource source = sourceCache.getSource( mainClassName );
+            if ( source != null )
+            {
+                return source.getClassByName( className );
+            }
+        }
         for ( File sourceFolder : sourceFolders )
         {
-            String mainClassName = className.split( "\\$" )[0];
             File classFile = new File( sourceFolder, mainClassName.replace( '.', File.separatorChar ) + ".java" );
             if ( classFile.exists() && classFile.isFile() )
             {
                 try
                 {
                     JavaSource source = parse( new FileReader( classFile ), classFile.toURI().toURL() );
+                    if ( source != null && sourceCache != null && !isFrozen() )
+                    {
+                        sourceCache.put( source );
+                    }
                     result = source.getClassByName( className );
                 }
                 catch ( FileNotFoundException e )
@@ -82,6 +124,33 @@ public class SourceFolderLibrary
         return result;
     }
     
+    @Override
+    protected boolean retainsResolvedClasses()
+    {
+        return sourceCache == null || sourceCachePinned;
+    }
+
+    /**
+     * A frozen library doesn't use the source cache anymore, so the sources which are still available in the cache
+     * are kept by this library. Released sources are parsed again once one of their classes is requested.
+     */
+    @Override
+    protected void resolveAll()
+    {
+        super.resolveAll();
+        if ( sourceCache != null && !sourceCachePinned )
+        {
+            sourceCachePinned = true;
+            for ( JavaSource source : sourceCache.getAvailableSources() )
+            {
+                for ( JavaClass javaClass : source.getClasses() )
+                {
+                    getJavaClass( javaClass.getFullyQualifiedName() );
+                }
+            }
+        }
+    }
+
     /**
      * Loops over the sourceFolder to find a classReference.
      * It will try to map the className to a file.
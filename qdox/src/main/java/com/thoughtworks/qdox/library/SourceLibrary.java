@@ -132,6 +132,7 @@ public class SourceLibrary
     public JavaSource addSource( File file )
         throws ParseException, IOException
     {
+        checkNotFrozen();
         JavaSource result = null;
         if ( !"package-info.java".equals( file.getName() ) ) 
         {
@@ -238,20 +239,37 @@ public class SourceLibrary
     	return context.removePackageByName( name );
     }
 
+    @Override
+    protected void resolveAll()
+    {
+        for ( JavaPackage javaPackage : context.getPackages() )
+        {
+            getJavaPackage( javaPackage.getName() );
+        }
+        for ( JavaClass javaClass : context.getClasses() )
+        {
+            getJavaClass( javaClass.getFullyQualifiedName() );
+        }
+    }
+
     /**
      * 
      * @param source the source, might be <code>null</code>
      */
     protected final void registerJavaSource( JavaSource source )
     {
+        checkNotFrozen();
         if ( source != null )
         {
             context.add( source );
+            registerJavaTypeUsages( source );
+            registerDocletTags( source );
             registerJavaPackage( source.getPackage() );
             for ( JavaClass cls : source.getClasses() )
             {
                 registerJavaClass( cls );
             }
+            incrementModificationCount();
         }
     }
     
@@ -269,6 +287,7 @@ public class SourceLibrary
     private void registerJavaClass(JavaClass cls) {
         if (cls != null) {
             context.add( cls );
+            registerJavaClassHierarchy( cls );
             getJavaPackage( cls.getPackageName() ).getClasses().add( cls );
         }
         for( JavaClass innerCls : cls.getNestedClasses()) {
@@ -370,6 +389,21 @@ public class SourceLibrary
         result.addAll( unusedPackages );
         return Collections.unmodifiableList( result );
     }
+
+    @Override
+    public List<JavaPackage> getSubPackages( String name )
+    {
+        List<String> names = new LinkedList<String>();
+        names.addAll( getSubPackageNames( name, new ClassLibraryFilter()
+        {
+            public boolean accept( AbstractClassLibrary classLibrary )
+            {
+                return (classLibrary instanceof SourceLibrary);
+            }
+        }) );
+        names.addAll( context.getSubPackageNames( name ) );
+        return getJavaPackages( names );
+    }
     
     /**
      * Get all sources, including those from parent SourceLibraries
@@ -391,6 +425,21 @@ public class SourceLibrary
         return Collections.unmodifiableList( result );
     }
 
+    /**
+     * Get all direct subclasses, including those from parent SourceLibraries
+     */
+    @Override
+    public List<JavaClass> getDirectSubclasses( String name )
+    {
+        return getDirectSubclasses( name, new ClassLibraryFilter()
+        {
+            public boolean accept( AbstractClassLibrary classLibrary )
+            {
+                return (classLibrary instanceof SourceLibrary);
+            }
+        });
+    }
+
     @Override
     protected boolean containsClassReference( String name )
     {
@@ -30,10 +30,18 @@ public interface JavaAnnotation {
 	 */
 	JavaClass getType();
 
+	/**
+	 * Annotations with only literal values might share the same properties, so the map can't be changed.
+	 * 
+	 * @return an unmodifiable map of the properties, never <code>null</code>
+	 */
 	Map<String, AnnotationValue> getPropertyMap();
 
 	AnnotationValue getProperty(String name);
 	
+	/**
+	 * @return an unmodifiable map of the named parameters, never <code>null</code>
+	 */
 	Map<String, Object> getNamedParameterMap();
 	
 	Object getNamedParameter(String key);
@@ -405,6 +405,23 @@ public interface JavaClass extends JavaModel, JavaType, JavaClassParent, JavaAnn
      */
     List<JavaClass> getDerivedClasses();
 
+    /**
+     * Gets the known classes which directly extend or implement this class.
+     * 
+     * @return the direct subclasses, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaClass> getDirectSubclasses();
+
+    /**
+     * Gets the known classes implementing this interface, either directly or via one of their supertypes.
+     * Interfaces extending this interface are not included.
+     * 
+     * @return the implementing classes if this class is an interface, otherwise an empty list
+     * @since 2.0
+     */
+    List<JavaClass> getImplementors();
+
     List<DocletTag> getTagsByName( String name, boolean superclasses );
 
     ClassLibrary getJavaClassLibrary();
@@ -179,4 +179,24 @@ public interface JavaMethod extends JavaAnnotatedElement, JavaMember, JavaModel,
     List<JavaType> getParameterTypes( boolean resolve );
 
     DocletTag getTagByName( String string, boolean b );
+
+    /**
+     * Get the methods of the superclasses and interfaces which are overridden or implemented by this method.
+     * Parameter types of generic supertypes are resolved for the declaring class of this method, so
+     * <code>put(String)</code> of a class implementing <code>Map&lt;String,Object&gt;</code> overrides
+     * <code>put(K)</code>. Static and private methods never override.
+     * 
+     * @return the overridden methods, nearest supertypes first, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaMethod> getOverriddenMethods();
+
+    /**
+     * Get the methods of the known derived classes which override or implement this method.
+     * This is the reverse of {@link #getOverriddenMethods()}, both are kept by the index of the class library.
+     * 
+     * @return the overriding methods, never <code>null</code>
+     * @since 2.0
+     */
+    List<JavaMethod> getOverridingMethods();
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.thoughtworks.qdox.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+
+/**
+ * A reference to a type as written in the source, together with the element which uses it.
+ * For example the field <code>private List&lt;String&gt; names;</code> results in a {@link Kind#FIELD} usage of
+ * <code>List&lt;String&gt;</code> and a {@link Kind#TYPE_ARGUMENT} usage of <code>String</code>, both used by the
+ * field.
+ *
+ * @since 2.0
+ */
+public final class JavaTypeUsage
+    implements Serializable
+{
+    /**
+     * The place where a type is used
+     */
+    public static enum Kind
+    {
+        SUPERCLASS, INTERFACE, FIELD, PARAMETER, RETURN_TYPE, EXCEPTION, TYPE_ARGUMENT, BOUND, ANNOTATION
+    }
+
+    private final JavaType type;
+
+    private final Kind kind;
+
+    private final JavaAnnotatedElement user;
+
+    /**
+     * @param type the used type, should not be <code>null</code>
+     * @param kind the kind of usage, should not be <code>null</code>
+     * @param user the element using the type, should not be <code>null</code>
+     */
+    public JavaTypeUsage( JavaType type, Kind kind, JavaAnnotatedElement user )
+    {
+        this.type = type;
+        this.kind = kind;
+        this.user = user;
+    }
+
+    /**
+     * @return the used type, never <code>null</code>
+     */
+    public JavaType getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return the kind of usage, never <code>null</code>
+     */
+    public Kind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * The element using the type, which is the class for supertypes and the method or constructor for return types
+     * and exceptions. For bounds this is the class, method or constructor declaring the type variable. Type arguments
+     * are used by the same element as the type they belong to.
+     *
+     * @return the element using the type, never <code>null</code>
+     */
+    public JavaAnnotatedElement getUser()
+    {
+        return user;
+    }
+
+    @Override
+    public String toString()
+    {
+        return kind + " " + type.getGenericValue() + " in " + user;
+    }
+}
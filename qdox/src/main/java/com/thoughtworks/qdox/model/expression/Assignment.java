@@ -35,6 +35,21 @@ public class Assignment
         this.assignmentExpression = assignmentExpression;
     }
 
+    public Expression getLeftHandSide()
+    {
+        return leftHandSide;
+    }
+
+    public String getOperator()
+    {
+        return operator;
+    }
+
+    public Expression getAssignmentExpression()
+    {
+        return assignmentExpression;
+    }
+
     /** {@inheritDoc} */
     public Object accept( ExpressionVisitor visitor )
     {
@@ -27,6 +27,8 @@ public abstract class BinaryOperator
 
     private AnnotationValue right;
 
+    private Object foldedValue;
+
     public BinaryOperator( AnnotationValue left, AnnotationValue right )
     {
         this.left = left;
@@ -43,4 +45,26 @@ public abstract class BinaryOperator
         return right;
     }
 
+    /**
+     * The value of this operator once it has been evaluated and only depends on literals. Such a value never changes, so
+     * it is evaluated once and shared by all further evaluations. If two threads compute it at the same time, they
+     * compute the same immutable value.
+     * 
+     * @return the folded value, or <code>null</code> if this operator hasn't been folded
+     * @since 2.0
+     */
+    public Object getFoldedValue()
+    {
+        return foldedValue;
+    }
+
+    /**
+     * @param foldedValue the evaluated value of this operator, only when it only depends on literals
+     * @since 2.0
+     */
+    public void setFoldedValue( Object foldedValue )
+    {
+        this.foldedValue = foldedValue;
+    }
+
 }
@@ -29,6 +29,8 @@ public class Cast
 
     private final AnnotationValue value;
 
+    private Object foldedValue;
+
     public Cast( JavaType type, AnnotationValue value )
     {
         this.type = type;
@@ -45,6 +47,25 @@ public class Cast
         return this.value;
     }
 
+    /**
+     * @return the folded value, or <code>null</code> if this cast hasn't been folded
+     * @see BinaryOperator#getFoldedValue()
+     * @since 2.0
+     */
+    public Object getFoldedValue()
+    {
+        return foldedValue;
+    }
+
+    /**
+     * @param foldedValue the evaluated value of this cast, only when it only depends on literals
+     * @since 2.0
+     */
+    public void setFoldedValue( Object foldedValue )
+    {
+        this.foldedValue = foldedValue;
+    }
+
     public Object accept( ExpressionVisitor visitor )
     {
         return visitor.visit( this );
@@ -27,12 +27,32 @@ public abstract class Constant
 
     private final String image;
 
+    private Object value;
+
     private Constant( String image )
     {
         this.image = image;
     }
 
-    public abstract Object getValue();
+    /**
+     * The image is only converted the first time the value is requested. The value is immutable, so it is safe to
+     * share it between callers.
+     * 
+     * @return the value of this literal
+     */
+    public Object getValue()
+    {
+        if ( value == null )
+        {
+            value = toValue();
+        }
+        return value;
+    }
+
+    /**
+     * @return the value of this literal, converted from its image
+     */
+    abstract Object toValue();
 
     public static Constant newBooleanLiteral( final String value )
     {
@@ -40,7 +60,7 @@ public abstract class Constant
         {
 
             @Override
-            public Object getValue()
+            Object toValue()
             {
                 return toBoolean( value );
             }
@@ -52,7 +72,7 @@ public abstract class Constant
         return new Constant( value )
         {
             @Override
-            public Object getValue()
+            Object toValue()
             {
                 return toChar( value );
             }
@@ -64,7 +84,7 @@ public abstract class Constant
         return new Constant( value )
         {
             @Override
-            public Object getValue()
+            Object toValue()
             {
                 return toFloatingPointLiteral( value );
             }
@@ -76,7 +96,7 @@ public abstract class Constant
         return new Constant( value )
         {
             @Override
-            public Object getValue()
+            Object toValue()
             {
                 return toIntegerLiteral( value );
             }
@@ -88,7 +108,7 @@ public abstract class Constant
         return new Constant( value )
         {
             @Override
-            public Object getValue()
+            Object toValue()
             {
                 return toString( value );
             }
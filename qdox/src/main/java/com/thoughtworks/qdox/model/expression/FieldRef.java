@@ -21,7 +21,9 @@ package com.thoughtworks.qdox.model.expression;
 
 import java.util.StringTokenizer;
 
+import com.thoughtworks.qdox.library.AbstractClassLibrary;
 import com.thoughtworks.qdox.library.ClassLibrary;
+import com.thoughtworks.qdox.library.FieldReferenceCache;
 import com.thoughtworks.qdox.model.JavaAnnotatedElement;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaField;
@@ -38,9 +40,11 @@ public class FieldRef
 
     private JavaAnnotatedElement context;
 
-    private JavaField field;
-
-    private int fieldIndex = -1;
+    /**
+     * The field and the index of its first name part are published together, so other threads never see one without
+     * the other.
+     */
+    private volatile FieldReferenceCache.Resolution resolution;
 
     /**
      * @param name the field name, not <code>null</code>
@@ -105,10 +109,11 @@ public class FieldRef
     public String getClassPart()
     {
         String result = null;
+        FieldReferenceCache.Resolution resolution = getResolution();
 
-        if ( getField() != null )
+        if ( resolution.getField() != null )
         {
-            result = name.substring( 0, parts[fieldIndex] );
+            result = name.substring( 0, parts[resolution.getFieldIndex()] );
         }
 
         return result;
@@ -117,10 +122,11 @@ public class FieldRef
     public String getFieldPart()
     {
         String result = null;
+        FieldReferenceCache.Resolution resolution = getResolution();
 
-        if ( getField() != null )
+        if ( resolution.getField() != null )
         {
-            result = name.substring( parts[fieldIndex] + 1 );
+            result = name.substring( parts[resolution.getFieldIndex()] + 1 );
         }
 
         return result;
@@ -145,36 +151,94 @@ public class FieldRef
 
     public JavaField getField()
     {
-        if ( fieldIndex < 0 )
+        return getResolution().getField();
+    }
+
+    private FieldReferenceCache.Resolution getResolution()
+    {
+        FieldReferenceCache.Resolution result = resolution;
+        if ( result == null )
+        {
+            FieldReferenceCache cache = getFieldReferenceCache();
+            if ( cache != null )
+            {
+                result = cache.get( getDeclaringClass(), name );
+            }
+            if ( result == null )
+            {
+                result = resolve();
+                if ( cache != null )
+                {
+                    cache.put( getDeclaringClass(), name, result );
+                }
+            }
+            resolution = result;
+        }
+        return result;
+    }
+
+    /**
+     * Only references used within a member or parameter are shared, because all lookups of those start at the
+     * declaring class.
+     */
+    private FieldReferenceCache getFieldReferenceCache()
+    {
+        FieldReferenceCache result = null;
+        if ( context instanceof JavaMember || context instanceof JavaParameter )
         {
             JavaClass declaringClass = getDeclaringClass();
-            if ( declaringClass != null )
+            ClassLibrary classLibrary = ( declaringClass != null ? declaringClass.getJavaClassLibrary() : null );
+            if ( classLibrary instanceof AbstractClassLibrary )
             {
-                field = resolveField( declaringClass, 0, parts.length - 1 );
-                fieldIndex = 0;
+                result = ( (AbstractClassLibrary) classLibrary ).getFieldReferenceCache();
             }
+        }
+        return result;
+    }
 
-            if ( field == null )
+    private FieldReferenceCache.Resolution resolve()
+    {
+        JavaField field = null;
+        int fieldIndex = -1;
+
+        JavaClass declaringClass = getDeclaringClass();
+        if ( declaringClass != null )
+        {
+            field = resolveField( declaringClass, 0, parts.length - 1 );
+            fieldIndex = 0;
+        }
+
+        if ( field == null )
+        {
+            ClassLibrary classLibrary = getClassLibrary();
+            if ( classLibrary != null )
             {
-                ClassLibrary classLibrary = getClassLibrary();
-                if ( classLibrary != null )
+                for ( int i = 0; i < parts.length - 1; ++i )
                 {
-                    for ( int i = 0; i < parts.length - 1; ++i )
+                    String className = resolveClassName( getNamePrefix( i ) );
+
+                    if ( className != null && classLibrary.hasClassReference( className ) )
                     {
-                        String className = getNamePrefix( i );
-
-                        if ( classLibrary.hasClassReference( className ) )
-                        {
-                            JavaClass javaClass = classLibrary.getJavaClass( className );
-                            fieldIndex = i + 1;
-                            field = resolveField( javaClass, i + 1, parts.length - 1 );
-                            break;
-                        }
+                        JavaClass javaClass = classLibrary.getJavaClass( className );
+                        fieldIndex = i + 1;
+                        field = resolveField( javaClass, i + 1, parts.length - 1 );
+                        break;
                     }
                 }
             }
         }
-        return field;
+
+        return new FieldReferenceCache.Resolution( field, fieldIndex );
+    }
+
+    /**
+     * Resolve the name like a type used at the place of this reference, so imported classes and classes of the same
+     * package don't have to be fully qualified.
+     */
+    private String resolveClassName( String name )
+    {
+        JavaClass javaClass = ( context instanceof JavaClass ? (JavaClass) context : getDeclaringClass() );
+        return ( javaClass != null ? javaClass.resolveFullyQualifiedName( name ) : name );
     }
 
     private JavaClass getDeclaringClass()
@@ -25,6 +25,8 @@ public abstract class UnaryOperator
 
     private AnnotationValue value;
 
+    private Object foldedValue;
+
     public UnaryOperator( AnnotationValue value )
     {
         this.value = value;
@@ -34,4 +36,23 @@ public abstract class UnaryOperator
     {
         return value;
     }
+
+    /**
+     * @return the folded value, or <code>null</code> if this operator hasn't been folded
+     * @see BinaryOperator#getFoldedValue()
+     * @since 2.0
+     */
+    public Object getFoldedValue()
+    {
+        return foldedValue;
+    }
+
+    /**
+     * @param foldedValue the evaluated value of this operator, only when it only depends on literals
+     * @since 2.0
+     */
+    public void setFoldedValue( Object foldedValue )
+    {
+        this.foldedValue = foldedValue;
+    }
 }
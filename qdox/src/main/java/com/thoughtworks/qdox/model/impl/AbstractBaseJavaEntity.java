@@ -20,19 +20,24 @@ package com.thoughtworks.qdox.model.impl;
  */
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import com.thoughtworks.qdox.model.DocletTag;
 import com.thoughtworks.qdox.model.JavaAnnotation;
 import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaType;
 
 public abstract class AbstractBaseJavaEntity extends AbstractJavaModel implements Serializable {
 
 	private List<JavaAnnotation> annotations = Collections.emptyList();
-	private String comment;
+	private CharSequence comment;
 	private List<DocletTag> tags = Collections.emptyList();
+	private Map<String, List<DocletTag>> tagMap = Collections.emptyMap();
 
     public AbstractBaseJavaEntity()
     {
@@ -62,7 +67,7 @@ public abstract class AbstractBaseJavaEntity extends AbstractJavaModel implement
 
     public String getComment()
     {
-        return comment;
+        return ( comment != null ? comment.toString() : null );
     }
 
     public void setComment( String comment )
@@ -70,6 +75,15 @@ public abstract class AbstractBaseJavaEntity extends AbstractJavaModel implement
         this.comment = comment;
     }
 
+    /**
+     * @param comment the comment, either a String or a text created by a {@link com.thoughtworks.qdox.builder.TextStore}
+     * @since 2.0
+     */
+    public void setComment( CharSequence comment )
+    {
+        this.comment = comment;
+    }
+
     public List<DocletTag> getTags()
     {
         return tags;
@@ -77,27 +91,18 @@ public abstract class AbstractBaseJavaEntity extends AbstractJavaModel implement
 
     public List<DocletTag> getTagsByName( String name )
     {
-        List<DocletTag> specifiedTags = new LinkedList<DocletTag>();
-        for ( DocletTag docletTag : tags )
+        List<DocletTag> specifiedTags = tagMap.get( name );
+        if ( specifiedTags == null )
         {
-            if ( docletTag.getName().equals( name ) )
-            {
-                specifiedTags.add( docletTag );
-            }
+            specifiedTags = Collections.emptyList();
         }
         return specifiedTags;
     }
 
     public DocletTag getTagByName( String name )
     {
-        for ( DocletTag docletTag : tags )
-        {
-            if ( docletTag.getName().equals( name ) )
-            {
-                return docletTag;
-            }
-        }
-        return null;
+        List<DocletTag> specifiedTags = tagMap.get( name );
+        return ( specifiedTags != null ? specifiedTags.get( 0 ) : null );
     }
 
     /**
@@ -113,8 +118,74 @@ public abstract class AbstractBaseJavaEntity extends AbstractJavaModel implement
         return ( tag != null ? tag.getNamedParameter( parameterName ) : null );
     }
 
+    /**
+     * The tags are grouped by name right away, so they can be looked up by name without iterating over all tags.
+     * 
+     * @param tagList the tags of this entity
+     */
     public void setTags( List<DocletTag> tagList )
     {
         this.tags = tagList;
+
+        Map<String, List<DocletTag>> newTagMap = new HashMap<String, List<DocletTag>>();
+        for ( DocletTag docletTag : tagList )
+        {
+            if ( docletTag == null )
+            {
+                continue;
+            }
+            List<DocletTag> specifiedTags = newTagMap.get( docletTag.getName() );
+            if ( specifiedTags == null )
+            {
+                specifiedTags = new LinkedList<DocletTag>();
+                newTagMap.put( docletTag.getName(), specifiedTags );
+            }
+            specifiedTags.add( docletTag );
+        }
+        for ( Map.Entry<String, List<DocletTag>> entry : newTagMap.entrySet() )
+        {
+            entry.setValue( Collections.unmodifiableList( entry.getValue() ) );
+        }
+        this.tagMap = newTagMap;
+    }
+
+    /**
+     * Finalize all lazily computed data of this entity and make its collections unmodifiable, so it can be read by
+     * multiple threads without synchronization. The entity must not be changed afterwards.
+     * 
+     * @see com.thoughtworks.qdox.library.ClassLibrary#freeze()
+     * @since 2.0
+     */
+    public void freeze()
+    {
+        annotations = Collections.unmodifiableList( new ArrayList<JavaAnnotation>( annotations ) );
+        for ( JavaAnnotation annotation : annotations )
+        {
+            if ( annotation instanceof DefaultJavaAnnotation )
+            {
+                ( (DefaultJavaAnnotation) annotation ).freeze();
+            }
+        }
+        tags = Collections.unmodifiableList( new ArrayList<DocletTag>( tags ) );
+        for ( DocletTag tag : tags )
+        {
+            if ( tag instanceof DefaultDocletTag )
+            {
+                ( (DefaultDocletTag) tag ).freeze();
+            }
+        }
+    }
+
+    /**
+     * Resolve the lazily resolved names of the type, including its type arguments.
+     * 
+     * @param type the type, might be <code>null</code>
+     */
+    protected static void freeze( JavaType type )
+    {
+        if ( type != null )
+        {
+            type.getGenericFullyQualifiedName();
+        }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.thoughtworks.qdox.model.impl;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -23,7 +24,7 @@ public abstract class AbstractBaseMethod
     private List<JavaParameter> parameters = Collections.emptyList();
     private List<JavaClass> exceptions = Collections.emptyList();
     private boolean varArgs;
-    private String sourceCode;
+    private CharSequence sourceCode;
 
     public List<JavaParameter> getParameters()
     {
@@ -71,6 +72,24 @@ public abstract class AbstractBaseMethod
         this.exceptions = exceptions;
     }
 
+    @Override
+    public void freeze()
+    {
+        super.freeze();
+        parameters = Collections.unmodifiableList( new ArrayList<JavaParameter>( parameters ) );
+        for ( JavaParameter parameter : parameters )
+        {
+            if ( parameter instanceof AbstractBaseJavaEntity )
+            {
+                ( (AbstractBaseJavaEntity) parameter ).freeze();
+            }
+        }
+        for ( JavaClass exception : exceptions )
+        {
+            freeze( exception );
+        }
+    }
+
     protected boolean signatureMatches( List<JavaType> parameterTypes, boolean varArgs )
     {
         List<JavaType> parameterTypeList;
@@ -140,10 +159,19 @@ public abstract class AbstractBaseMethod
     /** {@inheritDoc} */
     public String getSourceCode()
     {
-    	return sourceCode;
+    	return ( sourceCode != null ? sourceCode.toString() : null );
     }
 
     public void setSourceCode( String sourceCode )
+    {
+        this.sourceCode = sourceCode;
+    }
+
+    /**
+     * @param sourceCode the body, either a String or a text created by a {@link com.thoughtworks.qdox.builder.TextStore}
+     * @since 2.0
+     */
+    public void setSourceCode( CharSequence sourceCode )
     {
     	this.sourceCode = sourceCode;
     }
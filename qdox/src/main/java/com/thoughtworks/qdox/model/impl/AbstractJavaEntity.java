@@ -19,6 +19,7 @@ package com.thoughtworks.qdox.model.impl;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -44,6 +45,13 @@ public abstract class AbstractJavaEntity extends AbstractBaseJavaEntity implemen
         this.modifiers = modifiers;
     }
 
+    @Override
+    public void freeze()
+    {
+        super.freeze();
+        modifiers = Collections.unmodifiableList( new ArrayList<String>( modifiers ) );
+    }
+
     /**
      * Equivalent of {@link java.lang.reflect.Modifier#isAbstract(int)}
      * 
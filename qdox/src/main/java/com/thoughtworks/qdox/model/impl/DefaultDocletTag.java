@@ -19,6 +19,7 @@ package com.thoughtworks.qdox.model.impl;
  * under the License.
  */
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -32,7 +33,7 @@ public class DefaultDocletTag
 
     private final String name;
 
-    private final String value;
+    private final CharSequence value;
 
     private final int lineNumber;
 
@@ -42,7 +43,14 @@ public class DefaultDocletTag
 
     private JavaAnnotatedElement context;
 
-    public DefaultDocletTag( String name, String value, JavaAnnotatedElement context, int lineNumber )
+    /**
+     * @param name the name of the tag
+     * @param value the value, either a String or a text created by a {@link com.thoughtworks.qdox.builder.TextStore}
+     * @param context the element this tag belongs to
+     * @param lineNumber the line number
+     * @since 2.0
+     */
+    public DefaultDocletTag( String name, CharSequence value, JavaAnnotatedElement context, int lineNumber )
     {
         this.name = name;
         this.value = value;
@@ -50,6 +58,11 @@ public class DefaultDocletTag
         this.lineNumber = lineNumber;
     }
 
+    public DefaultDocletTag( String name, String value, JavaAnnotatedElement context, int lineNumber )
+    {
+        this( name, (CharSequence) value, context, lineNumber );
+    }
+
     public DefaultDocletTag( String name, String value )
     {
         this( name, value, null, 0 );
@@ -64,7 +77,7 @@ public class DefaultDocletTag
     /** {@inheritDoc} */
     public String getValue()
     {
-        return value;
+        return ( value != null ? value.toString() : null );
     }
 
     /** {@inheritDoc} */
@@ -72,7 +85,7 @@ public class DefaultDocletTag
     {
         if ( parameters == null )
         {
-            parameters = TagParser.parseParameters( value );
+            parameters = TagParser.parseParameters( getValue() );
         }
         return parameters;
     }
@@ -82,7 +95,7 @@ public class DefaultDocletTag
     {
         if ( namedParameters == null )
         {
-            namedParameters = TagParser.parseNamedParameters( value );
+            namedParameters = TagParser.parseNamedParameters( getValue() );
         }
         return namedParameters;
     }
@@ -104,4 +117,15 @@ public class DefaultDocletTag
     {
         return lineNumber;
     }
-}
\ No newline at end of file
+
+    /**
+     * Parse the parameters now, so this tag can be read by multiple threads without synchronization.
+     * 
+     * @since 2.0
+     */
+    public void freeze()
+    {
+        parameters = Collections.unmodifiableList( getParameters() );
+        namedParameters = Collections.unmodifiableMap( getNamedParameterMap() );
+    }
+}
@@ -1,5 +1,6 @@
 package com.thoughtworks.qdox.model.impl;
 
+import com.thoughtworks.qdox.builder.TextStore;
 import com.thoughtworks.qdox.model.DocletTag;
 import com.thoughtworks.qdox.model.DocletTagFactory;
 import com.thoughtworks.qdox.model.JavaAnnotatedElement;
@@ -29,11 +30,26 @@ import com.thoughtworks.qdox.model.JavaAnnotatedElement;
  */
 public class DefaultDocletTagFactory implements DocletTagFactory {
 
+    private final TextStore textStore;
+
+    public DefaultDocletTagFactory() {
+        this(null);
+    }
+
+    /**
+     * @param textStore the store for the values of the tags, <code>null</code> to keep them as they are
+     * @since 2.0
+     */
+    public DefaultDocletTagFactory(TextStore textStore) {
+        this.textStore = textStore;
+    }
+
     public DocletTag createDocletTag(
         String tag, String text, 
         JavaAnnotatedElement context, int lineNumber
     ) {
-        return new DefaultDocletTag(tag, text, context, lineNumber);
+        CharSequence value = ( textStore != null ? textStore.store( text ) : text );
+        return new DefaultDocletTag(tag, value, context, lineNumber);
     }
 
     public DocletTag createDocletTag(String tag, String text) {
@@ -20,6 +20,7 @@ package com.thoughtworks.qdox.model.impl;
  */
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -29,6 +30,7 @@ import com.thoughtworks.qdox.model.JavaAnnotatedElement;
 import com.thoughtworks.qdox.model.JavaAnnotation;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.expression.AnnotationValue;
+import com.thoughtworks.qdox.model.expression.AnnotationValueList;
 import com.thoughtworks.qdox.model.expression.ExpressionVisitor;
 
 /**
@@ -46,13 +48,17 @@ public class DefaultJavaAnnotation
      * <p>
      * This map contains the parsed AnnotationValue for each property and allows access to the full parse tree,
      * including typerefs and expressions.
+     * Until a property is set this map might be shared with other annotations, so it is copied first.
      */
-    private final Map<String, AnnotationValue> properties = new LinkedHashMap<String, AnnotationValue>();
+    private Map<String, AnnotationValue> properties = Collections.emptyMap();
+
+    private boolean ownsProperties;
 
     /**
-     * Annotation properties as Parameters
+     * Annotation properties as Parameters, only collected when requested. The properties themselves are created by the
+     * parser, so they are always available.
      */
-    private final Map<String, Object> namedParameters = new LinkedHashMap<String, Object>();
+    private Map<String, Object> namedParameters;
 
     private JavaAnnotatedElement context;
 
@@ -80,10 +86,80 @@ public class DefaultJavaAnnotation
         this( type, null, null, line );
     }
 
+    /**
+     * Marker annotations and annotations with only literal values are equal wherever they are used, apart from their
+     * context and line number. Such annotations can share the same type and properties, which saves a lot of memory
+     * for code full of <code>&#64;Override</code> or <code>&#64;SuppressWarnings("unchecked")</code>.
+     * 
+     * @param type the annotation type
+     * @param sharedProperties the unmodifiable properties, which won't be changed by this annotation
+     * @param line the line number
+     * @since 2.0
+     */
+    public DefaultJavaAnnotation( JavaClass type, Map<String, AnnotationValue> sharedProperties, int line )
+    {
+        this( type, line );
+        this.properties = sharedProperties;
+    }
+
     public final void setProperty( String name, AnnotationValue value )
     {
+        if ( !ownsProperties )
+        {
+            properties = new LinkedHashMap<String, AnnotationValue>( properties );
+            ownsProperties = true;
+        }
         properties.put( name, value );
-        namedParameters.put( name, value.getParameterValue() );
+        namedParameters = null;
+    }
+
+    private Map<String, Object> getNamedParameters()
+    {
+        if ( namedParameters == null && properties.isEmpty() )
+        {
+            namedParameters = Collections.emptyMap();
+        }
+        else if ( namedParameters == null )
+        {
+            Map<String, Object> result = new LinkedHashMap<String, Object>();
+            for ( Entry<String, AnnotationValue> entry : properties.entrySet() )
+            {
+                result.put( entry.getKey(), entry.getValue().getParameterValue() );
+            }
+            namedParameters = Collections.unmodifiableMap( result );
+        }
+        return namedParameters;
+    }
+
+    /**
+     * Collect the named parameters of this annotation and its nested annotations, so it can be read by multiple
+     * threads without synchronization.
+     * 
+     * @see com.thoughtworks.qdox.library.ClassLibrary#freeze()
+     * @since 2.0
+     */
+    public void freeze()
+    {
+        getNamedParameters();
+        for ( AnnotationValue value : properties.values() )
+        {
+            freeze( value );
+        }
+    }
+
+    private static void freeze( AnnotationValue value )
+    {
+        if ( value instanceof DefaultJavaAnnotation )
+        {
+            ( (DefaultJavaAnnotation) value ).freeze();
+        }
+        else if ( value instanceof AnnotationValueList )
+        {
+            for ( AnnotationValue listValue : ( (AnnotationValueList) value ).getValueList() )
+            {
+                freeze( listValue );
+            }
+        }
     }
 
     /** {@inheritDoc} */
@@ -95,13 +171,13 @@ public class DefaultJavaAnnotation
     /** {@inheritDoc} */
     public Object getNamedParameter( String key )
     {
-        return namedParameters.get( key );
+        return getNamedParameters().get( key );
     }
 
     /** {@inheritDoc} */
     public Map<String, Object> getNamedParameterMap()
     {
-        return namedParameters;
+        return getNamedParameters();
     }
 
     /** {@inheritDoc} */
@@ -130,7 +206,8 @@ public class DefaultJavaAnnotation
     /** {@inheritDoc} */
     public Map<String, AnnotationValue> getPropertyMap()
     {
-        return properties;
+        // shared properties are unmodifiable already
+        return ( ownsProperties ? Collections.unmodifiableMap( properties ) : properties );
     }
 
     /** {@inheritDoc} */
@@ -150,9 +227,9 @@ public class DefaultJavaAnnotation
         result.append( '@' );
         result.append( type.getFullyQualifiedName() );
         result.append( '(' );
-        if ( !namedParameters.isEmpty() )
+        if ( !properties.isEmpty() )
         {
-            for ( Iterator<Entry<String, Object>> i = namedParameters.entrySet().iterator(); i.hasNext(); )
+            for ( Iterator<Entry<String, Object>> i = getNamedParameters().entrySet().iterator(); i.hasNext(); )
             {
                 result.append( i.next() );
                 if ( i.hasNext() )
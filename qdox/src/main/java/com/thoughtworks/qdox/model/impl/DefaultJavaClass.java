@@ -19,7 +19,11 @@ package com.thoughtworks.qdox.model.impl;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -74,6 +78,27 @@ public class DefaultJavaClass
     // sourceless class can use this property
     private JavaPackage javaPackage;
 
+    // derived data, computed on demand and dropped when this class or its library changes
+    private transient int derivedDataModificationCount;
+
+    private transient Set<String> supertypeNames;
+
+    private transient Map<String, List<JavaMethod>> methodIndex;
+
+    private transient Map<String, List<JavaConstructor>> constructorIndex;
+
+    private transient Map<String, JavaField> fieldIndex;
+
+    private transient Map<String, JavaClass> nestedClassIndex;
+
+    private transient Map<String, BeanProperty> beanPropertyMap;
+
+    private transient Map<String, BeanProperty> superBeanPropertyMap;
+
+    private transient Map<String, DefaultJavaType.TypeArguments> typeArguments;
+
+    private transient boolean frozen;
+
     protected DefaultJavaClass()
     {
     }
@@ -143,18 +168,15 @@ public class DefaultJavaClass
     public JavaType getSuperClass()
     {
         JavaType result = null;
-        JavaClass OBJECT_JAVACLASS = getJavaClassLibrary().getJavaClass( "java.lang.Object" );
-        JavaClass ENUM_JAVACLASS = getJavaClassLibrary().getJavaClass( "java.lang.Enum" );
-
-        boolean iAmJavaLangObject = OBJECT_JAVACLASS.equals( this );
 
         if ( anEnum )
         {
-            result = ENUM_JAVACLASS;
+            result = getJavaClassLibrary().getJavaClass( "java.lang.Enum" );
         }
-        else if ( !anInterface && !anAnnotation && ( superClass == null ) && !iAmJavaLangObject )
+        else if ( !anInterface && !anAnnotation && ( superClass == null )
+            && !"java.lang.Object".equals( getFullyQualifiedName() ) )
         {
-            result = OBJECT_JAVACLASS;
+            result = getJavaClassLibrary().getJavaClass( "java.lang.Object" );
         }
         else 
         {
@@ -204,26 +226,31 @@ public class DefaultJavaClass
     public void setInterface( boolean anInterface )
     {
         this.anInterface = anInterface;
+        clearDerivedData();
     }
 
     public void setEnum( boolean anEnum )
     {
         this.anEnum = anEnum;
+        clearDerivedData();
     }
 
     public void setAnnotation( boolean anAnnotation )
     {
         this.anAnnotation = anAnnotation;
+        clearDerivedData();
     }
 
     public void addConstructor( JavaConstructor constructor )
     {
         constructors.add( constructor );
+        clearDerivedData();
     }
 
     public void addMethod( JavaMethod meth )
     {
         methods.add( meth );
+        clearDerivedData();
     }
 
     public void setSuperClass( JavaType type )
@@ -233,11 +260,13 @@ public class DefaultJavaClass
             throw new IllegalArgumentException( "enums cannot extend other classes" );
         }
         superClass = type;
+        clearDerivedData();
     }
 
     public void setImplementz( List<JavaClass> implementz )
     {
         this.implementz = implementz;
+        clearDerivedData();
     }
 
     /** {@inheritDoc} */
@@ -254,6 +283,7 @@ public class DefaultJavaClass
     public void addField( JavaField javaField )
     {
         fields.add( javaField );
+        clearDerivedData();
     }
 
     /**
@@ -366,12 +396,10 @@ public class DefaultJavaClass
     public String resolveCanonicalName( String name )
     {
         // Maybe it's an inner class?
-        for ( JavaClass innerClass : getNestedClasses() )
+        JavaClass innerClass = getNestedClassIndex().get( name );
+        if ( innerClass != null )
         {
-            if ( innerClass.getName().equals( name ) )
-            {
-                return innerClass.getName();
-            }
+            return innerClass.getName();
         }
         return getParent().resolveCanonicalName( name );
     }
@@ -380,12 +408,10 @@ public class DefaultJavaClass
     public String resolveFullyQualifiedName( String name )
     {
         // Maybe it's an inner class?
-        for ( JavaClass innerClass : getNestedClasses() )
+        JavaClass innerClass = getNestedClassIndex().get( name );
+        if ( innerClass != null )
         {
-            if ( innerClass.getName().equals( name ) )
-            {
-                return innerClass.getFullyQualifiedName();
-            }
+            return innerClass.getFullyQualifiedName();
         }
         return getParent().resolveFullyQualifiedName( name );
     }
@@ -423,16 +449,43 @@ public class DefaultJavaClass
     /** {@inheritDoc} */
     public JavaConstructor getConstructor( List<JavaType> parameterTypes, boolean varArgs )
     {
-        for ( JavaConstructor constructor : getConstructors() )
+        List<JavaConstructor> candidates =
+            getConstructorIndex().get( getSignatureKey( "", size( parameterTypes ), varArgs ) );
+        if ( candidates != null )
         {
-            if ( constructor.signatureMatches( parameterTypes, varArgs ) )
+            for ( JavaConstructor constructor : candidates )
             {
-                return constructor;
+                if ( constructor.signatureMatches( parameterTypes, varArgs ) )
+                {
+                    return constructor;
+                }
             }
         }
         return null;
     }
 
+    private Map<String, List<JavaConstructor>> getConstructorIndex()
+    {
+        validateDerivedData();
+        if ( constructorIndex == null )
+        {
+            Map<String, List<JavaConstructor>> result = new HashMap<String, List<JavaConstructor>>();
+            for ( JavaConstructor constructor : getConstructors() )
+            {
+                String key = getSignatureKey( "", constructor.getParameters().size(), constructor.isVarArgs() );
+                List<JavaConstructor> candidates = result.get( key );
+                if ( candidates == null )
+                {
+                    candidates = new LinkedList<JavaConstructor>();
+                    result.put( key, candidates );
+                }
+                candidates.add( constructor );
+            }
+            constructorIndex = result;
+        }
+        return constructorIndex;
+    }
+
     /** {@inheritDoc} */
     public List<JavaMethod> getMethods()
     {
@@ -452,31 +505,30 @@ public class DefaultJavaClass
         }
     }
 
-    private static Map<String, JavaMethod> getMethodsFromSuperclassAndInterfaces( JavaClass rootClass,
-                                                                                  JavaClass callingClazz )
+    private static Map<MethodSignature, JavaMethod> getMethodsFromSuperclassAndInterfaces( JavaClass rootClass,
+                                                                                           JavaClass callingClazz )
     {
 
-        Map<String, JavaMethod> result = new LinkedHashMap<String, JavaMethod>();
+        Map<MethodSignature, JavaMethod> result = new LinkedHashMap<MethodSignature, JavaMethod>();
 
         for ( JavaMethod method : callingClazz.getMethods() )
         {
             if ( !method.isPrivate() )
             {
-                String signature = method.getDeclarationSignature( false );
-                result.put( signature, new JavaMethodDelegate( rootClass, method ) );
+                result.put( MethodSignature.of( method ), new JavaMethodDelegate( rootClass, method ) );
             }
         }
 
         JavaClass superclass = callingClazz.getSuperJavaClass();
         if ( superclass != null )
         {
-            Map<String, JavaMethod> superClassMethods =
+            Map<MethodSignature, JavaMethod> superClassMethods =
                 getMethodsFromSuperclassAndInterfaces( callingClazz, superclass );
-            for ( Map.Entry<String, JavaMethod> methodEntry : superClassMethods.entrySet() )
+            for ( Map.Entry<MethodSignature, JavaMethod> methodEntry : superClassMethods.entrySet() )
             {
                 if ( !result.containsKey( methodEntry.getKey() ) )
                 {
-                    result.put( methodEntry.getKey(), new JavaMethodDelegate( superclass, methodEntry.getValue() ) );
+                    result.put( methodEntry.getKey(), new JavaMethodDelegate( rootClass, methodEntry.getValue() ) );
                 }
             }
 
@@ -484,12 +536,13 @@ public class DefaultJavaClass
 
         for ( JavaClass clazz : callingClazz.getImplementedInterfaces() )
         {
-            Map<String, JavaMethod> interfaceMethods = getMethodsFromSuperclassAndInterfaces( callingClazz, clazz );
-            for ( Map.Entry<String, JavaMethod> methodEntry : interfaceMethods.entrySet() )
+            Map<MethodSignature, JavaMethod> interfaceMethods =
+                getMethodsFromSuperclassAndInterfaces( callingClazz, clazz );
+            for ( Map.Entry<MethodSignature, JavaMethod> methodEntry : interfaceMethods.entrySet() )
             {
                 if ( !result.containsKey( methodEntry.getKey() ) )
                 {
-                    result.put( methodEntry.getKey(), new JavaMethodDelegate( clazz, methodEntry.getValue() ) );
+                    result.put( methodEntry.getKey(), new JavaMethodDelegate( rootClass, methodEntry.getValue() ) );
                 }
             }
 
@@ -506,16 +559,58 @@ public class DefaultJavaClass
     /** {@inheritDoc} */
     public JavaMethod getMethod( String name, List<JavaType> parameterTypes, boolean varArgs )
     {
-        for ( JavaMethod method : getMethods() )
+        List<JavaMethod> candidates = getMethodIndex().get( getSignatureKey( name, size( parameterTypes ), varArgs ) );
+        if ( candidates != null )
         {
-            if ( method.signatureMatches( name, parameterTypes, varArgs ) )
+            for ( JavaMethod method : candidates )
             {
-                return method;
+                if ( method.signatureMatches( name, parameterTypes, varArgs ) )
+                {
+                    return method;
+                }
             }
         }
         return null;
     }
 
+    /**
+     * The methods of this class grouped by name, number of parameters and varArgs, so a lookup only has to compare
+     * the parameter types of plausible candidates. The order of declaration is preserved within every group.
+     * 
+     * @return the method index
+     */
+    private Map<String, List<JavaMethod>> getMethodIndex()
+    {
+        validateDerivedData();
+        if ( methodIndex == null )
+        {
+            Map<String, List<JavaMethod>> result = new HashMap<String, List<JavaMethod>>();
+            for ( JavaMethod method : getMethods() )
+            {
+                String key = getSignatureKey( method.getName(), method.getParameters().size(), method.isVarArgs() );
+                List<JavaMethod> candidates = result.get( key );
+                if ( candidates == null )
+                {
+                    candidates = new LinkedList<JavaMethod>();
+                    result.put( key, candidates );
+                }
+                candidates.add( method );
+            }
+            methodIndex = result;
+        }
+        return methodIndex;
+    }
+
+    private static String getSignatureKey( String name, int parameterCount, boolean varArgs )
+    {
+        return name + '#' + parameterCount + ( varArgs ? "..." : "" );
+    }
+
+    private static int size( List<JavaType> parameterTypes )
+    {
+        return parameterTypes == null ? 0 : parameterTypes.size();
+    }
+
     /** {@inheritDoc} */
     public JavaMethod getMethodBySignature( String name, List<JavaType> parameterTypes, boolean superclasses )
     {
@@ -588,14 +683,26 @@ public class DefaultJavaClass
     /** {@inheritDoc} */
     public JavaField getFieldByName( String name )
     {
-        for ( JavaField field : getFields() )
+        return getFieldIndex().get( name );
+    }
+
+    private Map<String, JavaField> getFieldIndex()
+    {
+        validateDerivedData();
+        if ( fieldIndex == null )
         {
-            if ( field.getName().equals( name ) )
+            Map<String, JavaField> result = new HashMap<String, JavaField>();
+            for ( JavaField field : getFields() )
             {
-                return field;
+                // keep the first one, like a sequential search would
+                if ( !result.containsKey( field.getName() ) )
+                {
+                    result.put( field.getName(), field );
+                }
             }
+            fieldIndex = result;
         }
-        return null;
+        return fieldIndex;
     }
 
     /** {@inheritDoc} */
@@ -619,7 +726,7 @@ public class DefaultJavaClass
     public JavaField getEnumConstantByName( String name )
     {
         JavaField field = getFieldByName( name );
-        return field.isEnumConstant() ? field : null;
+        return ( field != null && field.isEnumConstant() ) ? field : null;
     }
     
     public void addInitializer( JavaInitializer initializer )
@@ -630,6 +737,7 @@ public class DefaultJavaClass
     public void addClass( JavaClass cls )
     {
         classes.add( cls );
+        clearDerivedData();
     }
 
     /**
@@ -662,79 +770,202 @@ public class DefaultJavaClass
     public JavaClass getNestedClassByName( String name )
     {
         int separatorIndex = name.indexOf( '.' );
-        String directInnerClassName = ( separatorIndex > 0 ? name.substring( 0, separatorIndex ) : name );
-        for ( JavaClass jClass : getNestedClasses() )
+        if ( separatorIndex < 0 )
         {
-            if ( jClass.getName().equals( directInnerClassName ) )
+            return getNestedClassIndex().get( name );
+        }
+        // walk down segment by segment, so only the segments are extracted from the name
+        JavaClass result = getNestedClassIndex().get( name.substring( 0, separatorIndex ) );
+        while ( result != null && separatorIndex >= 0 )
+        {
+            int startIndex = separatorIndex + 1;
+            separatorIndex = name.indexOf( '.', startIndex );
+            String nestedName = ( separatorIndex < 0 ? name.substring( startIndex ) : name.substring( startIndex, separatorIndex ) );
+            result = result.getNestedClassByName( nestedName );
+        }
+        return result;
+    }
+
+    private Map<String, JavaClass> getNestedClassIndex()
+    {
+        validateDerivedData();
+        if ( nestedClassIndex == null )
+        {
+            Map<String, JavaClass> result = new HashMap<String, JavaClass>();
+            for ( JavaClass jClass : getNestedClasses() )
             {
-                if ( separatorIndex > 0 )
+                // keep the first one, like a sequential search would
+                if ( !result.containsKey( jClass.getName() ) )
                 {
-                    return jClass.getNestedClassByName( name.substring( separatorIndex + 1 ) );
-                }
-                else
-                {
-                    return jClass;
+                    result.put( jClass.getName(), jClass );
                 }
             }
+            nestedClassIndex = result;
         }
-        return null;
+        return nestedClassIndex;
     }
 
     /** {@inheritDoc} */
     public boolean isA( String fullClassName )
     {
-        if ( fullClassName == null )
+        return fullClassName != null && getSupertypeNames().contains( fullClassName );
+    }
+
+    /** {@inheritDoc} */
+    public boolean isA( JavaClass javaClass )
+    {
+        return this == javaClass || ( javaClass != null && isA( javaClass.getFullyQualifiedName() ) );
+    }
+
+    /**
+     * The fully qualified names of this class and all its superclasses and interfaces. These are collected only once,
+     * every supertype is visited just one time, even in case of diamonds.
+     * 
+     * @return the names of all supertypes, including this class
+     */
+    private Set<String> getSupertypeNames()
+    {
+        validateDerivedData();
+        if ( supertypeNames == null )
         {
-            return false;
+            Set<String> result = new HashSet<String>();
+            result.add( getFullyQualifiedName() );
+            LinkedList<JavaClass> queue = new LinkedList<JavaClass>();
+            queue.add( this );
+            while ( !queue.isEmpty() )
+            {
+                JavaClass current = queue.removeFirst();
+                for ( JavaClass implementz : current.getImplementedInterfaces() )
+                {
+                    if ( result.add( implementz.getFullyQualifiedName() ) )
+                    {
+                        queue.add( implementz );
+                    }
+                }
+                JavaClass superClass = current.getSuperJavaClass();
+                if ( superClass != null && result.add( superClass.getFullyQualifiedName() ) )
+                {
+                    queue.add( superClass );
+                }
+            }
+            supertypeNames = result;
         }
-        if ( fullClassName.equals( getFullyQualifiedName() ) )
+        return supertypeNames;
+    }
+
+    /**
+     * Drop all derived data if the library has been modified since it was computed.
+     */
+    private void validateDerivedData()
+    {
+        if ( frozen )
         {
-            return true;
+            return;
         }
-        for ( JavaClass implementz : getImplementedInterfaces() )
+        ClassLibrary classLibrary = getJavaClassLibrary();
+        int modificationCount = ( classLibrary != null ? classLibrary.getModificationCount() : 0 );
+        if ( derivedDataModificationCount != modificationCount )
         {
-            if ( implementz.isA( fullClassName ) )
-            {
-                return true;
-            }
+            clearDerivedData();
+            derivedDataModificationCount = modificationCount;
+        }
+    }
+
+    /**
+     * Drop all data which is derived from the structure of this class, so it will be recomputed on demand.
+     */
+    protected void clearDerivedData()
+    {
+        supertypeNames = null;
+        methodIndex = null;
+        constructorIndex = null;
+        fieldIndex = null;
+        nestedClassIndex = null;
+        beanPropertyMap = null;
+        superBeanPropertyMap = null;
+        typeArguments = null;
+    }
+
+    /**
+     * The type arguments of the type parameters of {@code declaringClass} as seen from this class.
+     * 
+     * @param declaringClass a supertype of this class
+     * @return the type arguments, never <code>null</code>
+     */
+    DefaultJavaType.TypeArguments getTypeArguments( JavaClass declaringClass )
+    {
+        validateDerivedData();
+        if ( typeArguments == null )
+        {
+            typeArguments = new HashMap<String, DefaultJavaType.TypeArguments>();
         }
-        JavaClass superClass = getSuperJavaClass();
-        if ( superClass != null )
+        DefaultJavaType.TypeArguments result = typeArguments.get( declaringClass.getFullyQualifiedName() );
+        if ( result == null )
         {
-            return superClass.isA( fullClassName );
+            result = DefaultJavaType.createTypeArguments( declaringClass, this );
+            // a frozen class is shared by multiple threads, so don't touch the cache anymore
+            if ( !frozen )
+            {
+                typeArguments.put( declaringClass.getFullyQualifiedName(), result );
+            }
         }
-        return false;
+        return result;
     }
 
-    /** {@inheritDoc} */
-    public boolean isA( JavaClass javaClass )
+    /**
+     * {@inheritDoc}
+     * Besides the members and nested classes, all derived data like the indexes, supertypes and declared bean
+     * properties are computed.
+     */
+    @Override
+    public void freeze()
     {
-        if ( this == javaClass )
+        if ( frozen )
         {
-            return true;
+            return;
         }
-        else if ( this.equals( javaClass ) )
+        super.freeze();
+        constructors = Collections.unmodifiableList( new ArrayList<JavaConstructor>( constructors ) );
+        methods = Collections.unmodifiableList( new ArrayList<JavaMethod>( methods ) );
+        fields = Collections.unmodifiableList( new ArrayList<JavaField>( fields ) );
+        classes = Collections.unmodifiableList( new ArrayList<JavaClass>( classes ) );
+        implementz = Collections.unmodifiableList( new ArrayList<JavaClass>( implementz ) );
+        initializers = Collections.unmodifiableList( new ArrayList<JavaInitializer>( initializers ) );
+
+        freeze( superClass );
+        for ( JavaClass implement : implementz )
         {
-            return true;
+            freeze( implement );
         }
-        else if ( javaClass != null )
+        for ( DefaultJavaTypeVariable<JavaClass> typeParameter : typeParameters )
         {
-            // ask our interfaces
-            for ( JavaClass intrfc : getImplementedInterfaces() )
-            {
-                if ( intrfc.isA( javaClass ) )
-                {
-                    return true;
-                }
-            }
-            // ask our superclass
-            JavaClass superClass = getSuperJavaClass();
-            if ( superClass != null )
+            freeze( typeParameter );
+        }
+        List<Object> members = new ArrayList<Object>();
+        members.addAll( constructors );
+        members.addAll( methods );
+        members.addAll( fields );
+        members.addAll( classes );
+        for ( Object member : members )
+        {
+            if ( member instanceof AbstractBaseJavaEntity )
             {
-                return superClass.isA( javaClass );
+                ( (AbstractBaseJavaEntity) member ).freeze();
             }
         }
-        return false;
+
+        validateDerivedData();
+        getSupertypeNames();
+        getConstructorIndex();
+        getMethodIndex();
+        getFieldIndex();
+        getNestedClassIndex();
+        getBeanPropertyMap( false );
+        if ( typeArguments == null )
+        {
+            typeArguments = new HashMap<String, DefaultJavaType.TypeArguments>();
+        }
+        frozen = true;
     }
 
     /** {@inheritDoc} */
@@ -753,9 +984,36 @@ public class DefaultJavaClass
     }
 
     private Map<String, BeanProperty> getBeanPropertyMap( boolean superclasses )
+    {
+        validateDerivedData();
+        if ( superclasses )
+        {
+            // computing these eagerly while freezing would resolve the types of all inherited methods, so it's
+            // done on demand, without caching it in a frozen class
+            if ( superBeanPropertyMap == null && frozen )
+            {
+                return createBeanPropertyMap( true );
+            }
+            if ( superBeanPropertyMap == null )
+            {
+                superBeanPropertyMap = createBeanPropertyMap( true );
+            }
+            return superBeanPropertyMap;
+        }
+        else
+        {
+            if ( beanPropertyMap == null )
+            {
+                beanPropertyMap = createBeanPropertyMap( false );
+            }
+            return beanPropertyMap;
+        }
+    }
+
+    private Map<String, BeanProperty> createBeanPropertyMap( boolean superclasses )
     {
         List<JavaMethod> superMethods = getMethods( superclasses );
-        Map<String, DefaultBeanProperty> beanPropertyMap = new LinkedHashMap<String, DefaultBeanProperty>();
+        Map<String, DefaultBeanProperty> result = new LinkedHashMap<String, DefaultBeanProperty>();
 
         // loop over the methods.
         for ( JavaMethod superMethod : superMethods )
@@ -763,7 +1021,7 @@ public class DefaultJavaClass
             if ( superMethod.isPropertyAccessor() )
             {
                 String propertyName = superMethod.getPropertyName();
-                DefaultBeanProperty beanProperty = getOrCreateProperty( beanPropertyMap, propertyName );
+                DefaultBeanProperty beanProperty = getOrCreateProperty( result, propertyName );
 
                 beanProperty.setAccessor( superMethod );
                 beanProperty.setType( superMethod.getPropertyType() );
@@ -771,13 +1029,13 @@ public class DefaultJavaClass
             else if ( superMethod.isPropertyMutator() )
             {
                 String propertyName = superMethod.getPropertyName();
-                DefaultBeanProperty beanProperty = getOrCreateProperty( beanPropertyMap, propertyName );
+                DefaultBeanProperty beanProperty = getOrCreateProperty( result, propertyName );
 
                 beanProperty.setMutator( superMethod );
                 beanProperty.setType( superMethod.getPropertyType() );
             }
         }
-        return new LinkedHashMap<String, BeanProperty>( beanPropertyMap );
+        return new LinkedHashMap<String, BeanProperty>( result );
     }
 
     private DefaultBeanProperty getOrCreateProperty( Map<String, DefaultBeanProperty> beanPropertyMap,
@@ -808,13 +1066,28 @@ public class DefaultJavaClass
 
     /** {@inheritDoc} */
     public List<JavaClass> getDerivedClasses()
+    {
+        return new LinkedList<JavaClass>( getJavaClassLibrary().getDerivedClasses( getFullyQualifiedName() ) );
+    }
+
+    /** {@inheritDoc} */
+    public List<JavaClass> getDirectSubclasses()
+    {
+        return new LinkedList<JavaClass>( getJavaClassLibrary().getDirectSubclasses( getFullyQualifiedName() ) );
+    }
+
+    /** {@inheritDoc} */
+    public List<JavaClass> getImplementors()
     {
         List<JavaClass> result = new LinkedList<JavaClass>();
-        for ( JavaClass clazz : getSource().getJavaClassLibrary().getJavaClasses() )
+        if ( isInterface() )
         {
-            if ( clazz.isA( this ) && !( clazz == this ) )
+            for ( JavaClass derivedClass : getJavaClassLibrary().getDerivedClasses( getFullyQualifiedName() ) )
             {
-                result.add( clazz );
+                if ( !derivedClass.isInterface() )
+                {
+                    result.add( derivedClass );
+                }
             }
         }
         return result;
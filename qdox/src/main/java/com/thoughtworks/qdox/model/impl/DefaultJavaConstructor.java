@@ -26,6 +26,16 @@ public class DefaultJavaConstructor
         this.typeParameters = typeParameters;
     }
 
+    @Override
+    public void freeze()
+    {
+        super.freeze();
+        for ( JavaTypeVariable<JavaConstructor> typeParameter : typeParameters )
+        {
+            freeze( typeParameter );
+        }
+    }
+
     /** {@inheritDoc} */
     public List<JavaTypeVariable<JavaConstructor>> getTypeParameters()
     {
@@ -32,7 +32,7 @@ public class DefaultJavaField
 
     private JavaClass type;
 
-    private String initializationExpression;
+    private CharSequence initializationExpression;
 
     private boolean enumConstant;
 
@@ -78,6 +78,13 @@ public class DefaultJavaField
         this.type = type;
     }
 
+    @Override
+    public void freeze()
+    {
+        super.freeze();
+        freeze( type );
+    }
+
     /** {@inheritDoc} */
     public String getDeclarationSignature( boolean withModifiers )
     {
@@ -105,7 +112,7 @@ public class DefaultJavaField
     /** {@inheritDoc} */
     public String getInitializationExpression()
     {
-        return initializationExpression;
+        return ( initializationExpression != null ? initializationExpression.toString() : null );
     }
 
     public void setInitializationExpression( String initializationExpression )
@@ -113,6 +120,16 @@ public class DefaultJavaField
         this.initializationExpression = initializationExpression;
     }
 
+    /**
+     * @param initializationExpression the expression, either a String or a text created by a
+     *            {@link com.thoughtworks.qdox.builder.TextStore}
+     * @since 2.0
+     */
+    public void setInitializationExpression( CharSequence initializationExpression )
+    {
+        this.initializationExpression = initializationExpression;
+    }
+
     /** {@inheritDoc} */
     public boolean isEnumConstant()
     {
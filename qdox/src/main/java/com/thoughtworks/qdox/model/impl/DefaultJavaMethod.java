@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 
+import com.thoughtworks.qdox.library.ClassLibrary;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.JavaParameter;
@@ -35,6 +36,8 @@ public class DefaultJavaMethod extends AbstractBaseMethod implements JavaMethod
 
 	private JavaClass returns = DefaultJavaType.VOID;
     private List<JavaTypeVariable<JavaMethod>> typeParameters = Collections.emptyList();
+    private transient MethodSignature erasedSignature;
+    private transient int erasedSignatureModificationCount;
 	
     /**
      * The default constructor
@@ -72,6 +75,18 @@ public class DefaultJavaMethod extends AbstractBaseMethod implements JavaMethod
         this.typeParameters = typeParameters;
     }
 
+    @Override
+    public void freeze()
+    {
+        super.freeze();
+        freeze( returns );
+        getErasedSignature();
+        for ( JavaTypeVariable<JavaMethod> typeParameter : typeParameters )
+        {
+            freeze( typeParameter );
+        }
+    }
+
     /** {@inheritDoc} */
     public List<JavaTypeVariable<JavaMethod>> getTypeParameters()
     {
@@ -153,6 +168,72 @@ public class DefaultJavaMethod extends AbstractBaseMethod implements JavaMethod
     }
 
 
+    /**
+     * The erased signature is used as key when comparing methods. The parameter types might be resolved differently
+     * once the library has been modified, so it's only reused as long as the library hasn't changed.
+     * 
+     * @return the erased signature, never <code>null</code>
+     */
+    MethodSignature getErasedSignature()
+    {
+        int modificationCount = getModificationCount();
+        if ( erasedSignature == null || erasedSignatureModificationCount != modificationCount )
+        {
+            erasedSignature = MethodSignature.of( getName(), getParameters(), isVarArgs(),
+                                                   MethodSignature.getTypeParameters( this ) );
+            erasedSignatureModificationCount = modificationCount;
+        }
+        return erasedSignature;
+    }
+
+    private ClassLibrary getJavaClassLibrary()
+    {
+        JavaClass declaringClass = getDeclaringClass();
+        return ( declaringClass != null ? declaringClass.getJavaClassLibrary() : null );
+    }
+
+    private int getModificationCount()
+    {
+        ClassLibrary classLibrary = getJavaClassLibrary();
+        return ( classLibrary != null ? classLibrary.getModificationCount() : 0 );
+    }
+
+    /** {@inheritDoc} */
+    public List<JavaMethod> getOverriddenMethods()
+    {
+        ClassLibrary classLibrary = getJavaClassLibrary();
+        if ( classLibrary == null )
+        {
+            return Collections.emptyList();
+        }
+        return classLibrary.getOverriddenMethods( this );
+    }
+
+    /** {@inheritDoc} */
+    public List<JavaMethod> getOverridingMethods()
+    {
+        ClassLibrary classLibrary = getJavaClassLibrary();
+        if ( classLibrary == null )
+        {
+            return Collections.emptyList();
+        }
+        return classLibrary.getOverridingMethods( this );
+    }
+
+    @Override
+    public void setName( String name )
+    {
+        super.setName( name );
+        erasedSignature = null;
+    }
+
+    @Override
+    public void setParameters( List<JavaParameter> javaParameters )
+    {
+        super.setParameters( javaParameters );
+        erasedSignature = null;
+    }
+
     /** {@inheritDoc} */
     public String getDeclarationSignature( boolean withModifiers )
     {
@@ -204,6 +285,12 @@ public class DefaultJavaMethod extends AbstractBaseMethod implements JavaMethod
             return false;
         }
 
+        // equal parameters always have equal erased signatures, so this rejects most other methods at once
+        if ( !getErasedSignature().equals( MethodSignature.of( other ) ) )
+        {
+            return false;
+        }
+
         List<JavaParameter> thisParams = this.getParameters();
         List<JavaParameter> otherParams = other.getParameters();
         if ( otherParams.size() != thisParams.size() )
@@ -233,7 +320,7 @@ public class DefaultJavaMethod extends AbstractBaseMethod implements JavaMethod
         {
             hashCode *= 37 + getName().hashCode();
         }
-        hashCode *= 41 + getParameters().hashCode();
+        hashCode *= 41 + getErasedSignature().hashCode();
         if ( returns != null )
         {
             hashCode *= 43 + returns.hashCode();
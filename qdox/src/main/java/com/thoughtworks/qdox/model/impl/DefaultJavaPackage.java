@@ -19,7 +19,9 @@ package com.thoughtworks.qdox.model.impl;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -38,6 +40,8 @@ public class DefaultJavaPackage extends AbstractBaseJavaEntity implements JavaPa
     private ClassLibrary classLibrary;
 	private String name;
 	private List<JavaClass> classes = new LinkedList<JavaClass>();
+	private transient List<JavaClass> frozenClasses;
+	private transient boolean registered;
 
 	/**
 	 * 
@@ -79,14 +83,37 @@ public class DefaultJavaPackage extends AbstractBaseJavaEntity implements JavaPa
     /** {@inheritDoc} */
 	public Collection<JavaClass> getClasses() {
 	    //avoid infinitive  recursion
-	    if (this == classLibrary.getJavaPackage( name )) {
+	    if (frozenClasses != null) {
+	        return frozenClasses;
+	    }
+	    // once the library has returned this instance it keeps doing so, no need to ask it again
+	    if (registered) {
+	        return classes;
+	    }
+	    JavaPackage javaPackage = classLibrary.getJavaPackage( name );
+	    if (this == javaPackage) {
+	        registered = true;
 	        return classes;
 	    }
 	    else {
-	        return classLibrary.getJavaPackage( name ).getClasses();
+	        return javaPackage.getClasses();
 	    }
 	}
 	
+    /**
+     * Use an unmodifiable copy of the classes from now on, so this package can be read by multiple threads without
+     * synchronization. The library still owns the original list, which it will use again after deserialization.
+     * 
+     * @see ClassLibrary#freeze()
+     * @since 2.0
+     */
+    @Override
+    public void freeze()
+    {
+        super.freeze();
+        frozenClasses = Collections.unmodifiableList( new ArrayList<JavaClass>( getClasses() ) );
+    }
+
     /** {@inheritDoc} */
 	public JavaClass getClassByName(String name) 
     {
@@ -107,22 +134,18 @@ public class DefaultJavaPackage extends AbstractBaseJavaEntity implements JavaPa
     /** {@inheritDoc} */
     public JavaPackage getParentPackage()
     {
-        String parentName = name.substring( 0, name.lastIndexOf( '.' ) );
-        return classLibrary.getJavaPackage( parentName );
+        int lastDot = name.lastIndexOf( '.' );
+        if ( lastDot < 0 )
+        {
+            return null;
+        }
+        return classLibrary.getJavaPackage( name.substring( 0, lastDot ) );
     }
 
     /** {@inheritDoc} */
     public List<JavaPackage> getSubPackages() {
-        String expected = name + ".";
-        Collection<JavaPackage> jPackages = classLibrary.getJavaPackages();
-        List<JavaPackage> retList = new LinkedList<JavaPackage>();
-        for (JavaPackage jPackage : jPackages) {
-            String pName = jPackage.getName();
-            if (pName.startsWith(expected) && !(pName.substring(expected.length()).indexOf(".") > -1)) {
-                retList.add(classLibrary.getJavaPackage( pName ));
-            }
-        }
-        return retList;
+        // the library indexes its packages by parent name, so there's no need to scan all of them
+        return new LinkedList<JavaPackage>( classLibrary.getSubPackages( name ) );
     }
 
     @Override
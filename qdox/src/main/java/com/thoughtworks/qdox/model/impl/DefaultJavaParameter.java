@@ -68,6 +68,13 @@ public class DefaultJavaParameter extends AbstractBaseJavaEntity implements Java
         return type;
     }
 
+    @Override
+    public void freeze()
+    {
+        super.freeze();
+        freeze( type );
+    }
+
     /** {@inheritDoc} */
     public JavaClass getJavaClass()
     {
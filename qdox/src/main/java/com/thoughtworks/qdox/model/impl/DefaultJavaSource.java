@@ -21,6 +21,7 @@ package com.thoughtworks.qdox.model.impl;
 
 import java.io.Serializable;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,10 +31,12 @@ import java.util.Map;
 import java.util.Set;
 
 import com.thoughtworks.qdox.library.ClassLibrary;
+import com.thoughtworks.qdox.model.DocletTag;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaModelUtils;
 import com.thoughtworks.qdox.model.JavaPackage;
 import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
 import com.thoughtworks.qdox.writer.ModelWriter;
 import com.thoughtworks.qdox.writer.ModelWriterFactory;
 import com.thoughtworks.qdox.writer.impl.DefaultModelWriter;
@@ -60,9 +63,17 @@ public class DefaultJavaSource implements JavaSource, Serializable {
     private JavaPackage pkg;
     private List<String> imports = new LinkedList<String>();
     private List<JavaClass> classes = new LinkedList<JavaClass>();
+    private List<JavaTypeUsage> typeUsages = new LinkedList<JavaTypeUsage>();
+    private List<DocletTag> docletTags = new LinkedList<DocletTag>();
     private Map<String, String> resolvedTypeCache = new HashMap<String, String>();
     private URL url;
 
+    // derived data, computed on demand and dropped when this source or its library changes
+    private transient int derivedDataModificationCount;
+    private transient Map<String, JavaClass> classIndex;
+    private transient Map<String, JavaClass> nestedClassIndex;
+    private transient boolean frozen;
+
     /**
      * Default constructor for the Default JavaSource 
      * 
@@ -92,6 +103,7 @@ public class DefaultJavaSource implements JavaSource, Serializable {
 
     public void setPackage(JavaPackage pkg) {
         this.pkg = pkg;
+        clearDerivedData();
     }
 
     public void addImport(String imp) {
@@ -105,6 +117,7 @@ public class DefaultJavaSource implements JavaSource, Serializable {
 
     public void addClass(JavaClass cls) {
         classes.add(cls);
+        clearDerivedData();
     }
 
     /** {@inheritDoc} */
@@ -112,6 +125,46 @@ public class DefaultJavaSource implements JavaSource, Serializable {
       return Collections.unmodifiableList( classes );
     }
 
+    /**
+     * @param typeUsage the usage of a type within this source
+     * @since 2.0
+     */
+    public void addTypeUsage( JavaTypeUsage typeUsage )
+    {
+        typeUsages.add( typeUsage );
+    }
+
+    /**
+     * The types referred to by the elements of this source, in the order they have been parsed.
+     * 
+     * @return the type usages, never <code>null</code>
+     * @since 2.0
+     */
+    public List<JavaTypeUsage> getTypeUsages()
+    {
+        return Collections.unmodifiableList( typeUsages );
+    }
+
+    /**
+     * @param docletTag a doclet tag of one of the elements of this source
+     * @since 2.0
+     */
+    public void addDocletTag( DocletTag docletTag )
+    {
+        docletTags.add( docletTag );
+    }
+
+    /**
+     * The doclet tags of all elements of this source, in the order they have been parsed.
+     * 
+     * @return the doclet tags, never <code>null</code>
+     * @since 2.0
+     */
+    public List<DocletTag> getDocletTags()
+    {
+        return Collections.unmodifiableList( docletTags );
+    }
+
     /** {@inheritDoc} */
     public String getCodeBlock() {
         return getModelWriter().writeSource( this ).toString();
@@ -135,7 +188,8 @@ public class DefaultJavaSource implements JavaSource, Serializable {
         if ( result == null )
         {
             result = resolveTypeInternal( name );
-            if ( result != null )
+            // a frozen source is shared by multiple threads, so don't touch the cache anymore
+            if ( result != null && !frozen )
             {
                 resolvedTypeCache.put( name, result );
             }
@@ -319,31 +373,120 @@ public class DefaultJavaSource implements JavaSource, Serializable {
     
     /**  {@inheritDoc} */
     public JavaClass getNestedClassByName(String name) {
-        JavaClass result = null;
-        
-        for (JavaClass candidateCls : classes) {
-            if (candidateCls.getName().equals(name)) {
-                result = candidateCls;
-                break;
+        return getNestedClassIndex().get( name );
+    }
+
+    private Map<String, JavaClass> getNestedClassIndex()
+    {
+        validateDerivedData();
+        if ( nestedClassIndex == null )
+        {
+            Map<String, JavaClass> result = new HashMap<String, JavaClass>();
+            for ( JavaClass candidateCls : classes )
+            {
+                if ( !result.containsKey( candidateCls.getName() ) )
+                {
+                    result.put( candidateCls.getName(), candidateCls );
+                }
             }
+            nestedClassIndex = result;
         }
-        return result;
+        return nestedClassIndex;
     }
     
     /**  {@inheritDoc} */
     public JavaClass getClassByName(String name) 
     {
-        JavaClass result = null;
-        
-        for ( JavaClass candidateCls : classes )
+        return getClassIndex().get( name );
+    }
+
+    private Map<String, JavaClass> getClassIndex()
+    {
+        validateDerivedData();
+        if ( classIndex == null )
         {
-            result = JavaModelUtils.getClassByName( candidateCls, name );
-            if ( result != null ) 
+            Map<String, JavaClass> result = new HashMap<String, JavaClass>();
+            for ( JavaClass candidateCls : classes )
             {
-                break;
+                indexClass( candidateCls, result );
             }
+            classIndex = result;
         }
-        return result;
+        return classIndex;
+    }
+
+    /**
+     * Index the class both by its fully qualified name and by its name, followed by its nested classes.
+     * Existing entries are kept, so the result matches the depth-first search of {@link JavaModelUtils#getClassByName(JavaClass, String)}.
+     */
+    private static void indexClass( JavaClass cls, Map<String, JavaClass> index )
+    {
+        if ( !index.containsKey( cls.getFullyQualifiedName() ) )
+        {
+            index.put( cls.getFullyQualifiedName(), cls );
+        }
+        if ( !index.containsKey( cls.getName() ) )
+        {
+            index.put( cls.getName(), cls );
+        }
+        for ( JavaClass innerCls : cls.getNestedClasses() )
+        {
+            indexClass( innerCls, index );
+        }
+    }
+
+    /**
+     * Nested classes are added to their declaring class after it has been added to this source,
+     * so derived data is also dropped once the library has registered a new source.
+     */
+    private void validateDerivedData()
+    {
+        if ( frozen )
+        {
+            return;
+        }
+        int modificationCount = ( classLibrary != null ? classLibrary.getModificationCount() : 0 );
+        if ( derivedDataModificationCount != modificationCount )
+        {
+            clearDerivedData();
+            derivedDataModificationCount = modificationCount;
+        }
+    }
+
+    private void clearDerivedData()
+    {
+        classIndex = null;
+        nestedClassIndex = null;
+    }
+
+    /**
+     * Finalize all lazily computed data of this source and its classes and make their collections unmodifiable.
+     * Afterwards this source must not be changed anymore and it can be read by multiple threads without
+     * synchronization.
+     * 
+     * @see com.thoughtworks.qdox.library.ClassLibrary#freeze()
+     * @since 2.0
+     */
+    public void freeze()
+    {
+        if ( frozen )
+        {
+            return;
+        }
+        imports = Collections.unmodifiableList( new ArrayList<String>( imports ) );
+        classes = Collections.unmodifiableList( new ArrayList<JavaClass>( classes ) );
+        typeUsages = Collections.unmodifiableList( new ArrayList<JavaTypeUsage>( typeUsages ) );
+        docletTags = Collections.unmodifiableList( new ArrayList<DocletTag>( docletTags ) );
+        for ( JavaClass cls : classes )
+        {
+            if ( cls instanceof DefaultJavaClass )
+            {
+                ( (DefaultJavaClass) cls ).freeze();
+            }
+        }
+        getClassIndex();
+        getNestedClassIndex();
+        frozen = true;
     }
     
     /**  {@inheritDoc} */
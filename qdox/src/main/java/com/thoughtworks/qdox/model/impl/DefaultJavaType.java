@@ -21,9 +21,13 @@ package com.thoughtworks.qdox.model.impl;
 
 import java.io.Serializable;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.thoughtworks.qdox.library.ClassLibrary;
 import com.thoughtworks.qdox.model.BeanProperty;
@@ -391,6 +395,16 @@ public class DefaultJavaType implements JavaClass, JavaType, Serializable {
      */
     protected static JavaType resolve( JavaType base, JavaClass declaringClass, JavaClass callingClass )
     {
+        return resolve( base, getTypeArguments( declaringClass, callingClass ) );
+    }
+
+    private static JavaType resolve( JavaType base, TypeArguments typeArguments )
+    {
+        if ( typeArguments.isEmpty() )
+        {
+            return base;
+        }
+
         JavaType result = base;
         
         String concreteClassName;
@@ -404,30 +418,10 @@ public class DefaultJavaType implements JavaClass, JavaType, Serializable {
             concreteClassName = base.getFullyQualifiedName();
         }
 
-        int typeIndex = getTypeVariableIndex( declaringClass, concreteClassName );
-
-        if ( typeIndex >= 0 )
+        JavaType typeArgument = typeArguments.get( concreteClassName, getDimensions( base ) );
+        if ( typeArgument != null )
         {
-            String fqn = declaringClass.getFullyQualifiedName();
-            if ( callingClass.getSuperClass() != null
-                && fqn.equals( callingClass.getSuperClass().getFullyQualifiedName() ) )
-            {
-                result = getActualTypeArguments( callingClass.getSuperClass() ).get( typeIndex );
-            }
-            else
-            {
-                for ( JavaClass implement : callingClass.getInterfaces() )
-                {
-                    if ( fqn.equals( implement.getFullyQualifiedName() ) )
-                    {
-                        JavaType actualType = getActualTypeArguments( implement ).get( typeIndex );
-                        JavaType resolvedType = new DefaultJavaType( actualType.getFullyQualifiedName(), actualType.getValue(), getDimensions( base ), implement.getParent() ); 
-                        result = resolve( resolvedType , implement, implement );
-                        break;
-                    }
-                }
-                // no direct interface available, try indirect
-            }
+            result = typeArgument;
         }
 
         List<JavaType> actualTypeArguments = getActualTypeArguments(base); 
@@ -445,36 +439,212 @@ public class DefaultJavaType implements JavaClass, JavaType, Serializable {
             List<JavaType> actualTypes = new LinkedList<JavaType>();
             for ( JavaType actualArgType : actualTypeArguments )
             {
-                actualTypes.add( resolve( actualArgType, declaringClass, callingClass ) );
+                actualTypes.add( resolve( actualArgType, typeArguments ) );
             }
             typeResult.setActualArgumentTypes( actualTypes );
             result = typeResult;
         }
         return result;
     }
-    
-    private static int getDimensions( JavaType type )
+
+    /**
+     * Returns the type arguments of the type parameters of {@code declaringClass} as seen from {@code callingClass}.
+     * Type parameters which can't be resolved, for instance because a raw type is extended, have no type argument.
+     * The type arguments are cached by the calling class if it's a {@link DefaultJavaClass}.
+     * 
+     * @param declaringClass the class declaring the type parameters
+     * @param callingClass the class which (indirectly) extends or implements the declaring class
+     * @return the type arguments, never <code>null</code>
+     */
+    static TypeArguments getTypeArguments( JavaClass declaringClass, JavaClass callingClass )
     {
-        return type instanceof JavaClass ? ( (JavaClass) type ).getDimensions() : 0;
+        if ( callingClass instanceof DefaultJavaClass )
+        {
+            return ( (DefaultJavaClass) callingClass ).getTypeArguments( declaringClass );
+        }
+        else
+        {
+            return createTypeArguments( declaringClass, callingClass );
+        }
     }
-    
-    private static JavaClass getDeclaringClass( JavaType type )
+
+    /**
+     * Walks the supertypes of {@code callingClass} up to {@code declaringClass}. For every step the type arguments of
+     * the supertype are substituted with the type arguments of the previous step, so a chain like
+     * <code>A&lt;T&gt;, B&lt;U&gt; extends A&lt;List&lt;U&gt;&gt;, C extends B&lt;String&gt;</code> maps T of A to
+     * <code>List&lt;String&gt;</code> for C.
+     */
+    static TypeArguments createTypeArguments( JavaClass declaringClass, JavaClass callingClass )
     {
-        return type instanceof JavaClass ? ( (JavaClass) type ).getDeclaringClass() : null;
+        String fqn = declaringClass.getFullyQualifiedName();
+        if ( fqn.equals( callingClass.getFullyQualifiedName() ) )
+        {
+            return TypeArguments.EMPTY;
+        }
+
+        List<JavaType> supertypes = new LinkedList<JavaType>();
+        if ( callingClass.getSuperClass() != null )
+        {
+            supertypes.add( callingClass.getSuperClass() );
+        }
+        supertypes.addAll( callingClass.getInterfaces() );
+
+        for ( JavaType supertype : supertypes )
+        {
+            if ( fqn.equals( supertype.getFullyQualifiedName() ) )
+            {
+                return createDirectTypeArguments( declaringClass, supertype );
+            }
+        }
+
+        for ( JavaType supertype : supertypes )
+        {
+            JavaClass superClass = getRealClass( supertype );
+            if ( superClass != null && superClass.isA( declaringClass ) )
+            {
+                TypeArguments inheritedTypeArguments = getTypeArguments( declaringClass, superClass );
+                TypeArguments directTypeArguments = createDirectTypeArguments( superClass, supertype );
+
+                Map<String, JavaType> result = new HashMap<String, JavaType>();
+                for ( Map.Entry<String, JavaType> entry : inheritedTypeArguments.types.entrySet() )
+                {
+                    result.put( entry.getKey(), resolve( entry.getValue(), directTypeArguments ) );
+                }
+                return new TypeArguments( result );
+            }
+        }
+        return TypeArguments.EMPTY;
     }
 
-    private static int getTypeVariableIndex( JavaClass declaringClass, String fqn )
+    private static TypeArguments createDirectTypeArguments( JavaClass declaringClass, JavaType supertype )
     {
-        int typeIndex = -1;
+        Map<String, JavaType> result = new HashMap<String, JavaType>();
+        Iterator<JavaType> actualTypeArguments = getActualTypeArguments( supertype ).iterator();
         for ( JavaTypeVariable<?> typeVariable : declaringClass.getTypeParameters() )
         {
-            typeIndex++;
-            if ( typeVariable.getFullyQualifiedName().equals( fqn ) )
+            if ( !actualTypeArguments.hasNext() )
+            {
+                break;
+            }
+            result.put( typeVariable.getFullyQualifiedName(), actualTypeArguments.next() );
+        }
+        return new TypeArguments( result );
+    }
+
+    private static JavaClass getRealClass( JavaType type )
+    {
+        JavaClass result = null;
+        if ( type instanceof DefaultJavaType && ( (DefaultJavaType) type ).getJavaClassParent() != null )
+        {
+            result = ( (DefaultJavaType) type ).resolveRealClass();
+        }
+        else if ( type instanceof JavaClass )
+        {
+            result = (JavaClass) type;
+        }
+        return result;
+    }
+
+    private static JavaType getArrayType( JavaType type, int dimensions )
+    {
+        String fullName = type.getFullyQualifiedName();
+        String value = type.getValue();
+        if ( fullName.indexOf( '[' ) > 0 )
+        {
+            fullName = fullName.substring( 0, fullName.indexOf( '[' ) );
+        }
+        if ( value.indexOf( '[' ) > 0 )
+        {
+            value = value.substring( 0, value.indexOf( '[' ) );
+        }
+
+        DefaultJavaType result;
+        List<JavaType> actualTypeArguments = getActualTypeArguments( type );
+        if ( actualTypeArguments.isEmpty() )
+        {
+            result = new DefaultJavaType( fullName, value, getDimensions( type ) + dimensions, null );
+        }
+        else
+        {
+            DefaultJavaParameterizedType parameterizedType =
+                new DefaultJavaParameterizedType( fullName, value, getDimensions( type ) + dimensions, null );
+            parameterizedType.setActualArgumentTypes( actualTypeArguments );
+            result = parameterizedType;
+        }
+        if ( type instanceof DefaultJavaType )
+        {
+            Object context = ( (DefaultJavaType) type ).getJavaClassParent();
+            if ( context instanceof JavaClass )
+            {
+                result.bindContext( (JavaClass) context );
+            }
+            else if ( context instanceof JavaSource )
+            {
+                result.bindContext( (JavaSource) context );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The type arguments of the type parameters of a class as seen from one of its subclasses, mapped by the name of
+     * the type parameter. The array types of the type arguments are created only once, so resolving an inherited
+     * member which uses <code>T[]</code> doesn't create a new type every time.
+     */
+    static final class TypeArguments
+    {
+        static final TypeArguments EMPTY = new TypeArguments( Collections.<String, JavaType>emptyMap() );
+
+        private final Map<String, JavaType> types;
+
+        /** might be used by multiple threads once the calling class is frozen */
+        private final ConcurrentMap<String, JavaType> arrayTypes = new ConcurrentHashMap<String, JavaType>();
+
+        TypeArguments( Map<String, JavaType> types )
+        {
+            this.types = types;
+        }
+
+        boolean isEmpty()
+        {
+            return types.isEmpty();
+        }
+
+        /**
+         * @param name the name of the type parameter
+         * @param dimensions the dimensions of the usage of the type parameter
+         * @return the type argument with the extra dimensions, <code>null</code> if there's no type argument
+         */
+        JavaType get( String name, int dimensions )
+        {
+            JavaType result = types.get( name );
+            if ( result != null && dimensions > 0 )
             {
-                return typeIndex;
+                String key = name + ':' + dimensions;
+                JavaType arrayType = arrayTypes.get( key );
+                if ( arrayType == null )
+                {
+                    arrayType = getArrayType( result, dimensions );
+                    JavaType existing = arrayTypes.putIfAbsent( key, arrayType );
+                    if ( existing != null )
+                    {
+                        arrayType = existing;
+                    }
+                }
+                result = arrayType;
             }
+            return result;
         }
-        return -1;
+    }
+    
+    private static int getDimensions( JavaType type )
+    {
+        return type instanceof JavaClass ? ( (JavaClass) type ).getDimensions() : 0;
+    }
+    
+    private static JavaClass getDeclaringClass( JavaType type )
+    {
+        return type instanceof JavaClass ? ( (JavaClass) type ).getDeclaringClass() : null;
     }
 
     /** {@inheritDoc} */
@@ -865,6 +1035,18 @@ public class DefaultJavaType implements JavaClass, JavaType, Serializable {
     {
         return resolveRealClass().getDerivedClasses();
     }
+
+    /** {@inheritDoc} */
+    public List<JavaClass> getDirectSubclasses()
+    {
+        return resolveRealClass().getDirectSubclasses();
+    }
+
+    /** {@inheritDoc} */
+    public List<JavaClass> getImplementors()
+    {
+        return resolveRealClass().getImplementors();
+    }
     
     /** {@inheritDoc} */
     public List<DocletTag> getTagsByName( String name, boolean superclasses )
@@ -971,4 +1153,33 @@ public class DefaultJavaType implements JavaClass, JavaType, Serializable {
     public JavaClassParent getJavaClassParent() {
         return context;
     }
+
+    /**
+     * Types of expressions are created by the parser before the element they belong to exists, they get their
+     * context once that element is known. A type which already has a context keeps it.
+     * 
+     * @param context the class to resolve the name of this type with
+     * @since 2.0
+     */
+    public void bindContext( JavaClass context )
+    {
+        if ( this.context == null )
+        {
+            this.context = context;
+        }
+    }
+
+    /**
+     * Same as {@link #bindContext(JavaClass)}, for expressions used outside of a class, like in package annotations.
+     * 
+     * @param context the source to resolve the name of this type with
+     * @since 2.0
+     */
+    public void bindContext( JavaSource context )
+    {
+        if ( this.context == null )
+        {
+            this.context = context;
+        }
+    }
 }
@@ -54,6 +54,15 @@ public class DefaultJavaWildcardType extends DefaultJavaType
         this.boundType = boundType;
     }
 
+    /**
+     * @return the bounds of this wildcard, never <code>null</code>
+     * @since 2.0
+     */
+    public List<JavaType> getBounds()
+    {
+        return bounds;
+    }
+
     public String getFullyQualifiedName()
     {
         StringBuilder builder = getPreparedStringBuilder();
@@ -47,8 +47,21 @@ public class JavaMethodDelegate implements JavaMethod
     public JavaMethodDelegate( JavaClass callingClass, JavaMethod originalMethod )
     {
         this.callingClass = callingClass;
+        // the type arguments of the whole hierarchy are resolved at once, so skip intermediate delegates
+        while ( originalMethod instanceof JavaMethodDelegate )
+        {
+            originalMethod = ( (JavaMethodDelegate) originalMethod ).originalMethod;
+        }
         this.originalMethod = originalMethod;
     }
+
+    /**
+     * @return the method this delegate is based on, never a delegate itself
+     */
+    JavaMethod getOriginalMethod()
+    {
+        return originalMethod;
+    }
     
     public JavaType getReturnType( boolean resolve )
     {
@@ -88,8 +101,25 @@ public class JavaMethodDelegate implements JavaMethod
         return result;
     }
     
+    /** {@inheritDoc} */
+    public List<JavaMethod> getOverriddenMethods()
+    {
+        return originalMethod.getOverriddenMethods();
+    }
+
+    /** {@inheritDoc} */
+    public List<JavaMethod> getOverridingMethods()
+    {
+        return originalMethod.getOverridingMethods();
+    }
+
     public boolean equals( Object obj )
     {
+        if ( obj instanceof JavaMethodDelegate )
+        {
+            // delegates of the same method are equal, no need to compare their signatures
+            obj = ( (JavaMethodDelegate) obj ).originalMethod;
+        }
         return originalMethod.equals( obj );
     }
 
@@ -0,0 +1,277 @@
+package com.thoughtworks.qdox.model.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
+import com.thoughtworks.qdox.model.JavaParameter;
+import com.thoughtworks.qdox.model.JavaType;
+import com.thoughtworks.qdox.model.JavaTypeVariable;
+
+/**
+ * The name and the erased parameter types of a method or constructor, as used by the compiler to detect overridden
+ * methods. Unlike the declaration signature it ignores parameter names, return type and exceptions. Type variables
+ * are erased to their first bound, or <code>java.lang.Object</code> if they don't have one.
+ * <p>
+ * Every erased type name is interned with {@link String#intern()}, so comparing signatures only compares references.
+ * Unlike a table of its own, the JVM releases interned names once they're not used anymore. It's immutable and
+ * computes its hashCode only once, so it's a cheap key for maps.
+ * 
+ * @since 2.0
+ */
+public final class MethodSignature
+{
+    private final String name;
+
+    private final String[] parameterTypes;
+
+    private final boolean varArgs;
+
+    private final int hashCode;
+
+    /**
+     * @param name the name of the method, use an empty String for constructors
+     * @param erasedParameterTypes the fully qualified names of the erased parameter types, may be <code>null</code>
+     * @param varArgs <code>true</code> if the last parameter is a varArg
+     */
+    MethodSignature( String name, List<String> erasedParameterTypes, boolean varArgs )
+    {
+        this.name = name;
+        this.parameterTypes = new String[erasedParameterTypes == null ? 0 : erasedParameterTypes.size()];
+        for ( int i = 0; i < this.parameterTypes.length; i++ )
+        {
+            String parameterType = erasedParameterTypes.get( i );
+            this.parameterTypes[i] = ( parameterType != null ? parameterType.intern() : null );
+        }
+        this.varArgs = varArgs;
+        this.hashCode = ( 31 * ( name != null ? name.hashCode() : 0 ) + Arrays.hashCode( this.parameterTypes ) ) * 2
+            + ( varArgs ? 1 : 0 );
+    }
+
+    /**
+     * @param name the name of the method, use an empty String for constructors
+     * @param parameters the parameters of the method
+     * @param varArgs <code>true</code> if the last parameter is a varArg
+     * @param typeParameters the type variables in scope, starting with those of the method itself
+     * @return the signature
+     */
+    static MethodSignature of( String name, List<JavaParameter> parameters, boolean varArgs,
+                               List<JavaTypeVariable<?>> typeParameters )
+    {
+        List<JavaType> parameterTypes = new ArrayList<JavaType>( parameters.size() );
+        for ( JavaParameter parameter : parameters )
+        {
+            parameterTypes.add( parameter.getType() );
+        }
+        return ofTypes( name, parameterTypes, varArgs, typeParameters );
+    }
+
+    private static MethodSignature ofTypes( String name, List<JavaType> parameterTypes, boolean varArgs,
+                                            List<JavaTypeVariable<?>> typeParameters )
+    {
+        List<String> erasedParameterTypes = new ArrayList<String>( parameterTypes.size() );
+        for ( JavaType parameterType : parameterTypes )
+        {
+            erasedParameterTypes.add( erase( parameterType, typeParameters, 0 ) );
+        }
+        return new MethodSignature( name, erasedParameterTypes, varArgs );
+    }
+
+    /**
+     * Decides if the signature of a method is a subsignature of the signature of a method of one of its supertypes, in
+     * which case the method overrides the other one if that one is accessible. The other method is seen like it's
+     * inherited by the declaring class of the method, so the type arguments of the supertype are substituted. Type
+     * variables without type argument, like those of a raw supertype, are erased. So are the type variables of the
+     * methods themselves, so they may have other names. A varArg matches an array of the same type.
+     * 
+     * @param method the method
+     * @param superMethod a method of a supertype of the declaring class of the method
+     * @return <code>true</code> if the signature of the method is a subsignature, otherwise <code>false</code>
+     */
+    public static boolean isSubsignature( JavaMethod method, JavaMethod superMethod )
+    {
+        JavaClass callingClass = method.getDeclaringClass();
+        List<JavaTypeVariable<?>> typeParameters = new LinkedList<JavaTypeVariable<?>>();
+        typeParameters.addAll( superMethod.getTypeParameters() );
+        for ( JavaClass cls = callingClass; cls != null; cls = cls.getDeclaringClass() )
+        {
+            typeParameters.addAll( cls.getTypeParameters() );
+        }
+        typeParameters.addAll( getTypeParameters( superMethod ) );
+        List<JavaType> inheritedParameterTypes =
+            new JavaMethodDelegate( callingClass, superMethod ).getParameterTypes( true );
+        MethodSignature inheritedSignature =
+            ofTypes( superMethod.getName(), inheritedParameterTypes, superMethod.isVarArgs(), typeParameters );
+        return of( method ).withVarArgsAsArray().equals( inheritedSignature.withVarArgsAsArray() );
+    }
+
+    /**
+     * @return this signature with the varArg as array, so <code>m(String...)</code> equals <code>m(String[])</code>
+     */
+    private MethodSignature withVarArgsAsArray()
+    {
+        if ( !varArgs || parameterTypes.length == 0 )
+        {
+            return this;
+        }
+        List<String> arrayParameterTypes = new ArrayList<String>( Arrays.asList( parameterTypes ) );
+        int last = arrayParameterTypes.size() - 1;
+        arrayParameterTypes.set( last, arrayParameterTypes.get( last ) + "[]" );
+        return new MethodSignature( name, arrayParameterTypes, false );
+    }
+
+    /**
+     * Get the signature of any method. Delegates are unwrapped, since their types are resolved for another class.
+     * 
+     * @param method the method
+     * @return the signature
+     */
+    static MethodSignature of( JavaMethod method )
+    {
+        if ( method instanceof JavaMethodDelegate )
+        {
+            method = ( (JavaMethodDelegate) method ).getOriginalMethod();
+        }
+        if ( method instanceof DefaultJavaMethod )
+        {
+            return ( (DefaultJavaMethod) method ).getErasedSignature();
+        }
+        return of( method.getName(), method.getParameters(), method.isVarArgs(), getTypeParameters( method ) );
+    }
+
+    /**
+     * @param method the method
+     * @return the type variables of the method, followed by those of the declaring class and its enclosing classes
+     */
+    static List<JavaTypeVariable<?>> getTypeParameters( JavaMethod method )
+    {
+        List<JavaTypeVariable<?>> result = new LinkedList<JavaTypeVariable<?>>();
+        result.addAll( method.getTypeParameters() );
+        for ( JavaClass cls = method.getDeclaringClass(); cls != null; cls = cls.getDeclaringClass() )
+        {
+            result.addAll( cls.getTypeParameters() );
+        }
+        return result;
+    }
+
+    /**
+     * @param type the type to erase
+     * @param typeParameters the type variables in scope
+     * @param depth the number of type variables erased so far, to stop at bounds like <code>T extends U, U extends
+     *            T</code>
+     * @return the fully qualified name of the erased type, including its dimensions
+     */
+    static String erase( JavaType type, List<JavaTypeVariable<?>> typeParameters, int depth )
+    {
+        if ( type == null )
+        {
+            return null;
+        }
+        String result = type.getFullyQualifiedName();
+        String componentName = result;
+        int dimensions = 0;
+        while ( componentName.endsWith( "[]" ) )
+        {
+            componentName = componentName.substring( 0, componentName.length() - 2 );
+            dimensions++;
+        }
+        for ( JavaTypeVariable<?> typeParameter : typeParameters )
+        {
+            if ( typeParameter.getName().equals( componentName ) )
+            {
+                List<JavaType> bounds = typeParameter.getBounds();
+                if ( bounds == null || bounds.isEmpty() || depth > typeParameters.size() )
+                {
+                    result = "java.lang.Object";
+                }
+                else
+                {
+                    result = erase( bounds.get( 0 ), typeParameters, depth + 1 );
+                }
+                for ( int i = 0; i < dimensions; i++ )
+                {
+                    result += "[]";
+                }
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( !( obj instanceof MethodSignature ) )
+        {
+            return false;
+        }
+        MethodSignature other = (MethodSignature) obj;
+        return hashCode == other.hashCode && varArgs == other.varArgs
+            && ( name != null ? name.equals( other.name ) : other.name == null )
+            && sameParameterTypes( other );
+    }
+
+    private boolean sameParameterTypes( MethodSignature other )
+    {
+        if ( parameterTypes.length != other.parameterTypes.length )
+        {
+            return false;
+        }
+        for ( int i = 0; i < parameterTypes.length; i++ )
+        {
+            // the names are interned
+            if ( parameterTypes[i] != other.parameterTypes[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder( name ).append( '(' );
+        for ( int i = 0; i < parameterTypes.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                result.append( ',' );
+            }
+            result.append( parameterTypes[i] );
+        }
+        return result.append( varArgs ? "...)" : ")" ).toString();
+    }
+}
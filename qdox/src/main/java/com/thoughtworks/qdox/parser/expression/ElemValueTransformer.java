@@ -21,6 +21,13 @@ package com.thoughtworks.qdox.parser.expression;
 
 import com.thoughtworks.qdox.parser.structs.AnnoDef;
 
+/**
+ * Transforms a tree of ElemValueDefs.
+ * The parser creates the AnnotationValues of the model itself, so this is only an adapter for code which still builds
+ * ElemValueDefs.
+ * 
+ * @param <U> the type of the transformed values
+ */
 public interface ElemValueTransformer<U>
 {
     U transform( AnnoDef annoDef );
@@ -0,0 +1,221 @@
+package com.thoughtworks.qdox.parser.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the <code>ConstantValue</code> attributes of the fields of a compiled class.
+ * These are the values of the compile-time constants, which can't be read by reflection without initializing the
+ * class. Nothing is cached, so callers should read every class only once.
+ *
+ * @since 2.0
+ */
+public final class ConstantValueReader
+{
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final int CONSTANT_UTF8 = 1;
+
+    private static final int CONSTANT_INTEGER = 3;
+
+    private static final int CONSTANT_FLOAT = 4;
+
+    private static final int CONSTANT_LONG = 5;
+
+    private static final int CONSTANT_DOUBLE = 6;
+
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_STRING = 8;
+
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+
+    private static final int CONSTANT_METHOD_TYPE = 16;
+
+    private static final int CONSTANT_MODULE = 19;
+
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ConstantValueReader()
+    {
+    }
+
+    /**
+     * @param clazz the class to read the constant values of
+     * @return the constant values mapped by field name, never <code>null</code>. The values have the type of the
+     *         field, like a <code>Character</code> for a <code>char</code> constant
+     */
+    public static Map<String, Object> read( Class<?> clazz )
+    {
+        Map<String, Object> result = new HashMap<String, Object>();
+        String resource = clazz.getName().replace( '.', '/' ) + ".class";
+        ClassLoader classLoader = clazz.getClassLoader();
+        InputStream stream =
+            ( classLoader != null ? classLoader.getResourceAsStream( resource )
+                            : ClassLoader.getSystemResourceAsStream( resource ) );
+        if ( stream != null )
+        {
+            try
+            {
+                read( new DataInputStream( new BufferedInputStream( stream ) ), result );
+            }
+            catch ( IOException e )
+            {
+                // without constant values the fields just can't be evaluated
+            }
+            finally
+            {
+                try
+                {
+                    stream.close();
+                }
+                catch ( IOException e )
+                {
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void read( DataInputStream in, Map<String, Object> constantValues )
+        throws IOException
+    {
+        if ( in.readInt() != 0xCAFEBABE )
+        {
+            return;
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        int constantPoolCount = in.readUnsignedShort();
+        Object[] constantPool = new Object[constantPoolCount];
+        int[] stringIndexes = new int[constantPoolCount];
+        for ( int i = 1; i < constantPoolCount; i++ )
+        {
+            int tag = in.readUnsignedByte();
+            switch ( tag )
+            {
+                case CONSTANT_UTF8:
+                    constantPool[i] = in.readUTF();
+                    break;
+                case CONSTANT_INTEGER:
+                    constantPool[i] = Integer.valueOf( in.readInt() );
+                    break;
+                case CONSTANT_FLOAT:
+                    constantPool[i] = Float.valueOf( in.readFloat() );
+                    break;
+                case CONSTANT_LONG:
+                    constantPool[i++] = Long.valueOf( in.readLong() );
+                    break;
+                case CONSTANT_DOUBLE:
+                    constantPool[i++] = Double.valueOf( in.readDouble() );
+                    break;
+                case CONSTANT_STRING:
+                    stringIndexes[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    skip( in, 2 );
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    skip( in, 3 );
+                    break;
+                default:
+                    // field, method and interface method references, NameAndType, Dynamic and InvokeDynamic
+                    skip( in, 4 );
+            }
+        }
+
+        in.readUnsignedShort(); // access flags
+        in.readUnsignedShort(); // this class
+        in.readUnsignedShort(); // super class
+        skip( in, 2 * in.readUnsignedShort() ); // interfaces
+
+        int fieldCount = in.readUnsignedShort();
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            int accessFlags = in.readUnsignedShort();
+            String name = (String) constantPool[in.readUnsignedShort()];
+            String descriptor = (String) constantPool[in.readUnsignedShort()];
+            int attributeCount = in.readUnsignedShort();
+            for ( int j = 0; j < attributeCount; j++ )
+            {
+                String attributeName = (String) constantPool[in.readUnsignedShort()];
+                int length = in.readInt();
+                // javac also writes the attribute for final instance fields, which aren't constants
+                if ( "ConstantValue".equals( attributeName ) && ( accessFlags & ACC_STATIC ) != 0 )
+                {
+                    int index = in.readUnsignedShort();
+                    Object value =
+                        ( stringIndexes[index] != 0 ? constantPool[stringIndexes[index]] : constantPool[index] );
+                    constantValues.put( name, toFieldType( value, descriptor ) );
+                }
+                else
+                {
+                    skip( in, length );
+                }
+            }
+        }
+    }
+
+    /**
+     * The constant pool only has ints for booleans, bytes, chars and shorts.
+     */
+    private static Object toFieldType( Object value, String descriptor )
+    {
+        Object result = value;
+        if ( value instanceof Integer && descriptor.length() == 1 )
+        {
+            int i = ( (Integer) value ).intValue();
+            switch ( descriptor.charAt( 0 ) )
+            {
+                case 'Z':
+                    result = Boolean.valueOf( i != 0 );
+                    break;
+                case 'B':
+                    result = Byte.valueOf( (byte) i );
+                    break;
+                case 'C':
+                    result = Character.valueOf( (char) i );
+                    break;
+                case 'S':
+                    result = Short.valueOf( (short) i );
+                    break;
+                default:
+            }
+        }
+        return result;
+    }
+
+    private static void skip( DataInputStream in, int length )
+        throws IOException
+    {
+        // skipBytes() might skip less bytes than requested
+        in.readFully( new byte[length] );
+    }
+}
@@ -22,6 +22,7 @@ package com.thoughtworks.qdox.parser.structs;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.thoughtworks.qdox.model.expression.AnnotationValue;
 import com.thoughtworks.qdox.parser.expression.ElemValueTransformer;
 import com.thoughtworks.qdox.parser.expression.ElemValueDef;
 
@@ -29,6 +30,10 @@ public class AnnoDef extends LocatedDef implements ElemValueDef
 {
     private TypeDef typeDef;
     private final Map<String, ElemValueDef> args = new LinkedHashMap<String, ElemValueDef>();
+    /**
+     * The arguments are created by the parser as AnnotationValues right away, their context is bound by the builder
+     */
+    private final Map<String, AnnotationValue> values = new LinkedHashMap<String, AnnotationValue>();
 
     public AnnoDef( TypeDef typeDef )
     {
@@ -48,8 +53,23 @@ public class AnnoDef extends LocatedDef implements ElemValueDef
         return typeDef;
     }
 
+    /**
+     * The arguments as ElemValueDefs, which are transformed by the builder. The parser doesn't use these anymore, it
+     * adds its arguments to {@link #getValues()}.
+     * 
+     * @return the arguments as ElemValueDefs
+     */
     public Map<String, ElemValueDef> getArgs()
     {
         return args;
     }
+
+    /**
+     * @return the arguments as AnnotationValues, as created by the parser
+     * @since 2.0
+     */
+    public Map<String, AnnotationValue> getValues()
+    {
+        return values;
+    }
 }
@@ -74,6 +74,10 @@ public class QDoxTester {
     public void checkDirectory(File dir) throws IOException {
         DirectoryScanner directoryScanner = new DirectoryScanner(dir);
         directoryScanner.addFilter(new SuffixFilter(".java"));
+        directoryScanner.addExclude("**/.git/");
+        directoryScanner.addExclude("**/.svn/");
+        directoryScanner.addExclude("**/CVS/");
+        directoryScanner.setThreadCount(Runtime.getRuntime().availableProcessors());
         directoryScanner.scan(new FileVisitor() {
             public void visitFile(File file) {
                 try {
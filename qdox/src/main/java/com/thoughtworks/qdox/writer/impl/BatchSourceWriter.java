@@ -0,0 +1,363 @@
+package com.thoughtworks.qdox.writer.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * Writes the code of many sources or classes to files below an output directory, using multiple threads.
+ * Every file is rendered by its own {@link DefaultModelWriter}, created by {@link #newModelWriter(Appendable)} on the
+ * thread doing the work, so writers are never shared between threads. The code is streamed into the encoded content
+ * of the file, without creating a String first. Files which already have exactly the same content are left
+ * untouched, which keeps their timestamps for incremental builds.
+ * <p>
+ * The model is only read, but resolving types might still change the state of the class library, so it's best to
+ * {@link com.thoughtworks.qdox.JavaProjectBuilder#freeze() freeze} the builder before writing.
+ *
+ * @since 2.0
+ */
+public class BatchSourceWriter
+{
+    private final File outputDirectory;
+
+    private String encoding;
+
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @param outputDirectory the root of the package directories
+     */
+    public BatchSourceWriter( File outputDirectory )
+    {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * @param encoding the encoding of the files, the platform encoding if <code>null</code>
+     */
+    public void setEncoding( String encoding )
+    {
+        this.encoding = encoding;
+    }
+
+    /**
+     * @param threadCount the number of threads used for writing, by default the number of available processors
+     */
+    public void setThreadCount( int threadCount )
+    {
+        if ( threadCount < 1 )
+        {
+            throw new IllegalArgumentException( "threadCount should be at least 1, but was " + threadCount );
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Every source is written to a file named after its public class, or else its first class. A source without
+     * classes is written as <code>package-info.java</code>.
+     *
+     * @param sources the sources to write
+     * @return the results in the same order as the sources
+     * @throws IOException if any of the files could not be written
+     */
+    public List<Result> writeSources( Collection<JavaSource> sources )
+        throws IOException
+    {
+        List<Callable<Result>> tasks = new ArrayList<Callable<Result>>( sources.size() );
+        for ( final JavaSource source : sources )
+        {
+            tasks.add( new Callable<Result>()
+            {
+                public Result call()
+                    throws IOException
+                {
+                    long start = System.nanoTime();
+                    Content content = new Content();
+                    DefaultModelWriter writer = newModelWriter( content.getWriter() );
+                    writer.writeSource( source );
+                    writer.flush();
+                    return write( getFile( source ), content, start );
+                }
+            } );
+        }
+        return execute( tasks );
+    }
+
+    /**
+     * Every class is written to a file named after the class, preceded by the package statement and the imports of
+     * its source.
+     * Only top level classes should be passed, inner classes are already part of the code of their declaring class.
+     *
+     * @param classes the classes to write
+     * @return the results in the same order as the classes
+     * @throws IOException if any of the files could not be written
+     */
+    public List<Result> writeClasses( Collection<JavaClass> classes )
+        throws IOException
+    {
+        List<Callable<Result>> tasks = new ArrayList<Callable<Result>>( classes.size() );
+        for ( final JavaClass cls : classes )
+        {
+            tasks.add( new Callable<Result>()
+            {
+                public Result call()
+                    throws IOException
+                {
+                    long start = System.nanoTime();
+                    Content content = new Content();
+                    DefaultModelWriter writer = newModelWriter( content.getWriter() );
+                    writer.writeTopLevelClass( cls );
+                    writer.flush();
+                    return write( getFile( cls.getPackageName(), cls.getName() ), content, start );
+                }
+            } );
+        }
+        return execute( tasks );
+    }
+
+    /**
+     * Override to write the code with another writer, like one with a different indentation. Called once per file, on
+     * the thread writing it.
+     * 
+     * @param out the target of the code
+     * @return a new writer streaming to <code>out</code>
+     */
+    protected DefaultModelWriter newModelWriter( Appendable out )
+    {
+        return new DefaultModelWriter( out );
+    }
+
+    private List<Result> execute( List<Callable<Result>> tasks )
+        throws IOException
+    {
+        List<Result> results = new ArrayList<Result>( tasks.size() );
+        if ( tasks.isEmpty() )
+        {
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threadCount, tasks.size() ) );
+        try
+        {
+            List<Future<Result>> futures = new ArrayList<Future<Result>>( tasks.size() );
+            for ( Callable<Result> task : tasks )
+            {
+                futures.add( executor.submit( task ) );
+            }
+            for ( Future<Result> future : futures )
+            {
+                results.add( future.get() );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while writing sources" );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            else if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            else if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new RuntimeException( cause );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private File getFile( JavaSource source )
+    {
+        String packageName = ( source.getPackage() != null ? source.getPackage().getName() : "" );
+        String name = "package-info";
+        if ( !source.getClasses().isEmpty() )
+        {
+            name = source.getClasses().get( 0 ).getName();
+            for ( JavaClass cls : source.getClasses() )
+            {
+                if ( cls.isPublic() )
+                {
+                    name = cls.getName();
+                    break;
+                }
+            }
+        }
+        return getFile( packageName, name );
+    }
+
+    private File getFile( String packageName, String name )
+    {
+        File directory = outputDirectory;
+        if ( packageName != null && packageName.length() > 0 )
+        {
+            directory = new File( outputDirectory, packageName.replace( '.', File.separatorChar ) );
+        }
+        return new File( directory, name + ".java" );
+    }
+
+    private Result write( File file, Content content, long start )
+        throws IOException
+    {
+        boolean written = false;
+        if ( !content.isContentOf( file ) )
+        {
+            File directory = file.getParentFile();
+            if ( !directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory() )
+            {
+                throw new IOException( "Cannot create directory : " + directory );
+            }
+            OutputStream out = new FileOutputStream( file );
+            try
+            {
+                content.writeTo( out );
+            }
+            finally
+            {
+                out.close();
+            }
+            written = true;
+        }
+        return new Result( file, written, System.nanoTime() - start );
+    }
+
+    /**
+     * The encoded code of a single file, compared with the current file without copying it.
+     */
+    private final class Content
+        extends ByteArrayOutputStream
+    {
+        Content()
+        {
+            super( 8192 );
+        }
+
+        Writer getWriter()
+            throws IOException
+        {
+            return ( encoding != null ? new OutputStreamWriter( this, encoding ) : new OutputStreamWriter( this ) );
+        }
+
+        boolean isContentOf( File file )
+            throws IOException
+        {
+            if ( !file.isFile() || file.length() != count )
+            {
+                return false;
+            }
+            InputStream in = new BufferedInputStream( new FileInputStream( file ) );
+            try
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    if ( in.read() != ( buf[i] & 0xFF ) )
+                    {
+                        return false;
+                    }
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The outcome of writing a single file.
+     */
+    public static final class Result
+    {
+        private final File file;
+
+        private final boolean written;
+
+        private final long elapsedTime;
+
+        Result( File file, boolean written, long elapsedTime )
+        {
+            this.file = file;
+            this.written = written;
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * @return the file for the code
+         */
+        public File getFile()
+        {
+            return file;
+        }
+
+        /**
+         * @return <code>true</code> if the file was written, <code>false</code> if it already had the same content
+         */
+        public boolean isWritten()
+        {
+            return written;
+        }
+
+        /**
+         * @return the time spent on rendering, comparing and writing the code, in nanoseconds
+         */
+        public long getElapsedTime()
+        {
+            return elapsedTime;
+        }
+
+        @Override
+        public String toString()
+        {
+            return file + ( written ? " written in " : " unchanged in " ) + ( elapsedTime / 1000000 ) + "ms";
+        }
+    }
+}
@@ -43,7 +43,56 @@ import com.thoughtworks.qdox.writer.ModelWriter;
 public class DefaultModelWriter
     implements ModelWriter
 {
-    private IndentBuffer buffer = new IndentBuffer();
+    private final IndentBuffer buffer;
+
+    /**
+     * Collects the written code in memory, available as {@link #toString()}.
+     */
+    public DefaultModelWriter()
+    {
+        this.buffer = new IndentBuffer();
+    }
+
+    /**
+     * Streams the written code to <code>out</code>, so large sources don't have to be kept in memory.
+     * Call {@link #flush()} when done writing. The code isn't available as {@link #toString()} then.
+     * 
+     * @param out the target of the code, for instance a {@link java.io.Writer}
+     * @since 2.0
+     */
+    public DefaultModelWriter( Appendable out )
+    {
+        this.buffer = new IndentBuffer( out );
+    }
+
+    /**
+     * @param indentation the text used for every level of indentation, a tab by default
+     * @since 2.0
+     */
+    public void setIndentation( String indentation )
+    {
+        buffer.setIndentation( indentation );
+    }
+
+    /**
+     * @param eol the line separator, a newline by default
+     * @since 2.0
+     */
+    public void setEol( String eol )
+    {
+        buffer.setEol( eol );
+    }
+
+    /**
+     * Passes everything written so far to the target of this writer.
+     * Has no effect when collecting the code in memory.
+     * 
+     * @since 2.0
+     */
+    public void flush()
+    {
+        buffer.flush();
+    }
     
     /**
      * All information is written to this buffer.
@@ -58,6 +107,38 @@ public class DefaultModelWriter
     
     /** {@inheritDoc} */
     public ModelWriter writeSource( JavaSource source )
+    {
+        writeHeader( source );
+
+        // classes
+        for ( ListIterator<JavaClass> iter = source.getClasses().listIterator(); iter.hasNext(); )
+        {
+            JavaClass cls = iter.next();
+            writeClass( cls );
+            if ( iter.hasNext() )
+            {
+                buffer.newline();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes a top level class as if it was the only class of its source, so preceded by the package statement and
+     * the imports of its source.
+     * 
+     * @param cls the top level class
+     * @return this writer
+     * @since 2.0
+     */
+    public ModelWriter writeTopLevelClass( JavaClass cls )
+    {
+        writeHeader( cls.getSource() );
+        writeClass( cls );
+        return this;
+    }
+
+    private void writeHeader( JavaSource source )
     {
         // package statement
         writePackage( source.getPackage() );
@@ -74,18 +155,6 @@ public class DefaultModelWriter
         {
             buffer.newline();
         }
-
-        // classes
-        for ( ListIterator<JavaClass> iter = source.getClasses().listIterator(); iter.hasNext(); )
-        {
-            JavaClass cls = iter.next();
-            writeClass( cls );
-            if ( iter.hasNext() )
-            {
-                buffer.newline();
-            }
-        }
-        return this;
     }
 
     /** {@inheritDoc} */
@@ -468,6 +537,10 @@ public class DefaultModelWriter
         }
     }
 
+    /**
+     * @return the written code
+     * @throws IllegalStateException if this writer streams the code to an {@link Appendable}
+     */
     @Override
     public String toString()
     {
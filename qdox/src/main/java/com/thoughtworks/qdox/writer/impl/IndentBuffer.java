@@ -19,16 +19,42 @@ package com.thoughtworks.qdox.writer.impl;
  * under the License.
  */
 
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Keeps track of the indentation while writing code. By default everything is collected in memory and available as
+ * {@link #toString()}. When created for an {@link Appendable}, like a {@link java.io.Writer}, the code is streamed to
+ * it instead: the text is collected in an unsynchronized buffer, which is passed on every time it gets full and when
+ * calling {@link #flush()}. In that case the code isn't available as {@link #toString()}.
+ */
 public class IndentBuffer
 {
+    private static final int FLUSH_THRESHOLD = 8192;
 
     private String eol = "\n";
     private String indentation = "\t";
-    private StringBuffer buffer = new StringBuffer();
+    private final StringBuilder buffer = new StringBuilder();
+
+    private final Appendable out;
 
     private int depth = 0;
 
     private boolean newLine;
+
+    public IndentBuffer()
+    {
+        this.out = null;
+    }
+
+    /**
+     * @param out the target of the code, which has to be {@link #flush() flushed} after writing
+     * @since 2.0
+     */
+    public IndentBuffer( Appendable out )
+    {
+        this.out = out;
+    }
     
     public void setEol( String eol )
     {
@@ -44,18 +70,21 @@ public class IndentBuffer
     {
         checkNewLine();
         buffer.append( s );
+        checkFlush();
     }
 
     public void write( char s )
     {
         checkNewLine();
         buffer.append( s );
+        checkFlush();
     }
 
     public void newline()
     {
         buffer.append( eol );
         newLine = true;
+        checkFlush();
     }
 
     public void indent()
@@ -68,11 +97,59 @@ public class IndentBuffer
         depth--;
     }
 
+    /**
+     * Pass the buffered text to the {@link Appendable} this buffer was created for and flush it if possible.
+     * Without such target everything stays in memory.
+     * 
+     * @throws RuntimeException if the text could not be written
+     * @since 2.0
+     */
+    public void flush()
+    {
+        if ( out != null )
+        {
+            passOn( true );
+        }
+    }
+
+    /**
+     * @return the written text
+     * @throws IllegalStateException when writing to an {@link Appendable}, because most of the text has been passed on
+     */
     public String toString()
     {
+        if ( out != null )
+        {
+            throw new IllegalStateException( "The code is written to " + out + ", not collected in memory" );
+        }
         return buffer.toString();
     }
 
+    private void checkFlush()
+    {
+        if ( out != null && buffer.length() >= FLUSH_THRESHOLD )
+        {
+            passOn( false );
+        }
+    }
+
+    private void passOn( boolean flush )
+    {
+        try
+        {
+            out.append( buffer );
+            buffer.setLength( 0 );
+            if ( flush && out instanceof Flushable )
+            {
+                ( (Flushable) out ).flush();
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( "Failed to write code: " + e.getMessage(), e );
+        }
+    }
+
     private void checkNewLine()
     {
         if ( newLine )
@@ -334,6 +334,30 @@ public class GenericsTest extends TestCase {
         assertEquals( "Subject[]", method.getParameterTypes( true ).get( 0 ).getGenericFullyQualifiedName() );
     }
     
+    public void testMethodReturnTypeOverMultipleLevels() throws Exception {
+        String source = "import java.util.List;\n" +
+                "public class Multi {\n" +
+                "  public static class A<T> { public T get() { return null; } public T[] all() { return null; } }\n" +
+                "  public static class B<U> extends A<List<U>> {}\n" +
+                "  public static class C extends B<String> {}\n" +
+                "}";
+        builder.addSource( new StringReader( source ) );
+        JavaClass clazz = builder.getClassByName( "Multi$C" );
+
+        JavaMethod method = clazz.getMethodBySignature( "get", null, true );
+        assertEquals( "java.util.List<java.lang.String>", method.getReturnType( true ).getGenericFullyQualifiedName() );
+        method = clazz.getMethodBySignature( "all", null, true );
+        assertEquals( "java.util.List<java.lang.String>[]", method.getReturnType( true ).getGenericFullyQualifiedName() );
+
+        for ( JavaMethod m : clazz.getMethods( true ) )
+        {
+            if ( "get".equals( m.getName() ) )
+            {
+                assertEquals( "java.util.List<java.lang.String>", m.getReturnType( true ).getGenericFullyQualifiedName() );
+            }
+        }
+    }
+
     //for QDOX-210
     public void testResolveTypeGetMethod() throws Exception {
         String source1="import java.util.*;" +
@@ -26,11 +26,20 @@ import java.util.Set;
 
 import junit.framework.TestCase;
 
+import com.thoughtworks.qdox.builder.TextStore;
+import com.thoughtworks.qdox.builder.impl.CompressedTextStore;
+import com.thoughtworks.qdox.builder.impl.DirectTextStore;
+import com.thoughtworks.qdox.builder.impl.EvaluatingVisitor;
+import com.thoughtworks.qdox.builder.impl.HeapTextStore;
+import com.thoughtworks.qdox.library.AbstractClassLibrary;
 import com.thoughtworks.qdox.library.ClassLibraryBuilder;
 import com.thoughtworks.qdox.library.ErrorHandler;
+import com.thoughtworks.qdox.library.FieldReferenceCache;
 import com.thoughtworks.qdox.library.OrderedClassLibraryBuilder;
+import com.thoughtworks.qdox.library.SortedClassLibraryBuilder;
 import com.thoughtworks.qdox.model.BeanProperty;
 import com.thoughtworks.qdox.model.DocletTag;
+import com.thoughtworks.qdox.model.JavaAnnotatedElement;
 import com.thoughtworks.qdox.model.JavaAnnotation;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaConstructor;
@@ -41,7 +50,13 @@ import com.thoughtworks.qdox.model.JavaPackage;
 import com.thoughtworks.qdox.model.JavaParameterizedType;
 import com.thoughtworks.qdox.model.JavaSource;
 import com.thoughtworks.qdox.model.JavaType;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
 import com.thoughtworks.qdox.model.JavaTypeVariable;
+import com.thoughtworks.qdox.model.expression.Add;
+import com.thoughtworks.qdox.model.expression.Cast;
+import com.thoughtworks.qdox.model.expression.FieldRef;
+import com.thoughtworks.qdox.model.expression.TypeRef;
+import com.thoughtworks.qdox.model.impl.DefaultJavaAnnotation;
 import com.thoughtworks.qdox.model.util.SerializationUtils;
 import com.thoughtworks.qdox.parser.ParseException;
 import com.thoughtworks.qdox.testdata.PropertyClass;
@@ -157,6 +172,28 @@ public class JavaProjectBuilderTest extends TestCase
         assertEquals(0, comBlahSubpackage.getSubPackages().size());
     }
 
+    public void testGetSubPackagesFollowsAddedSources() {
+        builder.addSource(new StringReader("package a; class A {}"));
+        builder.addSource(new StringReader("package a.b.c; class C {}"));
+        JavaPackage a = builder.getPackageByName( "a" );
+        assertNull(a.getParentPackage());
+        assertEquals(0, a.getSubPackages().size());
+
+        builder.addSource(new StringReader("package a.b; class B {}"));
+        builder.addSource(new StringReader("package a.d; class D {}"));
+        builder.addSource(new StringReader("package a.b; class B2 {}"));
+        JavaPackage ab = builder.getPackageByName( "a.b" );
+        JavaPackage abc = builder.getPackageByName( "a.b.c" );
+        List<JavaPackage> subPackages = new ArrayList<JavaPackage>( a.getSubPackages() );
+        assertEquals(2, subPackages.size());
+        assertEquals(ab, subPackages.get( 0 ));
+        assertEquals("a.d", subPackages.get( 1 ).getName());
+        assertEquals(2, ab.getClasses().size());
+        assertEquals(Collections.singletonList( abc ), ab.getSubPackages());
+        assertEquals(ab, abc.getParentPackage());
+        assertEquals(a, ab.getParentPackage());
+    }
+
     private String createOuter() {
         StringBuffer buffer = new StringBuffer();
         buffer.append("package foo.bar;");
@@ -420,6 +457,20 @@ public class JavaProjectBuilderTest extends TestCase
         assertTrue(sausage.isA("global.Stuff"));
     }
 
+    public void testIsAWithInterfaceDiamond() throws Exception {
+        builder.addSource(new StringReader("package food; interface Edible {}"));
+        builder.addSource(new StringReader("package food; interface Fruit extends Edible {}"));
+        builder.addSource(new StringReader("package food; interface Snack extends Edible {}"));
+        builder.addSource(new StringReader("package food; class Apple implements Fruit, Snack {}"));
+
+        JavaClass apple = builder.getClassByName("food.Apple");
+        assertTrue(apple.isA("food.Edible"));
+        assertTrue(apple.isA(builder.getClassByName("food.Snack")));
+        assertTrue(apple.isA("java.lang.Object"));
+        assertFalse(apple.isA("food.Meat"));
+        assertFalse(apple.isA((String) null));
+    }
+
     public void testImageIconBeanProperties() {
         JavaClass imageIcon = builder.getClassByName("javax.swing.ImageIcon");
 
@@ -470,6 +521,73 @@ public class JavaProjectBuilderTest extends TestCase
         assertEquals(0, derivedClassesOfArrayList.size());
     }
 
+    public void testDirectSubclassesAndImplementorsAreFound() {
+        builder.addSource(new StringReader("public interface Collection {}"));
+        builder.addSource(new StringReader("public interface List extends Collection {}"));
+        builder.addSource(new StringReader("public class AbstractList implements List {}"));
+
+        JavaClass collection = builder.getClassByName("Collection");
+        JavaClass list = builder.getClassByName("List");
+        JavaClass abstractList = builder.getClassByName("AbstractList");
+
+        assertEquals(Collections.singletonList(list), collection.getDirectSubclasses());
+        assertEquals(Collections.singletonList(abstractList), collection.getImplementors());
+        assertEquals(0, abstractList.getImplementors().size());
+
+        // the hierarchy must follow sources which are added later on
+        builder.addSource(new StringReader("public class ArrayList extends AbstractList {}"));
+        JavaClass arrayList = builder.getClassByName("ArrayList");
+
+        assertEquals(Collections.singletonList(arrayList), abstractList.getDirectSubclasses());
+        assertEquals(2, collection.getImplementors().size());
+        assertEquals(3, collection.getDerivedClasses().size());
+    }
+
+    public void testFrozenModel() {
+        builder.addSource(new StringReader("package foo;\n"
+            + "/** @since 2.0 */\n"
+            + "public class Base implements java.io.Serializable { public String getName() { return null; } }"));
+        builder.addSource(new StringReader("package foo; public class Sub extends Base { private int count; }"));
+        builder.freeze();
+
+        JavaClass sub = builder.getClassByName("foo.Sub");
+        assertNotNull(sub);
+        assertTrue(sub.isA("java.io.Serializable"));
+        assertNotNull(sub.getFieldByName("count"));
+        assertNotNull(sub.getBeanProperty("name", true));
+        assertEquals(Collections.singletonList(sub), builder.getClassByName("foo.Base").getDirectSubclasses());
+        assertEquals("2.0", builder.getClassByName("foo.Base").getTagByName("since").getParameters().get(0));
+        assertEquals(2, builder.getPackageByName("foo").getClasses().size());
+
+        try {
+            sub.getFields().clear();
+            fail("frozen collections should be unmodifiable");
+        }
+        catch (UnsupportedOperationException e) {
+        }
+        try {
+            builder.addSource(new StringReader("package foo; public class Other {}"));
+            fail("sources can't be added to a frozen library");
+        }
+        catch (IllegalStateException e) {
+        }
+        // freezing again has no effect
+        builder.freeze();
+    }
+
+    public void testClassesResolvedAfterFreezingAreShared() {
+        builder.freeze();
+
+        JavaClass map = builder.getClassByName("java.util.concurrent.ConcurrentHashMap");
+        assertSame(map, builder.getClassByName("java.util.concurrent.ConcurrentHashMap"));
+        try {
+            map.getMethods().clear();
+            fail("classes resolved after freezing should be frozen too");
+        }
+        catch (UnsupportedOperationException e) {
+        }
+    }
+
     public void testSourcePropertyClass() throws IOException {
         builder.addSource(new File("src/test/java/com/thoughtworks/qdox/testdata/PropertyClass.java"));
 
@@ -568,6 +686,316 @@ public class JavaProjectBuilderTest extends TestCase
         assertEquals("java.util.List", newBuilder.getClassByName("x.Z").getSuperClass().getFullyQualifiedName());
     }
     
+    public void testInheritedMethodsAreOverriddenByErasedSignature() {
+        builder.addSource(new StringReader("package x; public class Base {"
+            + "  public Object get(String key) throws Exception { return null; }"
+            + "  public void put(String key, Object value) {}"
+            + "}"));
+        builder.addSource(new StringReader("package x; public class Sub extends Base {"
+            + "  public String get(String name) { return name; }"
+            + "  public void put(Object key, Object value) {}"
+            + "}"));
+        JavaClass sub = builder.getClassByName("x.Sub");
+        List<JavaMethod> getters = new ArrayList<JavaMethod>();
+        List<JavaMethod> putters = new ArrayList<JavaMethod>();
+        for (JavaMethod method : sub.getMethods(true)) {
+            if ("get".equals(method.getName())) {
+                getters.add(method);
+            }
+            else if ("put".equals(method.getName())) {
+                putters.add(method);
+            }
+        }
+        assertEquals(1, getters.size());
+        assertEquals("java.lang.String", getters.get(0).getReturnType().getFullyQualifiedName());
+        assertEquals(2, putters.size());
+        assertEquals(getters.get(0), sub.getMethods().get(0));
+    }
+
+    public void testOverriddenAndOverridingMethods() {
+        builder.addSource(new StringReader("package x; public interface Store<K, V> {"
+            + "  V get(K key);"
+            + "  void clear();"
+            + "}"));
+        builder.addSource(new StringReader("package x; public abstract class NamedStore implements Store<String, Object> {"
+            + "  public Object get(String name) { return null; }"
+            + "  public Object get(Object name) { return null; }"
+            + "  public static void clear(String name) {}"
+            + "}"));
+        builder.addSource(new StringReader("package x; public class CachedStore extends NamedStore {"
+            + "  public String get(String name) { return name; }"
+            + "  public void clear() {}"
+            + "}"));
+        JavaClass store = builder.getClassByName("x.Store");
+        JavaClass namedStore = builder.getClassByName("x.NamedStore");
+        JavaClass cachedStore = builder.getClassByName("x.CachedStore");
+        JavaMethod storeGet = store.getMethods().get(0);
+        JavaMethod storeClear = store.getMethods().get(1);
+        JavaMethod namedGet = namedStore.getMethods().get(0);
+        JavaMethod cachedGet = cachedStore.getMethods().get(0);
+        JavaMethod cachedClear = cachedStore.getMethods().get(1);
+
+        assertEquals(Collections.singletonList(storeGet), namedGet.getOverriddenMethods());
+        assertEquals(0, namedStore.getMethods().get(1).getOverriddenMethods().size());
+        assertEquals(0, namedStore.getMethods().get(2).getOverriddenMethods().size());
+        assertEquals(Arrays.asList(namedGet, storeGet), cachedGet.getOverriddenMethods());
+        assertEquals(Collections.singletonList(storeClear), cachedClear.getOverriddenMethods());
+
+        assertEquals(Arrays.asList(namedGet, cachedGet), storeGet.getOverridingMethods());
+        assertEquals(Collections.singletonList(cachedGet), namedGet.getOverridingMethods());
+        assertEquals(0, cachedGet.getOverridingMethods().size());
+
+        builder.addSource(new StringReader("package x; public class OtherStore extends NamedStore {"
+            + "  public void clear() {}"
+            + "}"));
+        JavaMethod otherClear = builder.getClassByName("x.OtherStore").getMethods().get(0);
+        assertEquals(Arrays.asList(cachedClear, otherClear), storeClear.getOverridingMethods());
+    }
+
+    public void testTypeUsages() {
+        builder.addSource(new StringReader("package x; public class Key extends Exception implements Comparable<Key> {"
+            + "  public int compareTo(Key other) { return 0; }"
+            + "}"));
+        builder.addSource(new StringReader("package x; import java.util.*; @Key public class Store<K extends Key> {"
+            + "  private Map<Key, List<? extends Key>> keys;"
+            + "  public Key get(String name) throws Key { return null; }"
+            + "}"));
+        JavaClass key = builder.getClassByName("x.Key");
+        JavaClass store = builder.getClassByName("x.Store");
+        JavaMethod get = store.getMethods().get(0);
+
+        List<JavaTypeUsage> usages = builder.getTypeUsages("x.Key");
+        assertEquals(8, usages.size());
+        assertEquals(JavaTypeUsage.Kind.TYPE_ARGUMENT, usages.get(0).getKind());
+        assertEquals(key, usages.get(0).getUser());
+        assertEquals(JavaTypeUsage.Kind.PARAMETER, usages.get(1).getKind());
+        assertEquals(JavaTypeUsage.Kind.BOUND, usages.get(2).getKind());
+        assertEquals(store, usages.get(2).getUser());
+        assertEquals(JavaTypeUsage.Kind.ANNOTATION, usages.get(3).getKind());
+        assertEquals(store, usages.get(3).getUser());
+        assertEquals(JavaTypeUsage.Kind.TYPE_ARGUMENT, usages.get(4).getKind());
+        assertEquals(store.getFieldByName("keys"), usages.get(4).getUser());
+        assertEquals(JavaTypeUsage.Kind.TYPE_ARGUMENT, usages.get(5).getKind());
+        assertEquals(JavaTypeUsage.Kind.RETURN_TYPE, usages.get(6).getKind());
+        assertEquals(get, usages.get(6).getUser());
+        assertEquals(JavaTypeUsage.Kind.EXCEPTION, usages.get(7).getKind());
+        assertEquals(get, usages.get(7).getUser());
+
+        assertEquals(1, builder.getTypeUsages("java.lang.Exception").size());
+        assertEquals(JavaTypeUsage.Kind.SUPERCLASS, builder.getTypeUsages("java.lang.Exception").get(0).getKind());
+        assertEquals(JavaTypeUsage.Kind.INTERFACE, builder.getTypeUsages("java.lang.Comparable").get(0).getKind());
+        assertEquals(JavaTypeUsage.Kind.FIELD, builder.getTypeUsages("java.util.Map").get(0).getKind());
+
+        builder.addSource(new StringReader("package x; public class KeyHolder { public Key key; }"));
+        usages = builder.getTypeUsages("x.Key");
+        assertEquals(9, usages.size());
+        assertEquals(JavaTypeUsage.Kind.FIELD, usages.get(8).getKind());
+    }
+
+    public void testAnnotatedElements() {
+        builder.addSource(new StringReader("package x; public @interface Component {}"));
+        builder.addSource(new StringReader("package x; @Component public @interface Service {}"));
+        builder.addSource(new StringReader("package x; @Service public @interface Repository {}"));
+        builder.addSource(new StringReader("package x; @Component public class A {"
+            + "  @Deprecated @Component public void m(@Component String s) {}"
+            + "}"));
+        builder.addSource(new StringReader("package x; @Repository public class B { @Service private String s; }"));
+        JavaClass a = builder.getClassByName("x.A");
+        JavaClass b = builder.getClassByName("x.B");
+        JavaMethod m = a.getMethods().get(0);
+
+        assertEquals(Arrays.asList(builder.getClassByName("x.Service"), a, m, m.getParameters().get(0)),
+                     builder.getAnnotatedElements("x.Component"));
+        assertEquals(Collections.singletonList(m), builder.getAnnotatedElements("java.lang.Deprecated"));
+        assertEquals(Collections.singletonList(b), builder.getAnnotatedElements("x.Repository", true));
+
+        List<JavaAnnotatedElement> elements = builder.getAnnotatedElements("x.Component", true);
+        assertEquals(7, elements.size());
+        assertTrue(elements.contains(builder.getClassByName("x.Repository")));
+        assertTrue(elements.contains(b));
+        assertTrue(elements.contains(b.getFieldByName("s")));
+
+        builder.addSource(new StringReader("package x; @Service public class C {}"));
+        assertEquals(8, builder.getAnnotatedElements("x.Component", true).size());
+    }
+
+    public void testTagsByName() {
+        builder.addSource(new StringReader("package x;"
+            + "/** @ejb.bean name=\"A\"\n @author me */ public class A {"
+            + "  /** @ejb.field */ private String s;"
+            + "  /** @ejb.field primary\n @ejb.field second */ public String getS() { return s; }"
+            + "}"));
+        JavaMethod getS = builder.getClassByName("x.A").getMethods().get(0);
+
+        List<DocletTag> tags = builder.getTagsByName("ejb.field");
+        assertEquals(3, tags.size());
+        assertEquals(tags.subList(1, 3), getS.getTagsByName("ejb.field"));
+        assertSame(tags.get(1), getS.getTagByName("ejb.field"));
+        assertEquals(0, getS.getTagsByName("author").size());
+        assertNull(getS.getTagByName("author"));
+
+        assertEquals("A", builder.getTagsByName("ejb.bean").get(0).getNamedParameter("name"));
+        assertEquals(0, builder.getTagsByName("ejb.unknown").size());
+
+        builder.addSource(new StringReader("package x; /** @ejb.bean name=\"B\" */ public class B {}"));
+        assertEquals(2, builder.getTagsByName("ejb.bean").size());
+    }
+
+    public void testAnnotationExpressionsAreBoundToTheirElement() {
+        builder.addSource(new StringReader("package x; public @interface Inner { int size(); }"));
+        builder.addSource(new StringReader("package x; import java.util.List;"
+            + "public class X {"
+            + "  public static final int SIZE = 2;"
+            + "  @Ann(type = List.class, nested = @Inner(size = SIZE), cast = (List) null)"
+            + "  public void m() {}"
+            + "}"));
+        builder.addSource(new StringReader("package x; public enum E { A(x.X.SIZE + 1) ; E(int i) {} }"));
+        JavaClass x = builder.getClassByName("x.X");
+        JavaAnnotation ann = x.getMethods().get(0).getAnnotations().get(0);
+
+        TypeRef typeRef = (TypeRef) ann.getProperty("type");
+        assertEquals("java.util.List", typeRef.getType().getFullyQualifiedName());
+        JavaAnnotation inner = (JavaAnnotation) ann.getProperty("nested");
+        assertEquals("x.Inner", inner.getType().getFullyQualifiedName());
+        assertSame(x.getFieldByName("SIZE"), ((FieldRef) inner.getProperty("size")).getField());
+        assertEquals("java.util.List", ((Cast) ann.getProperty("cast")).getType().getFullyQualifiedName());
+
+        JavaField a = builder.getClassByName("x.E").getFieldByName("A");
+        Add add = (Add) a.getEnumConstantArguments().get(0);
+        assertSame(x.getFieldByName("SIZE"), ((FieldRef) add.getLeft()).getField());
+    }
+
+    public void testFieldReferencesAreEvaluatedFromTheirInitialization() {
+        builder.addSource(new StringReader("package x; public class Constants {"
+            + "  public static final String BASE = \"/api\";"
+            + "  public static final long TIMEOUT = 60 * 1000;"
+            + "  public static final int LOOP = LOOP + 1;"
+            + "}"));
+        builder.addSource(new StringReader("package x; public class Resource {"
+            + "  @Path(Constants.BASE + \"/x\") @Timeout(Constants.TIMEOUT) @Loop(Constants.LOOP)"
+            + "  @Binary(max = Integer.MAX_VALUE, last = Character.MAX_VALUE, nan = Double.NaN)"
+            + "  public void get() {}"
+            + "}"));
+        List<JavaAnnotation> annotations = builder.getClassByName("x.Resource").getMethods().get(0).getAnnotations();
+        EvaluatingVisitor visitor = new EvaluatingVisitor();
+
+        assertEquals("/api/x", visitor.getValue(annotations.get(0), "value"));
+        assertEquals(Long.valueOf(60000), visitor.getValue(annotations.get(1), "value"));
+        try {
+            visitor.getValue(annotations.get(2), "value");
+            fail("a field referring to itself can't be evaluated");
+        }
+        catch (IllegalArgumentException e) {
+        }
+
+        // compiled classes, evaluated from their ConstantValue attribute
+        assertEquals(Integer.MAX_VALUE, visitor.getValue(annotations.get(3), "max"));
+        assertEquals(Character.MAX_VALUE, visitor.getValue(annotations.get(3), "last"));
+        assertTrue(((Double) visitor.getValue(annotations.get(3), "nan")).isNaN());
+    }
+
+    public void testFieldReferencesAreResolvedOncePerClass() {
+        builder.addSource(new StringReader("package x; public class Constants { public static final int FOO = 1; }"));
+        builder.addSource(new StringReader("package x; public class X {"
+            + "  @A(Constants.FOO) public void a() {}"
+            + "  @A(Constants.FOO) public void b() {}"
+            + "  @A(Constants.BAR) public void c() {}"
+            + "}"));
+        JavaClass x = builder.getClassByName("x.X");
+        FieldReferenceCache cache = ((AbstractClassLibrary) x.getJavaClassLibrary()).getFieldReferenceCache();
+        FieldRef a = (FieldRef) x.getMethods().get(0).getAnnotations().get(0).getProperty("value");
+        FieldRef b = (FieldRef) x.getMethods().get(1).getAnnotations().get(0).getProperty("value");
+        FieldRef c = (FieldRef) x.getMethods().get(2).getAnnotations().get(0).getProperty("value");
+
+        assertNull(cache.get(x, "Constants.FOO"));
+        JavaField foo = a.getField();
+        assertSame(foo, cache.get(x, "Constants.FOO").getField());
+        assertSame(foo, b.getField());
+        assertEquals("Constants", b.getClassPart());
+        assertEquals("FOO", b.getFieldPart());
+
+        // unresolvable references are cached as well, until the library changes
+        assertNull(c.getField());
+        assertNotNull(cache.get(x, "Constants.BAR"));
+        assertNull(cache.get(x, "Constants.BAR").getField());
+        builder.addSource(new StringReader("package x; public class Other {}"));
+        assertNull(cache.get(x, "Constants.BAR"));
+    }
+
+    public void testEqualAnnotationsShareTheirContent() {
+        builder.addSource(new StringReader("package x; public class X {"
+            + "  @Override @SuppressWarnings(\"unchecked\") public String toString() { return null; }"
+            + "  @Override @SuppressWarnings(\"unchecked\") public int hashCode() { return 0; }"
+            + "  @SuppressWarnings(\"all\") @Size(max = SIZE) public void m() {}"
+            + "  static final int SIZE = 1;"
+            + "}"));
+        JavaClass x = builder.getClassByName("x.X");
+        List<JavaAnnotation> first = x.getMethods().get(0).getAnnotations();
+        List<JavaAnnotation> second = x.getMethods().get(1).getAnnotations();
+        List<JavaAnnotation> third = x.getMethods().get(2).getAnnotations();
+
+        assertSame(first.get(0).getType(), second.get(0).getType());
+        assertSame(first.get(1).getPropertyMap(), second.get(1).getPropertyMap());
+        assertSame(x.getMethods().get(1), ((DefaultJavaAnnotation) second.get(1)).getContext());
+        assertNotSame(first.get(1).getPropertyMap(), third.get(0).getPropertyMap());
+        assertEquals("java.lang.SuppressWarnings", third.get(0).getType().getFullyQualifiedName());
+        assertEquals("\"all\"", third.get(0).getNamedParameter("value"));
+        // field references are bound to the annotated element, so they are never shared
+        assertSame(x.getFieldByName("SIZE"), ((FieldRef) third.get(1).getProperty("max")).getField());
+
+        // changing a shared annotation doesn't affect the others
+        ((DefaultJavaAnnotation) second.get(1)).setProperty("value", third.get(0).getProperty("value"));
+        assertEquals("\"all\"", second.get(1).getNamedParameter("value"));
+        assertEquals("\"unchecked\"", first.get(1).getNamedParameter("value"));
+    }
+
+    public void testAnnotationNamedParametersMatchTheirProperties() {
+        String source = "package x; @Table(name = \"T\", indexes = { @Index(columns = \"a\") }) public class X {}";
+        for ( int i = 0; i < 2; i++ )
+        {
+            builder = new JavaProjectBuilder();
+            JavaClass x = builder.addSource(new StringReader(source)).getClassByName("X");
+            if ( i == 1 )
+            {
+                builder.freeze();
+            }
+            JavaAnnotation table = x.getAnnotations().get(0);
+            assertEquals("\"T\"", table.getProperty("name").toString());
+            assertEquals("\"T\"", table.getNamedParameter("name"));
+            List<?> indexes = (List<?>) table.getNamedParameter("indexes");
+            JavaAnnotation index = (JavaAnnotation) indexes.get(0);
+            assertEquals("\"a\"", index.getNamedParameter("columns"));
+            assertEquals(Arrays.asList("name", "indexes"), new ArrayList<String>(table.getPropertyMap().keySet()));
+        }
+    }
+
+    public void testTextStores() throws Exception {
+        String source = "package x;\n"
+            + "/** The class comment, which is long enough to be stored elsewhere. */\n"
+            + "public class X {\n"
+            + "  /** @version a value which is long enough to be stored elsewhere */\n"
+            + "  private String s = \"an initialization expression, which is long enough to be stored elsewhere\";\n"
+            + "  public String m() { return \"a method body, which is long enough to be stored elsewhere\"; }\n"
+            + "}";
+        TextStore[] textStores = { new HeapTextStore(), new CompressedTextStore( 0 ), new DirectTextStore( 0, 64 ) };
+        for ( TextStore textStore : textStores )
+        {
+            builder = new JavaProjectBuilder( new SortedClassLibraryBuilder().setTextStore( textStore ) );
+            JavaClass x = builder.addSource( new StringReader( source ) ).getClassByName( "X" );
+            for ( int i = 0; i < 2; i++ )
+            {
+                assertEquals( "The class comment, which is long enough to be stored elsewhere.", x.getComment() );
+                JavaField s = x.getFieldByName( "s" );
+                assertEquals( "a value which is long enough to be stored elsewhere", s.getTagByName( "version" ).getValue() );
+                assertEquals( "\"an initialization expression, which is long enough to be stored elsewhere\"",
+                              s.getInitializationExpression() );
+                assertEquals( "return \"a method body, which is long enough to be stored elsewhere\";",
+                              x.getMethods().get( 0 ).getSourceCode().trim() );
+                x = (JavaClass) SerializationUtils.serializedCopy( x );
+            }
+        }
+    }
+    
     public void testSaveAndRestoreWithoutDefaultClassloaders() throws Exception {
         builder = new JavaProjectBuilder( new OrderedClassLibraryBuilder() );
         File file = new File("target/test-source/cache.obj");
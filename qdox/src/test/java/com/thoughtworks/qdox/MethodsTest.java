@@ -1,13 +1,18 @@
 package com.thoughtworks.qdox;
 
 import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import junit.framework.TestCase;
 
 import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaConstructor;
 import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.JavaParameter;
 import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaType;
 
 public class MethodsTest extends TestCase {
 
@@ -41,6 +46,32 @@ public class MethodsTest extends TestCase {
         assertEquals("void doStuff(AThing param1, BThing... param2);\n", javaMethod.getCodeBlock());
     }
 
+    public void testOverloadedMethodsAndConstructorsAreFound() {
+        String source = "class Overloads { "
+            + "Overloads() {} Overloads(int a) {} Overloads(String... s) {} "
+            + "void doStuff() {} void doStuff(int a) {} void doStuff(String a) {} void doStuff(int a, int b) {} "
+            + "void doStuff(String... s) {} }";
+        JavaClass javaClass = builder.addSource(new StringReader(source)).getClasses().get(0);
+
+        JavaType intType = javaClass.getMethods().get(1).getParameterTypes().get(0);
+        JavaType stringType = javaClass.getMethods().get(2).getParameterTypes().get(0);
+        List<JavaType> noTypes = Collections.emptyList();
+
+        assertSame(javaClass.getMethods().get(0), javaClass.getMethodBySignature("doStuff", null));
+        assertSame(javaClass.getMethods().get(1), javaClass.getMethodBySignature("doStuff", Collections.singletonList(intType)));
+        assertSame(javaClass.getMethods().get(2), javaClass.getMethodBySignature("doStuff", Collections.singletonList(stringType)));
+        assertSame(javaClass.getMethods().get(3), javaClass.getMethodBySignature("doStuff", Arrays.asList(intType, intType)));
+        assertSame(javaClass.getMethods().get(4), javaClass.getMethod("doStuff", Collections.singletonList(stringType), true));
+        assertNull(javaClass.getMethodBySignature("doStuff", Arrays.asList(stringType, stringType)));
+        assertNull(javaClass.getMethodBySignature("doOtherStuff", noTypes));
+
+        List<JavaConstructor> constructors = javaClass.getConstructors();
+        assertSame(constructors.get(0), javaClass.getConstructor(noTypes));
+        assertSame(constructors.get(1), javaClass.getConstructor(Collections.singletonList(intType)));
+        assertSame(constructors.get(2), javaClass.getConstructor(Collections.singletonList(stringType), true));
+        assertNull(javaClass.getConstructor(Collections.singletonList(stringType)));
+    }
+
     private JavaMethod buildMethod(String methodSource) {
         String source = "interface Something { " + methodSource + " }";
         JavaSource javaSource = builder.addSource(new StringReader(source));
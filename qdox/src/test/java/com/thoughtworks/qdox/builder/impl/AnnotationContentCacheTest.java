@@ -0,0 +1,111 @@
+package com.thoughtworks.qdox.builder.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.expression.AnnotationValue;
+import com.thoughtworks.qdox.model.expression.AnnotationValueList;
+import com.thoughtworks.qdox.model.expression.Constant;
+import com.thoughtworks.qdox.model.expression.FieldRef;
+import com.thoughtworks.qdox.model.impl.DefaultJavaAnnotation;
+import com.thoughtworks.qdox.model.impl.DefaultJavaClass;
+import com.thoughtworks.qdox.model.impl.DefaultJavaType;
+import com.thoughtworks.qdox.parser.structs.TypeDef;
+
+public class AnnotationContentCacheTest
+{
+    private AnnotationContentCache cache = new AnnotationContentCache();
+
+    private JavaClass type = new DefaultJavaClass( "SuppressWarnings" );
+
+    @Test
+    public void testTypesAreSharedPerContext()
+    {
+        JavaClass context = new DefaultJavaClass( "A" );
+        JavaClass otherContext = new DefaultJavaClass( "B" );
+
+        DefaultJavaType type = cache.getType( new TypeDef( "Override" ), context );
+
+        assertSame( type, cache.getType( new TypeDef( "Override" ), context ) );
+        assertNotSame( type, cache.getType( new TypeDef( "Override" ), otherContext ) );
+    }
+
+    @Test
+    public void testLiteralPropertiesAreShared()
+    {
+        Map<String, AnnotationValue> properties = properties( "value", Constant.newStringLiteral( "\"unchecked\"" ) );
+        Map<String, AnnotationValue> equalProperties =
+            properties( "value", Constant.newStringLiteral( "\"unchecked\"" ) );
+
+        Map<String, AnnotationValue> shared = cache.getProperties( type, properties );
+
+        assertEquals( properties, shared );
+        assertSame( shared, cache.getProperties( type, equalProperties ) );
+        assertNotSame( shared,
+                       cache.getProperties( type, properties( "value", Constant.newStringLiteral( "\"rawtypes\"" ) ) ) );
+        assertNotSame( shared, cache.getProperties( new DefaultJavaClass( "Other" ), equalProperties ) );
+    }
+
+    @Test
+    public void testListsOfLiteralsAreShared()
+    {
+        AnnotationValue list =
+            new AnnotationValueList( Arrays.<AnnotationValue>asList( Constant.newStringLiteral( "\"unchecked\"" ),
+                                                                     Constant.newStringLiteral( "\"rawtypes\"" ) ) );
+
+        assertEquals( properties( "value", list ), cache.getProperties( type, properties( "value", list ) ) );
+    }
+
+    @Test
+    public void testFieldReferencesAreNotShared()
+    {
+        assertNull( cache.getProperties( type, properties( "value", new FieldRef( "Constants.FOO" ) ) ) );
+    }
+
+    @Test
+    public void testSharedPropertiesCantBeModified()
+    {
+        Map<String, AnnotationValue> shared =
+            cache.getProperties( type, properties( "value", Constant.newIntegerLiteral( "1" ) ) );
+        try
+        {
+            shared.clear();
+            fail( "shared properties should be unmodifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+        }
+    }
+
+    @Test
+    public void testAnnotationCopiesSharedPropertiesBeforeChangingThem()
+    {
+        Map<String, AnnotationValue> shared = cache.getProperties( type, Collections.<String, AnnotationValue>emptyMap() );
+        DefaultJavaAnnotation annotation = new DefaultJavaAnnotation( type, shared, 1 );
+        DefaultJavaAnnotation other = new DefaultJavaAnnotation( type, shared, 2 );
+
+        annotation.setProperty( "value", Constant.newIntegerLiteral( "1" ) );
+
+        assertEquals( 1, annotation.getPropertyMap().size() );
+        assertEquals( 0, other.getPropertyMap().size() );
+        assertEquals( 0, shared.size() );
+    }
+
+    private static Map<String, AnnotationValue> properties( String name, AnnotationValue value )
+    {
+        Map<String, AnnotationValue> result = new LinkedHashMap<String, AnnotationValue>();
+        result.put( name, value );
+        return result;
+    }
+}
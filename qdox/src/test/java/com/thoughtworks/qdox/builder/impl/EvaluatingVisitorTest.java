@@ -1,10 +1,13 @@
 package com.thoughtworks.qdox.builder.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -27,6 +30,7 @@ import com.thoughtworks.qdox.model.expression.And;
 import com.thoughtworks.qdox.model.expression.AnnotationValue;
 import com.thoughtworks.qdox.model.expression.AnnotationValueList;
 import com.thoughtworks.qdox.model.expression.Cast;
+import com.thoughtworks.qdox.model.expression.Constant;
 import com.thoughtworks.qdox.model.expression.Divide;
 import com.thoughtworks.qdox.model.expression.Equals;
 import com.thoughtworks.qdox.model.expression.ExclusiveOr;
@@ -1322,10 +1326,71 @@ public class EvaluatingVisitorTest
         {
         }
     }
-    
+
+    @Test
+    public void testCachingFoldsConstantExpressions()
+    {
+        Add add = new Add( Constant.newIntegerLiteral( "1" ), Constant.newIntegerLiteral( "2" ) );
+        Multiply multiply = new Multiply( new ParenExpression( add ), Constant.newIntegerLiteral( "3" ) );
+        DefaultJavaAnnotation annotation = new DefaultJavaAnnotation( mock( JavaClass.class ), 0 );
+        annotation.setProperty( "value", multiply );
+
+        assertEquals( 9, visitor.getValue( annotation, "value" ) );
+        assertNull( multiply.getFoldedValue() );
+
+        assertEquals( 9, new EvaluatingVisitor( true ).getValue( annotation, "value" ) );
+        assertEquals( 9, multiply.getFoldedValue() );
+        assertEquals( 3, add.getFoldedValue() );
+    }
+
+    @Test
+    public void testCachingRemembersPropertyValues()
+    {
+        AnnotationValue lhs = mock( AnnotationValue.class );
+        EvaluatingVisitor cachingVisitor = new EvaluatingVisitorStub( true );
+        when( lhs.accept( cachingVisitor ) ).thenReturn( 7 );
+        Add add = new Add( lhs, Constant.newIntegerLiteral( "2" ) );
+        DefaultJavaAnnotation annotation = new DefaultJavaAnnotation( mock( JavaClass.class ), 0 );
+        annotation.setProperty( "value", add );
+
+        assertEquals( 9, cachingVisitor.getValue( annotation, "value" ) );
+        assertEquals( 9, cachingVisitor.getValue( annotation, "value" ) );
+        assertNull( cachingVisitor.getValue( annotation, "other" ) );
+        verify( lhs, times( 1 ) ).accept( cachingVisitor );
+        assertNull( add.getFoldedValue() );
+    }
+
+    @Test
+    public void testCachedPropertyValuesAreDroppedWhenTheLibraryIsModified()
+    {
+        AnnotationValue lhs = mock( AnnotationValue.class );
+        EvaluatingVisitor cachingVisitor = new EvaluatingVisitorStub( true );
+        when( lhs.accept( cachingVisitor ) ).thenReturn( 7 );
+        ClassLibrary classLibrary = mock( ClassLibrary.class );
+        JavaClass type = mock( JavaClass.class );
+        when( type.getJavaClassLibrary() ).thenReturn( classLibrary );
+        DefaultJavaAnnotation annotation = new DefaultJavaAnnotation( type, 0 );
+        annotation.setProperty( "value", new Add( lhs, Constant.newIntegerLiteral( "2" ) ) );
+
+        assertEquals( 9, cachingVisitor.getValue( annotation, "value" ) );
+        assertEquals( 9, cachingVisitor.getValue( annotation, "value" ) );
+        when( classLibrary.getModificationCount() ).thenReturn( 1 );
+        assertEquals( 9, cachingVisitor.getValue( annotation, "value" ) );
+        verify( lhs, times( 2 ) ).accept( cachingVisitor );
+    }
+
     private static class EvaluatingVisitorStub extends EvaluatingVisitor {
         
         static final Object fieldReferenceValue = new Object();
+
+        EvaluatingVisitorStub()
+        {
+        }
+
+        EvaluatingVisitorStub( boolean caching )
+        {
+            super( caching );
+        }
         
         @Override
         protected Object getFieldReferenceValue( JavaField javaField )
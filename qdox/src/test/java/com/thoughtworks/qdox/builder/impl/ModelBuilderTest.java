@@ -8,11 +8,14 @@ import junit.framework.TestCase;
 
 import com.thoughtworks.qdox.library.ClassNameLibrary;
 import com.thoughtworks.qdox.model.DocletTagFactory;
+import com.thoughtworks.qdox.model.JavaAnnotation;
 import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaConstructor;
 import com.thoughtworks.qdox.model.JavaField;
 import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.parser.expression.ConstantDef;
+import com.thoughtworks.qdox.parser.structs.AnnoDef;
 import com.thoughtworks.qdox.parser.structs.ClassDef;
 import com.thoughtworks.qdox.parser.structs.FieldDef;
 import com.thoughtworks.qdox.parser.structs.InitDef;
@@ -106,6 +109,19 @@ public class ModelBuilderTest extends TestCase {
         assertEquals(1, source.getClasses().size());
     }
 
+    public void testAnnotationArgumentsAsElemValueDefs() throws Exception {
+        AnnoDef annoDef = new AnnoDef(new TypeDef("Table"));
+        annoDef.getArgs().put("name", new ConstantDef("\"T\"", String.class));
+        annoDef.getArgs().put("size", new ConstantDef("3", Integer.class));
+        builder.addAnnotation(annoDef);
+        builder.beginClass(new ClassDef("X"));
+        builder.endClass();
+
+        JavaAnnotation annotation = builder.getSource().getClasses().get(0).getAnnotations().get(0);
+        assertEquals("\"T\"", annotation.getNamedParameter("name"));
+        assertEquals("3", annotation.getProperty("size").getParameterValue());
+    }
+
     public void testClassExtends() throws Exception {
         ClassDef cls = new ClassDef();
         builder.beginClass(cls);
@@ -437,6 +453,33 @@ public class ModelBuilderTest extends TestCase {
         assertEquals(2, result.getParameters().get(1).getJavaClass().getDimensions());
     }
 
+    public void testEqualTypesAreShared() throws Exception {
+        builder.beginClass(new ClassDef());
+        builder.beginMethod();
+        MethodDef mth = new MethodDef();
+        mth.setReturnType( new TypeDef("String") );
+
+        FieldDef f1 = new FieldDef();
+        f1.setName( "name" );
+        f1.setType( new TypeDef("String") );
+        builder.addParameter( f1 );
+
+        FieldDef f2 = new FieldDef();
+        f2.setName( "names" );
+        f2.setType( new TypeDef("String") );
+        f2.setDimensions( 1 );
+        builder.addParameter( f2 );
+
+        builder.endMethod(mth);
+        builder.endClass();
+
+        JavaSource source = builder.getSource();
+        JavaMethod result = source.getClasses().get(0).getMethods().get(0);
+        assertSame(result.getReturnType(), result.getParameters().get(0).getType());
+        assertNotSame(result.getReturnType(), result.getParameters().get(1).getType());
+        assertEquals(1, result.getParameters().get(1).getJavaClass().getDimensions());
+    }
+
     public void testMethodExceptions() throws Exception {
         builder.beginClass(new ClassDef());
         MethodDef mth = new MethodDef();
@@ -1,12 +1,17 @@
 package com.thoughtworks.qdox.directorywalker;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import org.junit.Test;
 
@@ -197,4 +202,139 @@ public class DirectoryScannerTest
         verify( visitor ).visitFile( fooJava );
         verify( visitor ).visitFile( pigJava );
     }
+
+    @Test
+    public void testUnreadableDirectory()
+    {
+        File rootDir = newMockFile( "root", true );
+        {
+            File subDir = newMockFile( "subdir", true );
+            File fooJava = newMockFile( "foo.java" );
+
+            when( subDir.listFiles() ).thenReturn( null );
+            when( rootDir.listFiles() ).thenReturn( new File[] { subDir, fooJava } );
+        }
+        DirectoryScanner scanner = new DirectoryScanner( rootDir );
+        List<File> files = scanner.scan();
+        assertEquals( 1, files.size() );
+        assertEquals( "foo.java", files.get( 0 ).getName() );
+    }
+
+    @Test
+    public void testIncludesAndExcludes()
+    {
+        File rootDir = newMockFile( "root", true );
+        File targetDir = newMockFile( "target", true );
+        {
+            File srcDir = newMockFile( "src", true );
+            {
+                File fooJava = newMockFile( "Foo.java" );
+                File fooTestJava = newMockFile( "FooTest.java" );
+                File fooTxt = newMockFile( "foo.txt" );
+
+                when( srcDir.listFiles() ).thenReturn( new File[] { fooJava, fooTestJava, fooTxt } );
+            }
+            File barJava = newMockFile( "Bar.java" );
+
+            when( rootDir.listFiles() ).thenReturn( new File[] { srcDir, targetDir, barJava } );
+        }
+        DirectoryScanner scanner = new DirectoryScanner( rootDir );
+        scanner.addInclude( "src/**/*.java" );
+        scanner.addExclude( "**/*Test.java" );
+        scanner.addExclude( "target/" );
+        List<File> files = scanner.scan();
+        assertEquals( 1, files.size() );
+        assertEquals( "Foo.java", files.get( 0 ).getName() );
+        verify( targetDir, never() ).listFiles();
+    }
+
+    @Test
+    public void testSymbolicLinkLoop()
+        throws Exception
+    {
+        File rootDir = newMockFile( "root", true );
+        when( rootDir.getCanonicalPath() ).thenReturn( "/root" );
+        {
+            File linkDir = newMockFile( "link", true );
+            when( linkDir.getCanonicalPath() ).thenReturn( "/root" );
+            File fooJava = newMockFile( "foo.java" );
+
+            when( rootDir.listFiles() ).thenReturn( new File[] { linkDir, fooJava } );
+            when( linkDir.listFiles() ).thenReturn( new File[] { linkDir, fooJava } );
+        }
+        DirectoryScanner scanner = new DirectoryScanner( rootDir );
+        List<File> files = scanner.scan();
+        assertEquals( 1, files.size() );
+        assertEquals( "foo.java", files.get( 0 ).getName() );
+    }
+
+    @Test
+    public void testCanonicalPathsAreOnlyResolvedBelowLinks()
+        throws Exception
+    {
+        File tempDir = File.createTempFile( "qdox", "scan" );
+        tempDir.delete();
+        File subDir = new File( tempDir, "sub" );
+        subDir.mkdirs();
+        File fooJava = new File( subDir, "foo.java" );
+        fooJava.createNewFile();
+        try
+        {
+            File rootDir = spy( tempDir );
+            DirectoryScanner scanner = new DirectoryScanner( rootDir );
+            List<File> files = scanner.scan();
+            assertEquals( 1, files.size() );
+            assertEquals( "foo.java", files.get( 0 ).getName() );
+            verify( rootDir, never() ).getCanonicalPath();
+        }
+        finally
+        {
+            fooJava.delete();
+            subDir.delete();
+            tempDir.delete();
+        }
+    }
+
+    @Test
+    public void testParallelScanKeepsOrder()
+    {
+        File rootDir = newMockFile( "root", true );
+        File[] subDirs = new File[10];
+        for ( int i = 0; i < subDirs.length; i++ )
+        {
+            subDirs[i] = newMockFile( "subdir" + i, true );
+            File childA = newMockFile( "child" + i + "a.java" );
+            File childB = newMockFile( "child" + i + "b.java" );
+            when( subDirs[i].listFiles() ).thenReturn( new File[] { childA, childB } );
+        }
+        when( rootDir.listFiles() ).thenReturn( subDirs );
+
+        DirectoryScanner scanner = new DirectoryScanner( rootDir );
+        scanner.setThreadCount( 4 );
+        List<File> files = scanner.scan();
+        assertEquals( 20, files.size() );
+        for ( int i = 0; i < subDirs.length; i++ )
+        {
+            assertEquals( "child" + i + "a.java", files.get( 2 * i ).getName() );
+            assertEquals( "child" + i + "b.java", files.get( 2 * i + 1 ).getName() );
+        }
+    }
+
+    @Test
+    public void testGlobs()
+    {
+        Pattern pattern = DirectoryScanner.toPattern( "**/*.java" );
+        assertTrue( pattern.matcher( "Foo.java" ).matches() );
+        assertTrue( pattern.matcher( "a/b/Foo.java" ).matches() );
+        assertFalse( pattern.matcher( "a/Foo.javax" ).matches() );
+
+        pattern = DirectoryScanner.toPattern( "a/?oo.java" );
+        assertTrue( pattern.matcher( "a/Foo.java" ).matches() );
+        assertFalse( pattern.matcher( "a/b/Foo.java" ).matches() );
+
+        pattern = DirectoryScanner.toPattern( "**/.git/" );
+        assertTrue( pattern.matcher( ".git/" ).matches() );
+        assertTrue( pattern.matcher( "a/.git/config" ).matches() );
+        assertFalse( pattern.matcher( "a/git/config" ).matches() );
+    }
 }
@@ -0,0 +1,47 @@
+package com.thoughtworks.qdox.library;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * Base for the tests of the indexes and caches of a library, which are fed with sources parsed from snippets of code.
+ */
+public abstract class AbstractLibraryIndexTest
+    extends TestCase
+{
+    protected SourceLibrary sourceLibrary;
+
+    protected void setUp()
+        throws Exception
+    {
+        // the parent resolves classes like java.lang.Object
+        ClassLoaderLibrary classLoaderLibrary = new ClassLoaderLibrary( null );
+        classLoaderLibrary.addDefaultLoader();
+        sourceLibrary = new SourceLibrary( classLoaderLibrary );
+    }
+
+    /**
+     * Called for every source added by the test, so it can be passed on to the tested index.
+     * 
+     * @param source the added source
+     */
+    protected void sourceAdded( JavaSource source )
+    {
+    }
+
+    protected JavaSource addSource( String code )
+    {
+        JavaSource source = sourceLibrary.addSource( new StringReader( code ) );
+        sourceAdded( source );
+        return source;
+    }
+
+    protected JavaClass addClass( String code )
+    {
+        return addSource( code ).getClasses().get( 0 );
+    }
+}
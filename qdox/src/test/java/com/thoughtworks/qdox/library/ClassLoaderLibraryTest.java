@@ -2,6 +2,8 @@ package com.thoughtworks.qdox.library;
 
 import junit.framework.TestCase;
 
+import com.thoughtworks.qdox.model.JavaClass;
+
 public class ClassLoaderLibraryTest
     extends TestCase
 {
@@ -33,4 +35,22 @@ public class ClassLoaderLibraryTest
         assertNull(classLoaderLibrary.getJavaClass("java.util.GoatCrusher"));
     }
 
+    public void testFrozenLibraryResolvesUnknownClasses() throws Exception {
+        classLoaderLibrary.addDefaultLoader();
+        classLoaderLibrary.freeze();
+        assertEquals("java.util.Collection", classLoaderLibrary.getJavaClass("java.util.Collection").getFullyQualifiedName());
+        assertNull(classLoaderLibrary.getJavaClass("java.util.GoatCrusher"));
+        assertEquals(0, classLoaderLibrary.getJavaSources().size());
+    }
+
+    public void testConstantValuesOfBinaryClasses() throws Exception {
+        classLoaderLibrary.addDefaultLoader();
+        JavaClass integer = classLoaderLibrary.getJavaClass("java.lang.Integer");
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), classLoaderLibrary.getConstantValue(integer.getFieldByName("MIN_VALUE")));
+        assertNull(classLoaderLibrary.getConstantValue(integer.getFieldByName("TYPE")));
+        JavaClass character = classLoaderLibrary.getJavaClass("java.lang.Character");
+        assertEquals(Character.valueOf(Character.MAX_VALUE), classLoaderLibrary.getConstantValue(character.getFieldByName("MAX_VALUE")));
+        assertNull(integer.getFieldByName("MIN_VALUE").getInitializationExpression());
+    }
+
 }
@@ -0,0 +1,65 @@
+package com.thoughtworks.qdox.library;
+
+import java.util.List;
+
+import com.thoughtworks.qdox.model.DocletTag;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+public class DocletTagIndexTest
+    extends AbstractLibraryIndexTest
+{
+    private DocletTagIndex index;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        index = new DocletTagIndex();
+    }
+
+    @Override
+    protected void sourceAdded( JavaSource source )
+    {
+        index.add( source );
+    }
+
+    public void testUnknownTag()
+    {
+        addSource( "package x; /** @author me */ public class A {}" );
+
+        assertEquals( 0, index.getTagsByName( "since" ).size() );
+    }
+
+    public void testTagsInSourceOrder()
+    {
+        JavaClass a = addSource( "package x; /** @ejb.bean name=\"A\" */ public class A {"
+            + "  /** @ejb.field */ private String s;"
+            + "  /** @ejb.field primary\n @ejb.field second */ public String getS() { return s; }"
+            + "}" ).getClasses().get( 0 );
+
+        List<DocletTag> tags = index.getTagsByName( "ejb.field" );
+        assertEquals( 3, tags.size() );
+        assertSame( a.getFieldByName( "s" ), tags.get( 0 ).getContext() );
+        assertSame( a.getMethods().get( 0 ), tags.get( 1 ).getContext() );
+        assertEquals( "second", tags.get( 2 ).getValue() );
+        assertSame( a, index.getTagsByName( "ejb.bean" ).get( 0 ).getContext() );
+    }
+
+    public void testSourceIsRegisteredOnce()
+    {
+        JavaSource source = addSource( "package x; /** @author me */ public class A {}" );
+        index.add( source );
+
+        assertEquals( 1, index.getTagsByName( "author" ).size() );
+    }
+
+    public void testSourcesAddedAfterQueryAreIndexed()
+    {
+        addSource( "package x; /** @author me */ public class A {}" );
+        assertEquals( 1, index.getTagsByName( "author" ).size() );
+
+        addSource( "package x; /** @author you */ public class B {}" );
+        assertEquals( 2, index.getTagsByName( "author" ).size() );
+    }
+}
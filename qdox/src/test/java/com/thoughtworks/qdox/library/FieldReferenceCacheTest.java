@@ -0,0 +1,52 @@
+package com.thoughtworks.qdox.library;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
+
+public class FieldReferenceCacheTest
+    extends AbstractLibraryIndexTest
+{
+    private FieldReferenceCache cache;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        cache = new FieldReferenceCache( sourceLibrary );
+    }
+
+    public void testResolutionsArePerScope()
+    {
+        JavaClass constants = addClass( "package x; public class Constants { public static final int FOO = 1; }" );
+        JavaClass a = addClass( "package x; public class A {}" );
+        JavaClass b = addClass( "package x; public class B {}" );
+        JavaField foo = constants.getFieldByName( "FOO" );
+
+        assertNull( cache.get( a, "Constants.FOO" ) );
+        cache.put( a, "Constants.FOO", new FieldReferenceCache.Resolution( foo, 1 ) );
+
+        assertSame( foo, cache.get( a, "Constants.FOO" ).getField() );
+        assertEquals( 1, cache.get( a, "Constants.FOO" ).getFieldIndex() );
+        assertNull( cache.get( b, "Constants.FOO" ) );
+        assertNull( cache.get( a, "x.Constants.FOO" ) );
+    }
+
+    public void testUnresolvedReferencesAreCached()
+    {
+        JavaClass a = addClass( "package x; public class A {}" );
+        cache.put( a, "Constants.BAR", new FieldReferenceCache.Resolution( null, -1 ) );
+
+        assertNotNull( cache.get( a, "Constants.BAR" ) );
+        assertNull( cache.get( a, "Constants.BAR" ).getField() );
+    }
+
+    public void testResolutionsAreDroppedWhenTheLibraryIsModified()
+    {
+        JavaClass a = addClass( "package x; public class A {}" );
+        cache.put( a, "Constants.BAR", new FieldReferenceCache.Resolution( null, -1 ) );
+
+        addClass( "package x; public class Constants { public static final int BAR = 2; }" );
+
+        assertNull( cache.get( a, "Constants.BAR" ) );
+    }
+}
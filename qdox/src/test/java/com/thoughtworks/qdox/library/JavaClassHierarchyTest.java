@@ -0,0 +1,74 @@
+package com.thoughtworks.qdox.library;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import com.thoughtworks.qdox.model.JavaClass;
+
+public class JavaClassHierarchyTest
+    extends TestCase
+{
+    private JavaClassHierarchy hierarchy;
+
+    protected void setUp()
+        throws Exception
+    {
+        hierarchy = new JavaClassHierarchy();
+    }
+
+    private JavaClass newJavaClass( String name, JavaClass superClass, JavaClass... interfaces )
+    {
+        JavaClass result = mock( JavaClass.class );
+        when( result.getFullyQualifiedName() ).thenReturn( name );
+        when( result.getSuperJavaClass() ).thenReturn( superClass );
+        when( result.getImplementedInterfaces() ).thenReturn( Arrays.asList( interfaces ) );
+        return result;
+    }
+
+    public void testEmptyHierarchy()
+    {
+        assertEquals( Collections.emptyList(), hierarchy.getDirectSubclasses( "java.lang.Object" ) );
+    }
+
+    public void testDirectSubclasses()
+    {
+        JavaClass object = newJavaClass( "java.lang.Object", null );
+        JavaClass runnable = newJavaClass( "java.lang.Runnable", null );
+        JavaClass thread = newJavaClass( "java.lang.Thread", object, runnable );
+        JavaClass myThread = newJavaClass( "x.MyThread", thread );
+        hierarchy.add( thread );
+        hierarchy.add( myThread );
+
+        assertEquals( Collections.singletonList( thread ), hierarchy.getDirectSubclasses( "java.lang.Object" ) );
+        assertEquals( Collections.singletonList( thread ), hierarchy.getDirectSubclasses( "java.lang.Runnable" ) );
+        assertEquals( Collections.singletonList( myThread ), hierarchy.getDirectSubclasses( "java.lang.Thread" ) );
+        assertEquals( Collections.emptyList(), hierarchy.getDirectSubclasses( "x.MyThread" ) );
+    }
+
+    public void testClassesAreRegisteredOnce()
+    {
+        JavaClass object = newJavaClass( "java.lang.Object", null );
+        JavaClass a = newJavaClass( "x.A", object );
+        hierarchy.add( a );
+        hierarchy.add( newJavaClass( "x.A", object ) );
+
+        assertEquals( Collections.singletonList( a ), hierarchy.getDirectSubclasses( "java.lang.Object" ) );
+    }
+
+    public void testClassesAddedAfterQueryAreIndexed()
+    {
+        JavaClass object = newJavaClass( "java.lang.Object", null );
+        JavaClass a = newJavaClass( "x.A", object );
+        hierarchy.add( a );
+        assertEquals( 1, hierarchy.getDirectSubclasses( "java.lang.Object" ).size() );
+
+        JavaClass b = newJavaClass( "x.B", object );
+        hierarchy.add( b );
+        assertEquals( Arrays.asList( a, b ), hierarchy.getDirectSubclasses( "java.lang.Object" ) );
+    }
+}
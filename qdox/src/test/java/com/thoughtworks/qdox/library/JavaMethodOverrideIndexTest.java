@@ -0,0 +1,111 @@
+package com.thoughtworks.qdox.library;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
+
+public class JavaMethodOverrideIndexTest
+    extends AbstractLibraryIndexTest
+{
+    private JavaMethodOverrideIndex index;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        index = new JavaMethodOverrideIndex();
+    }
+
+    public void testUnregisteredMethod()
+    {
+        JavaClass base = addClass( "package x; public class Base { public void run() {} }" );
+
+        assertNull( index.getOverriddenMethods( base.getMethods().get( 0 ) ) );
+        assertEquals( 0, index.getOverridingMethods( base.getMethods().get( 0 ) ).size() );
+    }
+
+    public void testBothDirections()
+    {
+        JavaClass store = addClass( "package x; public interface Store<K> { void put(K key); }" );
+        JavaClass base = addClass( "package x; public class Base implements Store<String> { public void put(String key) {} }" );
+        JavaClass sub = addClass( "package x; public class Sub extends Base { public void put(String name) {} }" );
+        index.add( store );
+        index.add( base );
+        index.add( sub );
+        JavaMethod storePut = store.getMethods().get( 0 );
+        JavaMethod basePut = base.getMethods().get( 0 );
+        JavaMethod subPut = sub.getMethods().get( 0 );
+
+        assertEquals( Collections.emptyList(), index.getOverriddenMethods( storePut ) );
+        assertEquals( Collections.singletonList( storePut ), index.getOverriddenMethods( basePut ) );
+        assertEquals( Arrays.asList( basePut, storePut ), index.getOverriddenMethods( subPut ) );
+        assertEquals( Arrays.asList( basePut, subPut ), index.getOverridingMethods( storePut ) );
+        assertEquals( Collections.singletonList( subPut ), index.getOverridingMethods( basePut ) );
+        assertEquals( 0, index.getOverridingMethods( subPut ).size() );
+    }
+
+    public void testClassesAddedAfterQueryAreIndexed()
+    {
+        JavaClass base = addClass( "package x; public class Base { public void run() {} }" );
+        index.add( base );
+        JavaMethod baseRun = base.getMethods().get( 0 );
+        assertEquals( 0, index.getOverridingMethods( baseRun ).size() );
+
+        JavaClass sub = addClass( "package x; public class Sub extends Base { public void run() {} }" );
+        index.add( sub );
+        assertEquals( Collections.singletonList( sub.getMethods().get( 0 ) ), index.getOverridingMethods( baseRun ) );
+    }
+
+    public void testStaticAndPrivateMethodsDontOverride()
+    {
+        JavaClass base = addClass( "package x; public class Base { public static void run() {} private void stop() {} }" );
+        JavaClass sub = addClass( "package x; public class Sub extends Base { public static void run() {} public void stop() {} }" );
+        index.add( base );
+        index.add( sub );
+
+        assertEquals( 0, index.getOverriddenMethods( sub.getMethods().get( 0 ) ).size() );
+        assertEquals( 0, index.getOverriddenMethods( sub.getMethods().get( 1 ) ).size() );
+    }
+
+    public void testVarArgsOverrideArrays()
+    {
+        JavaClass base = addClass( "package x; public class Base { public void run(String[] args) {} public void stop(String arg) {} }" );
+        JavaClass sub = addClass( "package x; public class Sub extends Base { public void run(String... args) {} public void stop(String... args) {} }" );
+        index.add( base );
+        index.add( sub );
+
+        assertEquals( Collections.singletonList( base.getMethods().get( 0 ) ),
+                      index.getOverriddenMethods( sub.getMethods().get( 0 ) ) );
+        assertEquals( 0, index.getOverriddenMethods( sub.getMethods().get( 1 ) ).size() );
+    }
+
+    public void testOverrideThroughRawSupertype()
+    {
+        JavaClass base = addClass( "package x; public class Base<T> { public void put(T t) {} public <A> void m(A a) {} public <E extends Number> void n(E e) {} }" );
+        JavaClass raw = addClass( "package x; public class Raw extends Base { public void put(Object o) {} public void m(Object o) {} public void n(Number n) {} }" );
+        index.add( base );
+        index.add( raw );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertEquals( Collections.singletonList( base.getMethods().get( i ) ),
+                          index.getOverriddenMethods( raw.getMethods().get( i ) ) );
+        }
+    }
+
+    public void testOverrideWithRenamedTypeVariables()
+    {
+        JavaClass base = addClass( "package x; public class Base<T> { public void put(T t) {} public <A> void m(A a) {} public <E extends Number> void n(E e) {} }" );
+        JavaClass gen = addClass( "package x; public class Gen extends Base<String> { public void put(String s) {} public <B> void m(B b) {} public <F extends Number> void n(F f) {} }" );
+        index.add( base );
+        index.add( gen );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertEquals( Collections.singletonList( base.getMethods().get( i ) ),
+                          index.getOverriddenMethods( gen.getMethods().get( i ) ) );
+        }
+    }
+}
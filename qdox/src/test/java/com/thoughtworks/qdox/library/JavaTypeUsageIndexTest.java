@@ -0,0 +1,78 @@
+package com.thoughtworks.qdox.library;
+
+import java.util.List;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.JavaTypeUsage;
+import com.thoughtworks.qdox.model.JavaTypeUsage.Kind;
+
+public class JavaTypeUsageIndexTest
+    extends AbstractLibraryIndexTest
+{
+    private JavaTypeUsageIndex index;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        index = new JavaTypeUsageIndex();
+    }
+
+    @Override
+    protected void sourceAdded( JavaSource source )
+    {
+        index.add( source );
+    }
+
+    public void testUnknownType()
+    {
+        addSource( "package x; public class A { private String name; }" );
+
+        assertEquals( 0, index.getTypeUsages( "x.B" ).size() );
+    }
+
+    public void testArrayUsagesAreIndexedByComponentType()
+    {
+        JavaClass a = addSource( "package x; public class A { private B[] values; private B[][] matrix; }" ).getClasses().get( 0 );
+        addSource( "package x; public class B {}" );
+
+        List<JavaTypeUsage> usages = index.getTypeUsages( "x.B" );
+        assertEquals( 2, usages.size() );
+        assertEquals( Kind.FIELD, usages.get( 0 ).getKind() );
+        assertSame( a.getFieldByName( "values" ), usages.get( 0 ).getUser() );
+        assertSame( a.getFieldByName( "matrix" ), usages.get( 1 ).getUser() );
+        assertEquals( 0, index.getTypeUsages( "x.B[]" ).size() );
+    }
+
+    public void testVarArgsUsagesAreIndexedByComponentType()
+    {
+        JavaClass a = addSource( "package x; public class A { public void run(B... values) {} }" ).getClasses().get( 0 );
+        addSource( "package x; public class B {}" );
+
+        List<JavaTypeUsage> usages = index.getTypeUsages( "x.B" );
+        assertEquals( 1, usages.size() );
+        assertEquals( Kind.PARAMETER, usages.get( 0 ).getKind() );
+        assertSame( a.getMethods().get( 0 ).getParameters().get( 0 ), usages.get( 0 ).getUser() );
+    }
+
+    public void testGenericArrayUsagesAreIndexedByErasedType()
+    {
+        addSource( "package x; public class A<T> { private A<B>[] values; }" );
+        addSource( "package x; public class B {}" );
+
+        assertEquals( 1, index.getTypeUsages( "x.A" ).size() );
+        assertEquals( Kind.FIELD, index.getTypeUsages( "x.A" ).get( 0 ).getKind() );
+        assertEquals( Kind.TYPE_ARGUMENT, index.getTypeUsages( "x.B" ).get( 0 ).getKind() );
+    }
+
+    public void testSourcesAddedAfterQueryAreIndexed()
+    {
+        addSource( "package x; public class B {}" );
+        addSource( "package x; public class A { private B b; }" );
+        assertEquals( 1, index.getTypeUsages( "x.B" ).size() );
+
+        addSource( "package x; public class C { private B[] b; }" );
+        assertEquals( 2, index.getTypeUsages( "x.B" ).size() );
+    }
+}
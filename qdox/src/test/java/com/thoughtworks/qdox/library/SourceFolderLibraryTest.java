@@ -0,0 +1,99 @@
+package com.thoughtworks.qdox.library;
+
+import java.io.File;
+import java.io.FileWriter;
+
+import junit.framework.TestCase;
+
+import com.thoughtworks.qdox.model.JavaClass;
+
+public class SourceFolderLibraryTest
+    extends TestCase
+{
+    private File sourceFolder = new File( "target/test-source-folder" );
+
+    private SourceFolderLibrary sourceFolderLibrary;
+
+    protected void setUp()
+        throws Exception
+    {
+        createFile( "a", "A" );
+        createFile( "a", "B" );
+        sourceFolderLibrary = new SourceFolderLibrary( null, sourceFolder );
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        new File( sourceFolder, "a/A.java" ).delete();
+        new File( sourceFolder, "a/B.java" ).delete();
+        new File( sourceFolder, "a" ).delete();
+        sourceFolder.delete();
+    }
+
+    private void createFile( String packageName, String className )
+        throws Exception
+    {
+        File file = new File( sourceFolder, packageName + "/" + className + ".java" );
+        file.getParentFile().mkdirs();
+        FileWriter writer = new FileWriter( file );
+        writer.write( "package " + packageName + ";\n\n" );
+        writer.write( "public class " + className + " {\n}\n" );
+        writer.close();
+    }
+
+    public void testWithoutSourceCache()
+    {
+        JavaClass a = sourceFolderLibrary.getJavaClass( "a.A" );
+        assertNotNull( a );
+        assertSame( a, sourceFolderLibrary.getJavaClass( "a.A" ) );
+        assertNull( sourceFolderLibrary.getSourceCache() );
+    }
+
+    public void testSourceCacheReleasesLeastRecentlyUsedSource()
+    {
+        SourceCache sourceCache = new SourceCache( 1, false );
+        sourceFolderLibrary.setSourceCache( sourceCache );
+
+        JavaClass a = sourceFolderLibrary.getJavaClass( "a.A" );
+        assertEquals( "a.A", a.getFullyQualifiedName() );
+        assertSame( a, sourceFolderLibrary.getJavaClass( "a.A" ) );
+        assertEquals( 1, sourceCache.getMissCount() );
+        assertEquals( 1, sourceCache.getHitCount() );
+
+        assertNotNull( sourceFolderLibrary.getJavaClass( "a.B" ) );
+        assertEquals( 2, sourceCache.getMissCount() );
+        assertEquals( 0, sourceCache.getReparseCount() );
+
+        JavaClass reparsedA = sourceFolderLibrary.getJavaClass( "a.A" );
+        assertNotSame( a, reparsedA );
+        assertEquals( a, reparsedA );
+        assertEquals( 3, sourceCache.getMissCount() );
+        assertEquals( 1, sourceCache.getReparseCount() );
+        assertEquals( 0, sourceFolderLibrary.getJavaSources().size() );
+    }
+
+    public void testFreezeKeepsAvailableSources()
+    {
+        SourceCache sourceCache = new SourceCache( 1, false );
+        sourceFolderLibrary.setSourceCache( sourceCache );
+        sourceFolderLibrary.getJavaClass( "a.A" );
+        JavaClass b = sourceFolderLibrary.getJavaClass( "a.B" );
+
+        sourceFolderLibrary.freeze();
+        assertSame( b, sourceFolderLibrary.getJavaClass( "a.B" ) );
+        assertEquals( 1, sourceFolderLibrary.getJavaSources().size() );
+        JavaClass a = sourceFolderLibrary.getJavaClass( "a.A" );
+        assertEquals( "a.A", a.getFullyQualifiedName() );
+        assertSame( a, sourceFolderLibrary.getJavaClass( "a.A" ) );
+    }
+
+    public void testFreezeWithoutSourceCacheParsesOnRequest()
+    {
+        sourceFolderLibrary.freeze();
+        assertEquals( 0, sourceFolderLibrary.getJavaSources().size() );
+        JavaClass a = sourceFolderLibrary.getJavaClass( "a.A" );
+        assertNotNull( a );
+        assertSame( a, sourceFolderLibrary.getJavaClass( "a.A" ) );
+    }
+}
@@ -623,6 +623,7 @@ public abstract class JavaClassTest<C extends JavaClass> {
         fields.add( enumConstantField );
         setFields( cls, fields );
         assertEquals( enumConstantField, cls.getEnumConstantByName( "enumField" ) );
+        assertEquals( null, cls.getEnumConstantByName( "unknownField" ) );
     }
     
     @Test
@@ -642,8 +643,10 @@ public abstract class JavaClassTest<C extends JavaClass> {
     public void testCanGetMethodBySignature() {
         final String methodName = "doStuff";
         final List<JavaType> parameterTypes = javaType(new String[]{"int", "double"});
+        JavaParameter parameter = mock(JavaParameter.class);
         JavaMethod method = mock(JavaMethod.class);
         when(method.getName()).thenReturn(methodName);
+        when(method.getParameters()).thenReturn( Collections.nCopies( 2, parameter ) );
         //both signatureMatches-methods are allowed
         when(method.signatureMatches( "doStuff", parameterTypes )).thenReturn( true );
         when(method.signatureMatches( "doStuff", parameterTypes, false )).thenReturn( true );
@@ -674,6 +677,23 @@ public abstract class JavaClassTest<C extends JavaClass> {
         assertEquals(null, cls.getNestedClassByName("Bogus"));
     }
 
+    @Test
+    public void testCanGetNestedClassByDottedName() throws Exception 
+    {
+        JavaClass deepestClass = mock( JavaClass.class );
+        JavaClass deeperClass = mock( JavaClass.class );
+        when( deeperClass.getNestedClassByName( "Deepest" ) ).thenReturn( deepestClass );
+        JavaClass innerClass = mock( JavaClass.class );
+        when( innerClass.getName() ).thenReturn( "Inner" );
+        when( innerClass.getNestedClassByName( "Deeper" ) ).thenReturn( deeperClass );
+        setClasses(cls, Collections.singletonList( innerClass ) );
+
+        assertEquals(deeperClass, cls.getNestedClassByName("Inner.Deeper"));
+        assertEquals(deepestClass, cls.getNestedClassByName("Inner.Deeper.Deepest"));
+        assertEquals(null, cls.getNestedClassByName("Inner.Bogus.Deepest"));
+        assertEquals(null, cls.getNestedClassByName("Bogus.Deeper"));
+    }
+
     @Test
     public void testResolveTypeDefaultsToParentScope()
         throws Exception
@@ -732,7 +752,24 @@ public abstract class JavaClassTest<C extends JavaClass> {
         assertEquals(getFooMethod, fooProp.getAccessor());
         assertEquals(setFooMethod, fooProp.getMutator());
     }
-    
+
+    @Test
+    public void testGetBeanPropertiesFollowsChangedMethods() throws Exception {
+        assertEquals(0, cls.getBeanProperties().size());
+
+        JavaMethod getFooMethod = mock(JavaMethod.class);
+        when(getFooMethod.getName()).thenReturn( "getFoo" );
+        JavaClass intType = newJavaClass("int");
+        when(getFooMethod.getReturnType()).thenReturn( intType );
+        when(getFooMethod.isPropertyAccessor()).thenReturn( true );
+        when(getFooMethod.getPropertyName()).thenReturn( "foo" );
+        when(getFooMethod.getPropertyType()).thenReturn( intType );
+        setMethods( cls, Collections.singletonList( getFooMethod ) );
+
+        assertEquals(1, cls.getBeanProperties().size());
+        assertSame(cls.getBeanProperty( "foo" ), cls.getBeanProperty( "foo" ));
+    }
+
     @Test
     public void testToStringClass() {
     	setName(cls, "com.MyClass");
@@ -847,7 +884,10 @@ public abstract class JavaClassTest<C extends JavaClass> {
     @Test
     public void testGetVarArgMethodSignature() {
         List<JavaMethod> methods = new ArrayList<JavaMethod>();
+        JavaParameter parameter = mock(JavaParameter.class);
         JavaMethod simpleMethod = mock(JavaMethod.class);
+        when(simpleMethod.getName()).thenReturn( "doSomething" );
+        when(simpleMethod.getParameters()).thenReturn( Collections.singletonList( parameter ) );
         
         JavaType stringType = newType( "String" );
         //both signatureMatches-methods are allowed
@@ -856,6 +896,9 @@ public abstract class JavaClassTest<C extends JavaClass> {
         methods.add( simpleMethod );
         
         JavaMethod varArgMethod = mock(JavaMethod.class);
+        when(varArgMethod.getName()).thenReturn( "doSomething" );
+        when(varArgMethod.getParameters()).thenReturn( Collections.singletonList( parameter ) );
+        when(varArgMethod.isVarArgs()).thenReturn( true );
         when(varArgMethod.signatureMatches( "doSomething", Collections.singletonList( stringType ), true )).thenReturn( true );
         methods.add( varArgMethod );
         
@@ -0,0 +1,109 @@
+package com.thoughtworks.qdox.model.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.thoughtworks.qdox.library.SortedClassLibraryBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
+import com.thoughtworks.qdox.model.JavaParameter;
+import com.thoughtworks.qdox.model.JavaType;
+import com.thoughtworks.qdox.model.JavaTypeVariable;
+
+public class MethodSignatureTest
+{
+    @Test
+    public void testParameterNamesAreIgnored()
+    {
+        JavaMethod method = newMethod( "get", new DefaultJavaParameter( new DefaultJavaType( "java.lang.String" ), "key" ) );
+        JavaMethod other = newMethod( "get", new DefaultJavaParameter( new DefaultJavaType( "java.lang.String" ), "name" ) );
+
+        assertEquals( MethodSignature.of( method ), MethodSignature.of( other ) );
+        assertEquals( MethodSignature.of( method ).hashCode(), MethodSignature.of( other ).hashCode() );
+        assertEquals( "get(java.lang.String)", MethodSignature.of( method ).toString() );
+    }
+
+    @Test
+    public void testDifferentParameterTypes()
+    {
+        JavaMethod method = newMethod( "put", new DefaultJavaParameter( new DefaultJavaType( "java.lang.String" ), "key" ) );
+        JavaMethod other = newMethod( "put", new DefaultJavaParameter( new DefaultJavaType( "java.lang.Object" ), "key" ) );
+        JavaMethod array = newMethod( "put", new DefaultJavaParameter( new DefaultJavaType( "java.lang.String", 1 ), "key" ) );
+
+        assertFalse( MethodSignature.of( method ).equals( MethodSignature.of( other ) ) );
+        assertFalse( MethodSignature.of( method ).equals( MethodSignature.of( array ) ) );
+    }
+
+    @Test
+    public void testVarArgsAreNotArrays()
+    {
+        JavaMethod method = newMethod( "put", new DefaultJavaParameter( new DefaultJavaType( "java.lang.String", 1 ), "keys" ) );
+        JavaMethod varArgs = newMethod( "put", new DefaultJavaParameter( new DefaultJavaType( "java.lang.String", 1 ), "keys", true ) );
+
+        assertFalse( MethodSignature.of( method ).equals( MethodSignature.of( varArgs ) ) );
+    }
+
+    @Test
+    public void testUnboundedTypeVariableIsErasedToObject()
+    {
+        DefaultJavaMethod method = newMethod( "get", new DefaultJavaParameter( new DefaultJavaType( "T" ), "key" ) );
+        method.setTypeParameters( Collections.<JavaTypeVariable<JavaMethod>>singletonList( new DefaultJavaTypeVariable<JavaMethod>( "T", method ) ) );
+        JavaMethod other = newMethod( "get", new DefaultJavaParameter( new DefaultJavaType( "java.lang.Object" ), "key" ) );
+
+        assertEquals( "get(java.lang.Object)", MethodSignature.of( method ).toString() );
+        assertEquals( MethodSignature.of( other ), MethodSignature.of( method ) );
+    }
+
+    @Test
+    public void testBoundedTypeVariableIsErasedToItsFirstBound()
+    {
+        DefaultJavaMethod method = newMethod( "sort", new DefaultJavaParameter( new DefaultJavaType( "T", 1 ), "values" ) );
+        DefaultJavaTypeVariable<JavaMethod> typeVariable = new DefaultJavaTypeVariable<JavaMethod>( "T", method );
+        typeVariable.setBounds( Arrays.<JavaType>asList( new DefaultJavaType( "java.lang.Number" ),
+                                                         new DefaultJavaType( "java.lang.Comparable" ) ) );
+        method.setTypeParameters( Collections.<JavaTypeVariable<JavaMethod>>singletonList( typeVariable ) );
+
+        assertEquals( "sort(java.lang.Number[])", MethodSignature.of( method ).toString() );
+    }
+
+    @Test
+    public void testTypeVariableOfDeclaringClassIsErased()
+    {
+        DefaultJavaClass cls = new DefaultJavaClass( "Store" );
+        cls.setSource( new DefaultJavaSource( new SortedClassLibraryBuilder().getClassLibrary() ) );
+        DefaultJavaTypeVariable<JavaClass> typeVariable = new DefaultJavaTypeVariable<JavaClass>( "K", cls );
+        typeVariable.setBounds( Collections.<JavaType>singletonList( new DefaultJavaType( "java.lang.CharSequence" ) ) );
+        cls.setTypeParameters( Collections.singletonList( typeVariable ) );
+        DefaultJavaMethod method = newMethod( "get", new DefaultJavaParameter( new DefaultJavaType( "K" ), "key" ) );
+        method.setParentClass( cls );
+
+        assertEquals( "get(java.lang.CharSequence)", MethodSignature.of( method ).toString() );
+    }
+
+    @Test
+    public void testRecursiveBoundsAreErasedToObject()
+    {
+        DefaultJavaMethod method = newMethod( "get", new DefaultJavaParameter( new DefaultJavaType( "T" ), "key" ) );
+        DefaultJavaTypeVariable<JavaMethod> t = new DefaultJavaTypeVariable<JavaMethod>( "T", method );
+        DefaultJavaTypeVariable<JavaMethod> u = new DefaultJavaTypeVariable<JavaMethod>( "U", method );
+        t.setBounds( Collections.<JavaType>singletonList( new DefaultJavaType( "U" ) ) );
+        u.setBounds( Collections.<JavaType>singletonList( new DefaultJavaType( "T" ) ) );
+        method.setTypeParameters( Arrays.<JavaTypeVariable<JavaMethod>>asList( t, u ) );
+
+        assertEquals( "get(java.lang.Object)", MethodSignature.of( method ).toString() );
+    }
+
+    private static DefaultJavaMethod newMethod( String name, JavaParameter... parameters )
+    {
+        DefaultJavaMethod result = new DefaultJavaMethod( name );
+        List<JavaParameter> parameterList = Arrays.asList( parameters );
+        result.setParameters( parameterList );
+        return result;
+    }
+}
@@ -16,6 +16,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.stubbing.answers.ReturnsElementsOf;
 
 import com.thoughtworks.qdox.builder.Builder;
+import com.thoughtworks.qdox.model.expression.Add;
+import com.thoughtworks.qdox.model.expression.AnnotationValue;
+import com.thoughtworks.qdox.model.expression.Constant;
+import com.thoughtworks.qdox.model.expression.FieldRef;
 import com.thoughtworks.qdox.parser.impl.Parser;
 import com.thoughtworks.qdox.parser.structs.AnnoDef;
 import com.thoughtworks.qdox.parser.structs.ClassDef;
@@ -2829,6 +2833,22 @@ public class ParserTest extends TestCase {
         assertEquals( "//test", init.getBlockContent() );
     }
 
+    public void testExpression() throws Exception {
+        setupLex(Parser.IDENTIFIER, "Constants");
+        setupLex(Parser.DOT);
+        setupLex(Parser.IDENTIFIER, "SIZE");
+        setupLex(Parser.PLUS);
+        setupLex(Parser.INTEGER_LITERAL, "1");
+        setupLex(0);
+
+        Parser parser = new Parser(lexer, builder);
+        AnnotationValue expression = parser.parseExpression();
+
+        Add add = (Add) expression;
+        assertEquals("Constants.SIZE", ((FieldRef) add.getLeft()).getName());
+        assertEquals("1", ((Constant) add.getRight()).getImage());
+    }
+
     private void setupLex(int token, String value) {
         lexValues.add( token );
         textValues.add( value );
@@ -0,0 +1,64 @@
+package com.thoughtworks.qdox.parser.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ConstantValueReaderTest
+{
+    @Test
+    public void testConstantsHaveTheTypeOfTheirField()
+    {
+        Map<String, Object> values = ConstantValueReader.read( Constants.class );
+
+        assertEquals( Boolean.TRUE, values.get( "FLAG" ) );
+        assertEquals( Byte.valueOf( (byte) -1 ), values.get( "BYTE" ) );
+        assertEquals( Character.valueOf( '\u20ac' ), values.get( "CHAR" ) );
+        assertEquals( Short.valueOf( Short.MIN_VALUE ), values.get( "SHORT" ) );
+        assertEquals( Integer.valueOf( Integer.MIN_VALUE ), values.get( "INT" ) );
+        assertEquals( Long.valueOf( Long.MAX_VALUE ), values.get( "LONG" ) );
+        assertEquals( Float.valueOf( 1.5F ), values.get( "FLOAT" ) );
+        assertTrue( ( (Double) values.get( "NAN" ) ).isNaN() );
+        assertEquals( "\"quoted\"\n", values.get( "STRING" ) );
+    }
+
+    @Test
+    public void testOnlyCompileTimeConstantsAreRead()
+    {
+        Map<String, Object> values = ConstantValueReader.read( Constants.class );
+
+        assertFalse( values.containsKey( "COMPUTED" ) );
+        assertFalse( values.containsKey( "instance" ) );
+        assertEquals( 9, values.size() );
+    }
+
+    @SuppressWarnings( "unused" )
+    private static class Constants
+    {
+        static final boolean FLAG = true;
+
+        static final byte BYTE = -1;
+
+        static final char CHAR = '\u20ac';
+
+        static final short SHORT = Short.MIN_VALUE;
+
+        static final int INT = Integer.MIN_VALUE;
+
+        static final long LONG = Long.MAX_VALUE;
+
+        static final float FLOAT = 1.5F;
+
+        static final double NAN = Double.NaN;
+
+        static final String STRING = "\"quoted\"\n";
+
+        static final Integer COMPUTED = Integer.valueOf( 1 );
+
+        final int instance = 1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.thoughtworks.qdox.writer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+public class BatchSourceWriterTest {
+
+    private File outputDirectory;
+
+    private BatchSourceWriter batchWriter;
+
+    private JavaProjectBuilder builder;
+
+    @Before
+    public void setUp() throws Exception {
+        outputDirectory = File.createTempFile("qdox", "batch");
+        outputDirectory.delete();
+        outputDirectory.mkdir();
+        batchWriter = new BatchSourceWriter(outputDirectory);
+        batchWriter.setEncoding("UTF-8");
+        batchWriter.setThreadCount(2);
+        builder = new JavaProjectBuilder();
+    }
+
+    @After
+    public void tearDown() {
+        delete(outputDirectory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void testWriteSources() throws Exception {
+        List<JavaSource> sources = new ArrayList<JavaSource>();
+        for (int i = 0; i < 20; i++) {
+            sources.add(builder.addSource(new StringReader("package x.y; class Helper" + i + " {} public class Type" + i
+                + " { int field; }")));
+        }
+        List<BatchSourceWriter.Result> results = batchWriter.writeSources(sources);
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            BatchSourceWriter.Result result = results.get(i);
+            assertEquals(new File(outputDirectory, "x" + File.separator + "y" + File.separator + "Type" + i + ".java"),
+                          result.getFile());
+            assertTrue(result.isWritten());
+            assertTrue(result.getElapsedTime() >= 0);
+            assertEquals(sources.get(i).getCodeBlock().length(), result.getFile().length());
+        }
+    }
+
+    @Test
+    public void testUnchangedFilesAreSkipped() throws Exception {
+        JavaSource source = builder.addSource(new StringReader("package x; public class Type { int field; }"));
+        File file = batchWriter.writeSources(Collections.singletonList(source)).get(0).getFile();
+        file.setLastModified(0);
+
+        BatchSourceWriter.Result result = batchWriter.writeSources(Collections.singletonList(source)).get(0);
+        assertFalse(result.isWritten());
+        assertEquals(0, file.lastModified());
+
+        JavaSource changedSource = new JavaProjectBuilder().addSource(new StringReader("package x; public class Type { long field; }"));
+        result = batchWriter.writeSources(Collections.singletonList(changedSource)).get(0);
+        assertTrue(result.isWritten());
+    }
+
+    @Test
+    public void testWriteClasses() throws Exception {
+        builder.addSource(new StringReader("package x; public class Type { int field; }"));
+        JavaClass cls = builder.getClassByName("x.Type");
+        BatchSourceWriter.Result result = batchWriter.writeClasses(Collections.singletonList(cls)).get(0);
+        assertEquals(new File(outputDirectory, "x" + File.separator + "Type.java"), result.getFile());
+        assertEquals("package x;\n\n" + cls.getCodeBlock(), read(result.getFile()));
+    }
+
+    @Test
+    public void testWriteClassesWithImports() throws Exception {
+        builder.addSource(new StringReader("package x; import java.util.List; public class Type { List<String> names; }"));
+        JavaClass cls = builder.getClassByName("x.Type");
+        BatchSourceWriter.Result result = batchWriter.writeClasses(Collections.singletonList(cls)).get(0);
+        assertEquals("package x;\n\nimport java.util.List;\n\n" + cls.getCodeBlock(), read(result.getFile()));
+    }
+
+    @Test
+    public void testCustomModelWriter() throws Exception {
+        batchWriter = new BatchSourceWriter(outputDirectory) {
+            protected DefaultModelWriter newModelWriter(Appendable out) {
+                DefaultModelWriter writer = new DefaultModelWriter(out);
+                writer.setEol("\r\n");
+                return writer;
+            }
+        };
+        JavaSource source = builder.addSource(new StringReader("package x; public class Type { int field; }"));
+        File file = batchWriter.writeSources(Collections.singletonList(source)).get(0).getFile();
+        assertEquals(source.getCodeBlock().replace("\n", "\r\n"), read(file));
+    }
+
+    private static String read(File file) throws Exception {
+        byte[] content = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(content);
+        }
+        finally {
+            in.close();
+        }
+        return new String(content, "UTF-8");
+    }
+}
@@ -2,6 +2,8 @@ package com.thoughtworks.qdox.writer.impl;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.StringWriter;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -49,4 +51,58 @@ public class IndentBufferTest {
                 + "Line2\n";
         assertEquals(expected, buffer.toString());
     }
+
+    @Test
+    public void testCustomIndentation() throws Exception {
+        buffer.setIndentation("  ");
+        buffer.setEol("\r\n");
+        buffer.write("Line1");
+        buffer.newline();
+        buffer.indent();
+        buffer.write("Indent1");
+        buffer.newline();
+        String expected = ""
+                + "Line1\r\n"
+                + "  Indent1\r\n";
+        assertEquals(expected, buffer.toString());
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        StringWriter out = new StringWriter();
+        buffer = new IndentBuffer(out);
+        buffer.write("Line1");
+        buffer.newline();
+        buffer.indent();
+        buffer.write("Indent1");
+        buffer.newline();
+        assertEquals("", out.toString());
+        buffer.flush();
+        String expected = ""
+                + "Line1\n"
+                + "\tIndent1\n";
+        assertEquals(expected, out.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStreamedCodeIsNotAvailableAsString() throws Exception {
+        buffer = new IndentBuffer(new StringWriter());
+        buffer.write("Line1");
+        buffer.toString();
+    }
+
+    @Test
+    public void testStreamingLargeOutput() throws Exception {
+        StringWriter out = new StringWriter();
+        buffer = new IndentBuffer(out);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            buffer.write("Line" + i);
+            buffer.newline();
+            expected.append("Line").append(i).append('\n');
+        }
+        assertEquals(true, out.getBuffer().length() > 0);
+        buffer.flush();
+        assertEquals(expected.toString(), out.toString());
+    }
 }